@@ -0,0 +1,644 @@
+package csssingleliner;
+
+import javax.swing.*;
+import javax.swing.text.*;
+
+import csssingleliner.core.ConversionStats;
+import csssingleliner.core.CssIndex;
+import csssingleliner.core.CssPostProcessor;
+import csssingleliner.core.CssFileInput;
+import csssingleliner.core.FileWatcher;
+import csssingleliner.core.IncrementalConverter;
+
+import java.awt.*;
+import java.awt.event.ItemEvent; // ItemListener 사용
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+public class CSSSingleLiner extends JFrame {
+
+    private JTextPane outputTextPane;
+    private JScrollPane outputScrollPane; // outputTextPane 이나 큰 결과용 textView 를 보여 줌
+    private JPanel dropPanel;
+    private JLabel dropLabel;
+    private JCheckBox removeCommentsCheckbox; // 주석 제거 체크박스 추가
+    private JCheckBox watchCheckbox; // 파일 변경 감시
+
+    // 변경 감시: 파일이 저장되면 바뀐 블록만 다시 변환하고 바뀐 줄만 다시 강조
+    private FileWatcher fileWatcher;
+    private IncrementalConverter incrementalConverter = new IncrementalConverter();
+    private File currentFile = null;
+
+    // 현재 파일의 단계별 처리 통계 (전체 누적 통계 ConversionStats.global() 에도 더해짐, JMX/JFR 로도 보임)
+    private ConversionStats fileStats = new ConversionStats(ConversionStats.global());
+    private StageStatsPanel statsPanel;
+
+    // 표시 중인 문서의 선택자/속성 검색 (색인은 강조와 함께 백그라운드에서 만듦)
+    private RuleSearchPanel searchPanel;
+
+    // 구문 강조 (스타일 정의 포함). 처음 결과를 표시할 때 만듦 (highlighter())
+    private CssHighlighter highlighter;
+    private SwingWorker<?, Void> highlightWorker; // 진행 중인 구문 강조 작업 (EDT 에서만 접근)
+    private CssTextView textView; // 큰 결과용 뷰 (처음 쓸 때 만듦, textView())
+    private HighlightedText shownText; // textView 에 표시 중인 큰 결과 (없으면 null)
+
+    // 강조가 끝난 문서 (파일, 주석 제거 여부별). 체크박스를 다시 누르면 바로 표시
+    private final DocumentCache documentCache = new DocumentCache(Runtime.getRuntime().maxMemory() / 4);
+
+    // 이보다 긴 결과는 JTextPane 대신 보이는 줄과 열만 그리는 CssTextView 로 표시
+    private static final int TEXT_VIEW_THRESHOLD = 1_000_000;
+
+    // 드롭된 파일/폴더의 백그라운드 변환 (화면 갱신을 위해 코어 하나는 남김)
+    private final ConversionQueue conversionQueue = new ConversionQueue(new QueueListener(),
+            Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    private final DefaultListModel<ConversionJob> jobListModel = new DefaultListModel<>();
+    private JList<ConversionJob> jobList;
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+    private int batchTotal; // 지금 진행 중인 드롭들의 작업 수 (모두 끝나면 다음 드롭에서 0 부터)
+    private int batchFinished;
+    private boolean batchShown; // 이번 드롭들의 결과를 하나 이상 표시했음
+
+    // 목록의 완료 작업이 들고 있는 변환 결과 (최근에 끝나거나 표시한 순). 합계가 상한을 넘으면 오래된 결과부터 버리고,
+    // 버린 작업을 다시 고르면 다시 읽음 (폴더를 통째로 드롭해도 결과 문자열이 힙을 채우지 않게)
+    private static final long RETAINED_RESULT_BYTES = Runtime.getRuntime().maxMemory() / 8;
+    private final LinkedHashMap<ConversionJob, Long> retainedResults = new LinkedHashMap<>(16, 0.75f, true);
+    private long retainedBytes;
+
+    // 원본 처리 결과 저장 변수 (주석 포함, 한 줄 변환 적용된 상태)
+    private String processedCssWithComments = null;
+    private String currentFileName = null; // 현재 처리된 파일 이름 저장
+    private DocumentCache.Key currentFileKey = null; // 현재 파일 버전 (캐시 키)
+
+    public CSSSingleLiner() {
+        super("CSSSingleLiner");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(800, 600);
+        setLocationRelativeTo(null);
+        
+
+        // --- 프레임 아이콘 설정 ---
+        try {
+            URL iconURL = getClass().getResource("icon.png");
+
+            if (iconURL != null) {
+                // JFrame의 아이콘으로 설정 (ImageIcon 과 달리 다 읽을 때까지 기다리지 않고, 처음 그릴 때 읽음)
+                setIconImage(Toolkit.getDefaultToolkit().getImage(iconURL));
+            } else {
+                // 아이콘 파일을 찾지 못한 경우 에러 메시지 출력 (콘솔)
+                System.err.println("아이콘 리소스를 찾을 수 없습니다: /icon.png");
+            }
+        } catch (Exception e) {
+            // 아이콘 로딩 중 예외 발생 시 에러 메시지 출력
+             System.err.println("아이콘 로딩 중 오류 발생: " + e.getMessage());
+             e.printStackTrace();
+        }
+
+        // --- UI 구성 ---
+        outputTextPane = new JTextPane() {
+            @Override
+            public boolean getScrollableTracksViewportWidth() {
+                // 이 메서드가 false를 반환하면, JTextPane은 JScrollPane의 뷰포트 너비에
+                // 맞춰 내용을 줄바꿈하지 않고, 내용 자체의 너비를 기준으로 크기를 결정합니다.
+                // 따라서 내용이 길어지면 가로 스크롤바가 나타나게 됩니다.
+                return false;
+            }
+        };
+        outputTextPane.setEditable(false); // 편집 불가능 설정
+
+        // JScrollPane 생성 및 가로 스크롤바 정책 설정
+        outputScrollPane = new JScrollPane(outputTextPane);
+        outputScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
+        outputScrollPane.setHorizontalScrollBarPolicy(JScrollPane.HORIZONTAL_SCROLLBAR_ALWAYS); // 가로 스크롤바 추가
+
+        // 드롭 패널 설정 (BorderLayout 사용)
+        dropPanel = new JPanel(new BorderLayout(5, 5)); // 여백 추가
+        dropPanel.setBackground(Color.LIGHT_GRAY);
+        dropPanel.setPreferredSize(new Dimension(250, 600)); // 너비 조정
+
+        // 드롭 안내 레이블
+        dropLabel = new JLabel("<html><center>여기에 CSS 파일이나<br>폴더를 드롭하세요</center></html>", SwingConstants.CENTER); // 멀티라인 HTML 사용
+        dropLabel.setForeground(Color.DARK_GRAY);
+
+        // 결과 목록 (파일별 상태). 완료된 항목을 고르면 오른쪽에 표시
+        jobList = new JList<>(jobListModel);
+        jobList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        jobList.setFont(jobList.getFont().deriveFont(11f));
+        jobList.addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) showJob(jobList.getSelectedValue());
+        });
+        JScrollPane jobScrollPane = new JScrollPane(jobList);
+
+        // 진행 막대와 취소 버튼
+        progressBar = new JProgressBar();
+        progressBar.setStringPainted(true);
+        progressBar.setString("대기 중인 작업 없음");
+        cancelButton = new JButton("취소");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(e -> conversionQueue.cancel());
+        JPanel progressPanel = new JPanel(new BorderLayout(5, 0));
+        progressPanel.setOpaque(false);
+        progressPanel.add(progressBar, BorderLayout.CENTER);
+        progressPanel.add(cancelButton, BorderLayout.EAST);
+
+        JPanel jobPanel = new JPanel(new BorderLayout(5, 5));
+        jobPanel.setOpaque(false);
+        jobPanel.add(dropLabel, BorderLayout.NORTH);
+        jobPanel.add(jobScrollPane, BorderLayout.CENTER);
+        jobPanel.add(progressPanel, BorderLayout.SOUTH);
+        dropPanel.add(jobPanel, BorderLayout.CENTER);
+
+        // 컨트롤 패널 (체크박스 줄 + 그 아래 접을 수 있는 처리 통계)
+        JPanel controlPanel = new JPanel(new BorderLayout());
+        controlPanel.setBackground(Color.LIGHT_GRAY); // 배경색 일치
+        JPanel checkboxPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        checkboxPanel.setOpaque(false);
+        removeCommentsCheckbox = new JCheckBox("주석 제거");
+        removeCommentsCheckbox.setBackground(Color.LIGHT_GRAY); // 배경색 일치
+        checkboxPanel.add(removeCommentsCheckbox);
+        watchCheckbox = new JCheckBox("변경 감시");
+        watchCheckbox.setBackground(Color.LIGHT_GRAY);
+        watchCheckbox.setToolTipText("파일이 저장되면 자동으로 다시 변환");
+        checkboxPanel.add(watchCheckbox);
+        controlPanel.add(checkboxPanel, BorderLayout.NORTH);
+        statsPanel = new StageStatsPanel();
+        controlPanel.add(statsPanel, BorderLayout.CENTER);
+        dropPanel.add(controlPanel, BorderLayout.NORTH); // 드롭 패널 상단에 추가
+        searchPanel = new RuleSearchPanel(this::jumpTo);
+        dropPanel.add(searchPanel, BorderLayout.SOUTH);
+
+        // 체크박스 리스너 추가 (ItemListener 사용 권장)
+        removeCommentsCheckbox.addItemListener(e -> {
+             // 체크박스 상태 변경 시 화면 업데이트
+             if (processedCssWithComments != null) {
+                 updateOutputPane(); // 저장된 내용을 기반으로 화면 갱신
+             }
+         });
+        watchCheckbox.addItemListener(e -> {
+            if (watchCheckbox.isSelected() && currentFile != null) {
+                startWatching(currentFile);
+            } else {
+                stopWatching();
+            }
+        });
+
+
+        // 목록 위에 드롭해도 받음 (JList 의 기본 TransferHandler 는 드롭을 받지 않음)
+        FileDropHandler dropHandler = new FileDropHandler(this);
+        dropPanel.setTransferHandler(dropHandler);
+        jobList.setTransferHandler(dropHandler);
+
+        JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, dropPanel, outputScrollPane);
+        splitPane.setDividerLocation(250); // 분할선 위치 고정
+
+        getContentPane().add(splitPane);
+    }
+
+    // 드롭된 파일/폴더를 변환 큐에 넣음. 변환은 백그라운드에서 진행되고 결과 목록에 하나씩 나타남
+    public void processFiles(List<File> files) {
+        if (batchFinished == batchTotal) { // 앞선 드롭이 모두 끝났으면 새 진행
+            batchTotal = 0;
+            batchFinished = 0;
+            batchShown = false;
+        }
+        conversionQueue.submit(new ArrayList<>(files));
+    }
+
+    // 작업 상태가 바뀔 때 목록과 진행 막대를 갱신 (EDT). 완료 수는 알릴 때의 상태(state)로 셈:
+    // 빠른 작업은 이 알림을 처리할 때 이미 끝나 있지만, 그 완료는 뒤따르는 알림에서 한 번만 셈
+    private final class QueueListener implements ConversionQueue.Listener {
+        @Override
+        public void jobAdded(ConversionJob job, ConversionJob.State state) {
+            jobListModel.addElement(job);
+            batchTotal++;
+            if (state.isFinished()) batchFinished++;
+            updateProgress();
+        }
+
+        @Override
+        public void jobChanged(ConversionJob job, ConversionJob.State state) {
+            int index = jobListModel.lastIndexOf(job);
+            if (index >= 0) jobListModel.set(index, job); // 다시 그림
+            if (!state.isFinished()) return;
+            batchFinished++;
+            updateProgress();
+            if (state == ConversionJob.State.DONE) retainResult(job);
+            // 이번 드롭에서 처음 끝난 파일은 바로 표시 (하나만 드롭했을 때 예전처럼)
+            if (state == ConversionJob.State.DONE && !batchShown && jobList.isSelectionEmpty()) {
+                batchShown = true;
+                jobList.setSelectedIndex(index);
+            } else if (job == jobList.getSelectedValue()) {
+                showJob(job);
+            }
+        }
+    }
+
+    // 완료 작업의 결과를 보관 목록에 넣고 (이미 있으면 최근으로), 상한을 넘으면 오래된 결과부터 버림 (표시 중인 결과는 남김)
+    private void retainResult(ConversionJob job) {
+        if (job.result == null) return;
+        Long old = retainedResults.put(job, job.result.length() * 2L);
+        retainedBytes += job.result.length() * 2L - (old != null ? old : 0);
+        Iterator<Map.Entry<ConversionJob, Long>> eldest = retainedResults.entrySet().iterator();
+        while (retainedBytes > RETAINED_RESULT_BYTES && eldest.hasNext()) {
+            Map.Entry<ConversionJob, Long> entry = eldest.next();
+            ConversionJob dropped = entry.getKey();
+            if (dropped == job || dropped.result == processedCssWithComments) continue;
+            dropped.result = null;
+            retainedBytes -= entry.getValue();
+            eldest.remove();
+        }
+    }
+
+    private void updateProgress() {
+        boolean running = batchFinished < batchTotal;
+        progressBar.setMaximum(Math.max(1, batchTotal));
+        progressBar.setValue(batchFinished);
+        progressBar.setString(batchFinished + " / " + batchTotal + (running ? " 변환 중" : " 완료"));
+        cancelButton.setEnabled(running);
+    }
+
+    // 결과 목록에서 고른 작업을 표시 (완료된 작업이면 한 줄 변환 결과를 강조해 표시)
+    private void showJob(ConversionJob job) {
+        if (job == null || job.getState() != ConversionJob.State.DONE) {
+            if (job != null) {
+                displayError(job.toString());
+            }
+            return;
+        }
+        if (job.result == null) {
+            // 메모리 상한 때문에 버린 결과: 다시 읽어 (대개 디스크 결과 캐시에서) 아직 골라져 있으면 표시
+            updateDropLabel(job.file.getName() + "\n다시 읽는 중...");
+            conversionQueue.reload(job, fresh -> {
+                if (fresh.getState() != ConversionJob.State.DONE) {
+                    if (job == jobList.getSelectedValue()) displayError(fresh.toString());
+                    return;
+                }
+                job.key = fresh.key;
+                job.result = fresh.result;
+                job.errors = fresh.errors;
+                if (job == jobList.getSelectedValue()) showJob(job);
+                else retainResult(job);
+            });
+            return;
+        }
+        if (job.file.equals(currentFile) && job.result == processedCssWithComments) {
+            return; // 이미 표시 중
+        }
+        cancelHighlighting(); // 이전 파일의 구문 강조 작업은 더 이상 필요 없음
+        stopWatching();
+        currentFileKey = job.key;
+        fileStats = job.stats;
+        processedCssWithComments = job.result;
+        currentFileName = job.file.getName(); // 파일 이름 저장
+        currentFile = job.file;
+        // 감시 중 첫 저장은 블록 캐시가 비어 있으므로 전체를 변환하고, 그다음부터 바뀐 블록만 변환
+        incrementalConverter = new IncrementalConverter(fileStats);
+        if (watchCheckbox.isSelected()) {
+            startWatching(job.file);
+        }
+        updateDropLabel(currentFileName + " 로드됨");
+        // 화면 업데이트 (체크박스 상태 및 개행 처리 포함, 백그라운드에서 진행)
+        updateOutputPane();
+    }
+
+    // 드롭 패널 레이블 업데이트 헬퍼 메서드
+    private void updateDropLabel(String text) {
+        dropLabel.setText("<html><center>" + text.replace("\n", "<br>") + "</center></html>");
+    }
+
+
+    // 저장된 내용을 기반으로 화면을 업데이트하는 메서드
+    private void updateOutputPane() {
+        if (processedCssWithComments == null) {
+             displayError("먼저 CSS 파일을 로드하세요.");
+             return;
+        }
+
+        // 진행 중인 작업은 결과가 낡았으므로 취소
+        cancelHighlighting();
+
+        final String source = processedCssWithComments;
+        final boolean removeComments = removeCommentsCheckbox.isSelected();
+        final String fileName = currentFileName;
+        final DocumentCache.Key cacheKey = currentFileKey.withRemoveComments(removeComments);
+        final ConversionStats stats = fileStats;
+        final CssHighlighter highlighter = highlighter();
+
+        // 이미 만든 적이 있는 변형이면 후처리와 강조 없이 바로 표시
+        Object cached = documentCache.get(cacheKey);
+        if (cached != null) {
+            showResult(cached);
+            searchPanel.setIndex(documentCache.getIndex(cacheKey));
+            statsPanel.show(stats);
+            if (fileName != null) {
+                updateDropLabel(fileName + "\n" + (removeComments ? "(주석 제거됨)" : "(주석 포함)"));
+            }
+            return;
+        }
+
+        if (fileName != null) {
+            updateDropLabel(fileName + "\n구문 강조 중...");
+        }
+
+        // 후처리와 스타일 적용은 EDT 밖에서 분리된 문서에 수행하고, 완성된 문서를 한 번에 교체
+        highlightWorker = new SwingWorker<Object, Void>() {
+            private CssIndex index;
+
+            @Override
+            protected Object doInBackground() {
+                // 1. 주석 제거 (체크박스 확인), 2. 연속 개행 처리 (3개 이상 -> 2개)
+                String cssToStyle = CssPostProcessor.apply(source, removeComments, stats);
+                index = buildIndex(cssToStyle, stats);
+                // 3. 스타일 적용 (아주 큰 결과는 줄 표와 강조 체크포인트만 만들고, 스타일은 그릴 때)
+                ConversionStats.Sample sample = ConversionStats.start();
+                Object result = cssToStyle.length() > TEXT_VIEW_THRESHOLD
+                        ? new HighlightedText(cssToStyle)
+                        : highlighter.buildDocument(cssToStyle);
+                stats.record(ConversionStats.Stage.HIGHLIGHT, sample, cssToStyle.length());
+                return result;
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || highlightWorker != this) {
+                    return; // 취소되었거나 더 새로운 작업이 있음
+                }
+                highlightWorker = null;
+                try {
+                    Object result = get();
+                    documentCache.put(cacheKey, result, index);
+                    showResult(result);
+                    searchPanel.setIndex(index);
+                    statsPanel.show(stats);
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    cause.printStackTrace();
+                    displayError("스타일 적용 중 오류 발생:\n" + cause.getMessage());
+                }
+
+                // 파일 이름과 상태를 드롭 레이블에 다시 표시 (옵션)
+                String status = removeComments ? "(주석 제거됨)" : "(주석 포함)";
+                if (fileName != null) {
+                    updateDropLabel(fileName + "\n" + status);
+                }
+            }
+        };
+        highlightWorker.execute();
+    }
+
+    // 감시 중인 파일이 저장되면 바뀐 블록만 다시 변환하고, 표시 중인 문서는 바뀐 줄만 고침
+    private void reloadChangedFile(File file) {
+        if (!file.equals(currentFile) || processedCssWithComments == null) {
+            return;
+        }
+        cancelHighlighting();
+
+        final DocumentCache.Key fileKey = new DocumentCache.Key(file.getAbsolutePath(), file.lastModified(), file.length(), false);
+        final boolean removeComments = removeCommentsCheckbox.isSelected();
+        final IncrementalConverter converter = incrementalConverter;
+        final ConversionStats stats = fileStats;
+        final String fileName = currentFileName;
+        final CssHighlighter highlighter = highlighter();
+        // 이 파일의 강조된 문서를 표시 중일 때만 제자리에서 고침 (textView 의 큰 결과는 다시 만듦)
+        final StyledDocument shown = outputTextPane.getStyledDocument();
+        final String shownCss;
+        if (shownText == null && shown == documentCache.get(currentFileKey.withRemoveComments(removeComments))) {
+            shownCss = documentText(shown);
+        } else {
+            shownCss = null;
+        }
+
+        highlightWorker = new SwingWorker<CssHighlighter.Edit, Void>() {
+            private String converted;
+            private String blockStatus;
+            private CssIndex index;
+
+            @Override
+            protected CssHighlighter.Edit doInBackground() throws IOException {
+                String css = readFile(file, stats);
+                synchronized (converter) { // 취소된 이전 작업이 아직 변환 중일 수 있음
+                    converted = converter.convert(css);
+                    blockStatus = "블록 " + converter.getBlockCount() + "개 중 " + converter.getConvertedBlockCount() + "개 변환";
+                }
+                String cssToStyle = CssPostProcessor.apply(converted, removeComments, stats);
+                if (shownCss == null || cssToStyle.length() > TEXT_VIEW_THRESHOLD) {
+                    return null;
+                }
+                ConversionStats.Sample sample = ConversionStats.start();
+                CssHighlighter.Edit edit = highlighter.diff(shownCss, cssToStyle);
+                stats.record(ConversionStats.Stage.HIGHLIGHT, sample, cssToStyle.length());
+                index = buildIndex(cssToStyle, stats); // 위치가 바뀌므로 문서 전체를 다시 색인
+                return edit;
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || highlightWorker != this) {
+                    return;
+                }
+                highlightWorker = null;
+                CssHighlighter.Edit edit;
+                try {
+                    edit = get();
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    displayError("파일을 다시 읽는 중 오류 발생:\n" + cause.getMessage());
+                    return;
+                }
+                processedCssWithComments = converted;
+                currentFileKey = fileKey;
+                if (edit == null || shownText != null || outputTextPane.getStyledDocument() != shown) {
+                    updateOutputPane(); // 문서 전체를 다시 만듦
+                    return;
+                }
+                try {
+                    edit.apply(shown);
+                } catch (BadLocationException e) {
+                    e.printStackTrace();
+                    updateOutputPane();
+                    return;
+                }
+                documentCache.put(fileKey.withRemoveComments(removeComments), shown, index);
+                searchPanel.setIndex(index);
+                statsPanel.show(stats);
+                updateDropLabel(fileName + "\n다시 변환됨 (" + blockStatus + ")");
+            }
+        };
+        highlightWorker.execute();
+    }
+
+    private void startWatching(File file) {
+        stopWatching();
+        Path path = file.toPath().toAbsolutePath().normalize();
+        try {
+            fileWatcher = new FileWatcher(changed -> {
+                if (changed.contains(path)) {
+                    SwingUtilities.invokeLater(() -> reloadChangedFile(file));
+                }
+            }, (dir, e) -> SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                    "디렉터리를 감시할 수 없습니다:\n" + dir + "\n" + e.getMessage(), "감시 오류", JOptionPane.WARNING_MESSAGE)));
+            fileWatcher.register(path.getParent(), false);
+            fileWatcher.start("css-file-watcher");
+        } catch (IOException e) {
+            stopWatching();
+            JOptionPane.showMessageDialog(this, "파일 변경 감시를 시작할 수 없습니다:\n" + e.getMessage(), "감시 오류", JOptionPane.WARNING_MESSAGE);
+        }
+    }
+
+    private void stopWatching() {
+        if (fileWatcher != null) {
+            try {
+                fileWatcher.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            fileWatcher = null;
+        }
+    }
+
+    // 파일 전체를 문자열로 (processCssContent 와 같은 문자셋 판단)
+    private static String readFile(File file, ConversionStats stats) throws IOException {
+        ConversionStats.Sample sample = ConversionStats.start();
+        String css = CssFileInput.read(file.toPath());
+        stats.record(ConversionStats.Stage.READ, sample, file.length());
+        return css;
+    }
+
+    // 표시할 텍스트의 선택자, 속성, @규칙 색인 (위치는 문서 offset)
+    private static CssIndex buildIndex(String css, ConversionStats stats) {
+        ConversionStats.Sample sample = ConversionStats.start();
+        CssIndex index = CssIndex.of(css);
+        stats.record(ConversionStats.Stage.INDEX, sample, css.length());
+        return index;
+    }
+
+    // 검색 결과의 이름을 선택해 보이게 함 (검색 목록의 포커스는 그대로 두어 계속 고를 수 있게)
+    private void jumpTo(CssIndex.Entry entry) {
+        int length = shownText != null ? shownText.getText().length() : outputTextPane.getDocument().getLength();
+        int start = (int) Math.min(entry.getOffset(), length);
+        int end = Math.min(start + entry.getName().length(), length);
+        if (shownText != null) {
+            textView.select(start, end);
+            return;
+        }
+        outputTextPane.setCaretPosition(start); // 캐럿 위치로 스크롤됨
+        outputTextPane.moveCaretPosition(end);
+        outputTextPane.getCaret().setSelectionVisible(true);
+    }
+
+    private static String documentText(StyledDocument doc) {
+        try {
+            return doc.getText(0, doc.getLength());
+        } catch (BadLocationException e) {
+            throw new IllegalStateException(e); // 문서 전체 범위이므로 발생하지 않음
+        }
+    }
+
+    // 구문 강조 스타일은 처음 쓸 때 만듦 (창이 먼저 뜨도록). EDT 에서만
+    private CssHighlighter highlighter() {
+        if (highlighter == null) {
+            highlighter = new CssHighlighter(outputTextPane.getStyledDocument()); // 스타일은 표시 문서의 StyleContext 에 등록
+        }
+        return highlighter;
+    }
+
+    private CssTextView textView() {
+        if (textView == null) {
+            textView = new CssTextView(highlighter());
+        }
+        return textView;
+    }
+
+    // 진행 중인 구문 강조 작업 취소
+    private void cancelHighlighting() {
+        if (highlightWorker != null) {
+            highlightWorker.cancel(true);
+            highlightWorker = null;
+        }
+    }
+
+    // 완성된 결과를 화면에 표시 (강조된 문서는 outputTextPane, 큰 결과는 textView)
+    private void showResult(Object result) {
+        if (result instanceof HighlightedText) {
+            shownText = (HighlightedText) result;
+            textView().setText(shownText);
+            showView(textView);
+        } else {
+            showTextPane();
+            outputTextPane.setStyledDocument((StyledDocument) result);
+            outputTextPane.setCaretPosition(0);
+        }
+        outputScrollPane.getViewport().setViewPosition(new Point()); // 스크롤 맨 위로
+    }
+
+    // outputTextPane 으로 되돌림 (textView 의 큰 결과는 캐시에만 남김)
+    private void showTextPane() {
+        if (shownText != null) {
+            shownText = null;
+            textView.setText(null);
+        }
+        showView(outputTextPane);
+    }
+
+    private void showView(JComponent view) {
+        if (outputScrollPane.getViewport().getView() != view) {
+            outputScrollPane.setViewportView(view);
+        }
+    }
+
+
+    // 오류 메시지를 JTextPane에 표시하는 메서드 (이전과 동일)
+    private void displayError(String message) {
+        showTextPane();
+        searchPanel.setIndex(null);
+        // 표시 중인 문서는 캐시에 보관된 것일 수 있으므로 새 문서에 표시
+        StyledDocument doc = new DefaultStyledDocument();
+        outputTextPane.setStyledDocument(doc);
+        try {
+            Style errorStyle = doc.addStyle("Error", highlighter().getDefaultStyle());
+            StyleConstants.setForeground(errorStyle, Color.RED);
+            doc.insertString(0, message, errorStyle);
+        } catch (BadLocationException e) { e.printStackTrace(); }
+    }
+
+    // --- 애플리케이션 실행 ---
+    // 예전 진입점 (실행 jar 의 진입점은 Main). 배치/서버 실행은 Main 이 창 클래스를 읽지 않고 처리
+    public static void main(String[] args) {
+        Main.main(args);
+    }
+
+    // 창을 띄움 (Main 이 창이 필요할 때만 부름)
+    static void launch() {
+        try {
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
+        } catch (Exception e) {
+            System.err.println("Could not set system look and feel.");
+        }
+        SwingUtilities.invokeLater(() -> {
+            CSSSingleLiner frame = new CSSSingleLiner();
+            if (Main.REPORT_STARTUP) {
+                frame.addWindowListener(new WindowAdapter() {
+                    @Override
+                    public void windowOpened(WindowEvent e) {
+                        Main.reportStartup("창 열림");
+                    }
+                });
+            }
+            frame.setVisible(true);
+            // JMX 등록은 창이 뜬 뒤 따로 (플랫폼 MBean 서버 생성이 첫 화면을 늦추지 않게)
+            Thread jmx = new Thread(ConversionStats::registerGlobal, "jmx-register");
+            jmx.setDaemon(true);
+            jmx.start();
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package csssingleliner;
+
+import csssingleliner.core.ConversionStats;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 드롭된 파일 하나의 변환 작업. 작업자 스레드가 변환해 결과(주석 포함 한 줄 변환 텍스트)를 채우고,
+ * 결과 목록에는 파일 이름과 상태로 표시된다. 상태가 바뀔 때마다 EDT 로 알리므로, 결과 필드는 상태가
+ * 완료(DONE)로 바뀐 뒤 EDT 에서만 읽는다.
+ */
+final class ConversionJob {
+
+    enum State {
+        QUEUED("대기"),
+        RUNNING("변환 중"),
+        DONE("완료"),
+        FAILED("오류"),
+        CANCELLED("취소됨");
+
+        private final String label;
+
+        State(String label) {
+            this.label = label;
+        }
+
+        boolean isFinished() {
+            return this == DONE || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    final File file;
+    final int generation; // 작업을 넣을 때의 취소 세대 (취소하면 세대가 바뀜)
+    final ConversionStats stats = new ConversionStats(ConversionStats.global());
+
+    private volatile State state = State.QUEUED;
+
+    // 작업자가 채움
+    DocumentCache.Key key;      // 변환한 파일 버전 (주석 포함)
+    String result;              // 주석 포함 한 줄 변환 결과
+    List<String> errors = Collections.emptyList();
+    String message;             // 실패 이유
+    boolean cached;             // 디스크 결과 캐시에서 읽음
+    long elapsedNanos;
+
+    ConversionJob(File file, int generation) {
+        this.file = file;
+        this.generation = generation;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    void setState(State state) {
+        this.state = state;
+    }
+
+    // 결과 목록에 보이는 한 줄: "이름  상태 (시간, 오류 수)"
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(file.getName()).append("  ").append(state.label);
+        if (state == State.DONE) {
+            text.append(cached ? " (캐시" : String.format(" (%.0f ms", elapsedNanos / 1e6));
+            if (!errors.isEmpty()) text.append(", 구문 오류 ").append(errors.size()).append("개");
+            text.append(')');
+        } else if (state == State.FAILED && message != null) {
+            text.append(": ").append(message);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,252 @@
+package csssingleliner;
+
+import csssingleliner.core.ConversionStats;
+import csssingleliner.core.CssFileInput;
+import csssingleliner.core.ParallelConverter;
+import csssingleliner.core.ResultCache;
+
+import javax.swing.SwingUtilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 드롭된 파일과 폴더를 백그라운드에서 변환하는 작업 큐.
+ * 폴더는 안내 스레드가 하위의 .css 파일로 펼쳐 크기가 정해진 대기열에 넣고(가득 차면 기다림),
+ * 작업자 스레드 여러 개가 대기열에서 꺼내 변환한다. EDT 는 파일 목록을 넘기기만 하므로 폴더를 통째로
+ * 드롭해도 창이 멈추지 않는다. 작업 상태가 바뀔 때마다 {@link Listener} 를 EDT 에서 부른다 (알릴 때의 상태와 함께.
+ * EDT 가 알림을 처리할 때는 작업이 이미 다음 상태일 수 있으므로, 완료 수는 넘겨받은 상태로 센다).
+ * 취소하면 대기 중인 작업은 버리고, 변환 중인 작업은 끝나는 대로 결과를 버린다 (변환은 중간에 멈추지 않음).
+ */
+final class ConversionQueue {
+
+    // EDT 에서 불림. state 는 알림을 보낼 때의 작업 상태 (작업마다 완료 상태는 한 번만 알림)
+    interface Listener {
+        void jobAdded(ConversionJob job, ConversionJob.State state);
+
+        void jobChanged(ConversionJob job, ConversionJob.State state);
+    }
+
+    // 대기열 크기. 폴더에 파일이 아주 많아도 펼친 작업이 한꺼번에 쌓이지 않음
+    static final int CAPACITY = 64;
+
+    // 이보다 큰 파일은 여러 코어에서 나눠 변환 (작은 파일은 나누는 비용이 더 큼)
+    private static final long PARALLEL_THRESHOLD = 4L * 1024 * 1024;
+
+    // 실행 사이에 남는 한 줄 변환 결과 캐시 (바뀌지 않은 파일을 다시 열면 변환을 건너뜀)
+    private static final Path RESULT_CACHE_DIR = Paths.get(System.getProperty("user.home"), ".csssingleliner", "cache");
+    private static final long RESULT_CACHE_BYTES = 64L * 1024 * 1024;
+
+    private final Listener listener;
+    private final BlockingQueue<ConversionJob> pending = new ArrayBlockingQueue<>(CAPACITY);
+    private final ExecutorService feeder = Executors.newSingleThreadExecutor(daemon("css-drop-feeder"));
+    private final ExecutorService reloader = Executors.newSingleThreadExecutor(daemon("css-reload"));
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private ResultCache resultCache;
+    private boolean resultCacheFailed;
+
+    ConversionQueue(Listener listener, int workers) {
+        this.listener = listener;
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::work, "css-convert-" + i);
+            worker.setDaemon(true);
+            worker.setPriority(Thread.NORM_PRIORITY - 1); // 화면 갱신이 먼저
+            worker.start();
+        }
+    }
+
+    // 드롭된 파일/폴더를 큐에 넣음. 바로 반환 (폴더 탐색과 대기는 안내 스레드에서)
+    void submit(List<File> dropped) {
+        int current = generation.get();
+        feeder.execute(() -> {
+            for (File file : dropped) {
+                for (File css : expand(file)) {
+                    if (generation.get() != current) return; // 취소됨
+                    ConversionJob job = new ConversionJob(css, current);
+                    if (!css.getName().toLowerCase().endsWith(".css")) {
+                        job.message = "CSS 파일(.css)이 아님";
+                        job.setState(ConversionJob.State.FAILED);
+                        notifyAdded(job);
+                        continue;
+                    }
+                    notifyAdded(job);
+                    try {
+                        pending.put(job);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        });
+    }
+
+    // 지금까지 넣은 작업을 모두 취소
+    void cancel() {
+        generation.incrementAndGet();
+        List<ConversionJob> dropped = new ArrayList<>();
+        pending.drainTo(dropped);
+        for (ConversionJob job : dropped) {
+            job.setState(ConversionJob.State.CANCELLED);
+            notifyChanged(job);
+        }
+    }
+
+    /**
+     * 메모리 상한 때문에 결과를 버린 완료 작업을 다시 읽는다 (대개 디스크 결과 캐시에서).
+     * 목록의 작업은 건드리지 않고 같은 파일의 새 작업으로 변환해 EDT 에서 done 에 넘긴다 (진행 막대에는 세지 않음).
+     */
+    void reload(ConversionJob job, Consumer<ConversionJob> done) {
+        reloader.execute(() -> {
+            ConversionJob fresh = new ConversionJob(job.file, job.generation);
+            convert(fresh);
+            SwingUtilities.invokeLater(() -> done.accept(fresh));
+        });
+    }
+
+    private void work() {
+        while (true) {
+            ConversionJob job;
+            try {
+                job = pending.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (job.generation != generation.get()) {
+                job.setState(ConversionJob.State.CANCELLED);
+                notifyChanged(job);
+                continue;
+            }
+            job.setState(ConversionJob.State.RUNNING);
+            notifyChanged(job);
+            convert(job);
+            if (job.generation != generation.get()) {
+                job.result = null; // 취소된 작업의 결과는 버림
+                job.setState(ConversionJob.State.CANCELLED);
+            }
+            notifyChanged(job);
+        }
+    }
+
+    private void convert(ConversionJob job) {
+        long start = System.nanoTime();
+        File file = job.file;
+        try {
+            job.key = new DocumentCache.Key(file.getAbsolutePath(), file.lastModified(), file.length(), false);
+            convertCached(job);
+            job.elapsedNanos = System.nanoTime() - start;
+            job.setState(ConversionJob.State.DONE);
+        } catch (IOException e) {
+            job.message = "파일을 읽는 중 오류 발생: " + e.getMessage();
+            job.setState(ConversionJob.State.FAILED);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            job.message = "CSS 처리 중 오류 발생: " + e;
+            job.setState(ConversionJob.State.FAILED);
+        }
+    }
+
+    // 디스크 결과 캐시를 거쳐 변환. 지난 실행에서 같은 내용을 변환했으면 변환 없이 캐시에서 바로 읽음
+    private void convertCached(ConversionJob job) throws IOException {
+        Path cssFile = job.file.toPath();
+        ResultCache cache = resultCache();
+        ResultCache.Key key = cache != null ? ResultCache.singleLineKey(cssFile) : null;
+        if (key != null) {
+            ConversionStats.Sample sample = ConversionStats.start();
+            ByteBuffer cached = cache.get(key);
+            if (cached != null) {
+                job.result = StandardCharsets.UTF_8.decode(cached).toString();
+                job.cached = true;
+                job.stats.record(ConversionStats.Stage.READ, sample, Files.size(cssFile));
+                return;
+            }
+        }
+        StringBuilder result = new StringBuilder();
+        job.errors = processCssContent(cssFile, result, job.stats);
+        job.result = result.toString();
+        // 오류가 있는 결과는 다음에도 오류를 보여야 하므로 캐시하지 않음
+        if (key != null && job.errors.isEmpty()) {
+            cache.put(key, StandardCharsets.UTF_8.encode(job.result));
+        }
+    }
+
+    // 처음 쓸 때 연다. 열 수 없으면(권한, 다른 프로세스 등) 캐시 없이 변환
+    private synchronized ResultCache resultCache() {
+        if (resultCache == null && !resultCacheFailed) {
+            try {
+                resultCache = ResultCache.open(RESULT_CACHE_DIR, RESULT_CACHE_BYTES);
+            } catch (IOException e) {
+                resultCacheFailed = true;
+                System.err.println("결과 캐시를 열 수 없습니다: " + e.getMessage());
+            }
+        }
+        return resultCache;
+    }
+
+    // CSS 내용을 한 줄로 변환하는 로직 (단일 패스 토크나이저 사용). 반환값은 구문 오류 목록
+    private static List<String> processCssContent(Path cssFile, StringBuilder result, ConversionStats stats) throws IOException {
+        // 큰 파일은 코어가 여럿이면 최상위 블록 단위로 나눠 병렬 변환 (결과는 순차 변환과 같음)
+        if (Runtime.getRuntime().availableProcessors() > 1 && Files.size(cssFile) >= PARALLEL_THRESHOLD) {
+            ConversionStats.Sample sample = ConversionStats.start();
+            String css = CssFileInput.read(cssFile);
+            stats.record(ConversionStats.Stage.READ, sample, Files.size(cssFile));
+            result.ensureCapacity(css.length());
+            return ParallelConverter.convert(css, result, ForkJoinPool.commonPool(), stats);
+        }
+        return CssFileInput.convert(cssFile, result, stats);
+    }
+
+    // 폴더는 하위의 .css 파일들(경로 순)로, 파일은 그대로
+    private static List<File> expand(File file) {
+        List<File> files = new ArrayList<>();
+        if (!file.isDirectory()) {
+            files.add(file);
+            return files;
+        }
+        try (Stream<Path> walk = Files.walk(file.toPath())) {
+            files.addAll(walk.filter(p -> Files.isRegularFile(p) && p.getFileName().toString().toLowerCase().endsWith(".css"))
+                    .sorted()
+                    .map(Path::toFile)
+                    .collect(Collectors.toList()));
+        } catch (IOException | RuntimeException e) {
+            System.err.println(file + ": 폴더 탐색 중 오류 발생: " + e.getMessage());
+        }
+        return files;
+    }
+
+    private void notifyAdded(ConversionJob job) {
+        ConversionJob.State state = job.getState();
+        SwingUtilities.invokeLater(() -> listener.jobAdded(job, state));
+    }
+
+    private void notifyChanged(ConversionJob job) {
+        ConversionJob.State state = job.getState();
+        SwingUtilities.invokeLater(() -> listener.jobChanged(job, state));
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,234 @@
+package csssingleliner;
+
+import javax.swing.text.*;
+import javax.swing.text.DefaultStyledDocument.ElementSpec;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 한 줄 변환된 CSS 에 구문 강조 스타일을 입힌다 (토큰 구분은 {@link CssStyleScanner}).
+ * 선택자, 속성, 값, 주석, @규칙, 중괄호, 구두점마다 다른 스타일을 사용한다.
+ */
+public class CssHighlighter {
+
+    private final Style styleDefault, styleComment, styleSelector, styleProperty, styleValue, styleBrace, styleAtRule, stylePunctuation;
+    private final Style[] styles = new Style[CssStyleScanner.STYLE_COUNT]; // 스타일 번호 -> 스타일
+
+    // 스타일은 대상 문서의 StyleContext 에 등록됨
+    public CssHighlighter(StyledDocument doc) {
+        styleDefault = StyleContext.getDefaultStyleContext().getStyle(StyleContext.DEFAULT_STYLE);
+        StyleConstants.setFontFamily(styleDefault, "Monospaced");
+        StyleConstants.setFontSize(styleDefault, 12);
+        StyleConstants.setForeground(styleDefault, Color.BLACK);
+        styleComment = doc.addStyle("Comment", styleDefault);
+        StyleConstants.setForeground(styleComment, Color.GRAY);
+        StyleConstants.setItalic(styleComment, true);
+        styleSelector = doc.addStyle("Selector", styleDefault);
+        StyleConstants.setForeground(styleSelector, new Color(0, 0, 139));
+        StyleConstants.setBold(styleSelector, true);
+        styleProperty = doc.addStyle("Property", styleDefault);
+        StyleConstants.setForeground(styleProperty, new Color(139, 0, 0));
+        styleValue = doc.addStyle("Value", styleDefault);
+        StyleConstants.setForeground(styleValue, new Color(0, 128, 0));
+        styleBrace = doc.addStyle("Brace", styleDefault);
+        StyleConstants.setForeground(styleBrace, Color.ORANGE.darker());
+        StyleConstants.setBold(styleBrace, true);
+        styleAtRule = doc.addStyle("AtRule", styleDefault);
+        StyleConstants.setForeground(styleAtRule, new Color(180, 0, 180));
+        StyleConstants.setBold(styleAtRule, true);
+        stylePunctuation = doc.addStyle("Punctuation", styleDefault);
+        StyleConstants.setForeground(stylePunctuation, Color.DARK_GRAY);
+
+        styles[CssStyleScanner.DEFAULT] = styleDefault;
+        styles[CssStyleScanner.COMMENT] = styleComment;
+        styles[CssStyleScanner.SELECTOR] = styleSelector;
+        styles[CssStyleScanner.PROPERTY] = styleProperty;
+        styles[CssStyleScanner.VALUE] = styleValue;
+        styles[CssStyleScanner.BRACE] = styleBrace;
+        styles[CssStyleScanner.AT_RULE] = styleAtRule;
+        styles[CssStyleScanner.PUNCTUATION] = stylePunctuation;
+    }
+
+    public Style getDefaultStyle() {
+        return styleDefault;
+    }
+
+    // 문서 내용을 지우고 cssContent 를 토큰별 스타일로 다시 채움 (토큰마다 insertString)
+    public void highlight(StyledDocument doc, String cssContent) throws BadLocationException {
+        doc.remove(0, doc.getLength());
+        CssStyleScanner.scanAll(cssContent, (start, end, style) -> {
+            try {
+                doc.insertString(doc.getLength(), cssContent.substring(start, end), styles[style]);
+            } catch (BadLocationException e) {
+                throw new IllegalStateException(e); // 항상 문서 끝에 붙이므로 발생하지 않음
+            }
+        });
+    }
+
+    /**
+     * 화면에 붙지 않은 새 문서를 만들어 한 번에 채운다. 토큰을 스타일 구간으로 모은 뒤
+     * ElementSpec 으로 요소 구조를 통째로 생성하므로 토큰마다 문서 이벤트가 발생하지 않는다.
+     * 백그라운드 스레드에서 호출할 수 있으며, 스레드가 인터럽트되면 CancellationException 으로 중단된다.
+     */
+    public StyledDocument buildDocument(String cssContent) {
+        BulkDocument doc = new BulkDocument();
+        doc.load(cssContent, styles);
+        return doc;
+    }
+
+    /**
+     * 표시 중인 문서 내용(oldCss)을 newCss 로 바꾸는 편집을 계산한다. 앞뒤로 같은 부분은 그대로 두고,
+     * 바뀐 줄부터 강조 상태가 이전 문서와 다시 같아지는 줄까지만 새로 강조한다.
+     * 백그라운드 스레드에서 계산하고, {@link Edit#apply} 는 EDT 에서 호출한다.
+     */
+    public Edit diff(String oldCss, String newCss) {
+        int oldLength = oldCss.length();
+        int newLength = newCss.length();
+        int min = Math.min(oldLength, newLength);
+        int prefix = 0;
+        while (prefix < min && oldCss.charAt(prefix) == newCss.charAt(prefix)) prefix++;
+        int start = newCss.lastIndexOf('\n', prefix - 1) + 1; // 바뀐 줄의 시작
+        int suffix = 0;
+        while (suffix < min - start && oldCss.charAt(oldLength - 1 - suffix) == newCss.charAt(newLength - 1 - suffix)) {
+            suffix++;
+        }
+        int delta = newLength - oldLength;
+
+        // 줄 시작까지는 두 문서가 같으므로 상태도 같음
+        CssStyleScanner.RunSink ignore = (s, e, style) -> { };
+        CssStyleScanner scanner = new CssStyleScanner(newCss);
+        scanner.scan(start, ignore);
+        CssStyleScanner oldScanner = new CssStyleScanner(oldCss);
+        oldScanner.resume(start, scanner.state(), scanner.tokenStart());
+
+        Edit edit = new Edit(styles, start);
+        CssStyleScanner.RunSink collect = (s, e, style) -> edit.addRun(Math.max(s, start), e, style);
+        scanner.scan(newLength - suffix, collect);
+        oldScanner.scan(oldLength - suffix, ignore);
+        // 바뀐 부분 뒤는 내용이 같으므로, 줄 시작에서 두 상태가 같아지면 그 뒤 강조도 같음
+        int from = Math.max(scanner.position(), oldScanner.position() + delta);
+        int end = from == 0 ? 0 : lineEnd(newCss, from - 1);
+        while (true) {
+            scanner.scan(end, collect);
+            oldScanner.scan(end - delta, ignore);
+            if (end == newLength || scanner.state() == oldScanner.state()) break;
+            end = lineEnd(newCss, end);
+        }
+        // 끝나지 않은 토큰의 스타일은 현재 상태로 정해짐 (CssStyleScanner 참고)
+        scanner.finish(collect);
+        edit.text = newCss.substring(start, end);
+        edit.removeLength = end - delta - start;
+        return edit;
+    }
+
+    // from 이후 첫 줄바꿈 다음 위치 (없으면 텍스트 끝)
+    private static int lineEnd(String text, int from) {
+        int next = text.indexOf('\n', from);
+        return next < 0 ? text.length() : next + 1;
+    }
+
+    /**
+     * {@link #diff} 로 계산한 문서 편집. 바뀐 구간을 지우고 새 내용을 스타일 구간별로 넣는다.
+     */
+    public static final class Edit {
+        private final Style[] styles;
+        private final int offset;
+        private int removeLength;
+        private String text;
+        private int[] runs = new int[48]; // (시작, 끝, 스타일) 반복, 문서 위치 기준
+        private int runCount;
+
+        private Edit(Style[] styles, int offset) {
+            this.styles = styles;
+            this.offset = offset;
+        }
+
+        private void addRun(int start, int end, int style) {
+            if (start >= end) return;
+            if (runCount * 3 == runs.length) runs = Arrays.copyOf(runs, runs.length * 2);
+            runs[runCount * 3] = start;
+            runs[runCount * 3 + 1] = end;
+            runs[runCount * 3 + 2] = style;
+            runCount++;
+        }
+
+        // 새로 강조한 글자 수
+        public int length() {
+            return text.length();
+        }
+
+        public void apply(StyledDocument doc) throws BadLocationException {
+            doc.remove(offset, removeLength);
+            int textEnd = offset + text.length();
+            for (int i = 0; i < runCount; i++) {
+                int start = runs[i * 3];
+                int end = Math.min(runs[i * 3 + 1], textEnd);
+                if (start < end) {
+                    doc.insertString(start, text.substring(start - offset, end - offset), styles[runs[i * 3 + 2]]);
+                }
+            }
+        }
+    }
+
+    // 내용 구간 하나. ElementSpec 은 넘겨받은 배열 전체를 복사하므로 구간 길이만큼의 배열을 넘김
+    private static ElementSpec content(Style style, String text, int start, int end) {
+        char[] chars = new char[end - start];
+        text.getChars(start, end, chars, 0);
+        return new ElementSpec(style, ElementSpec.ContentType, chars, 0, chars.length);
+    }
+
+    // 스타일 번호(CssStyleScanner)에 해당하는 스타일
+    Style style(int styleId) {
+        return styles[styleId];
+    }
+
+    Style[] styles() {
+        return styles;
+    }
+
+    // ElementSpec 일괄 생성(create)을 사용하기 위한 문서
+    static final class BulkDocument extends DefaultStyledDocument {
+        private static final long serialVersionUID = 1L;
+
+        // 빈 문서를 text 로 채움
+        void load(String text, Style[] styles) {
+            // 마지막 줄바꿈 뒤의 (줄바꿈 없는) 마지막 줄은 일괄 생성 후 insertString 으로 붙임.
+            // create 로 닫히지 않은 문단을 만들면 문서 끝의 암묵적 줄바꿈이 별도 문단으로 분리되기 때문
+            int tail = text.lastIndexOf('\n') + 1;
+            SimpleAttributeSet paragraph = new SimpleAttributeSet();
+            paragraph.setResolveParent(getStyle(StyleContext.DEFAULT_STYLE));
+            List<ElementSpec> specs = new ArrayList<>();
+            specs.add(new ElementSpec(getDefaultRootElement().getAttributes(), ElementSpec.StartTagType));
+            specs.add(new ElementSpec(paragraph, ElementSpec.StartTagType));
+            List<ElementSpec> tailRuns = new ArrayList<>();
+            CssStyleScanner.RunSink sink = (start, end, styleId) -> {
+                Style style = styles[styleId];
+                // 줄바꿈마다 문단을 닫고 새로 엶 (줄바꿈 문자는 앞 문단에 포함)
+                for (int i = text.indexOf('\n', start); i >= 0 && i < end && i < tail; i = text.indexOf('\n', i + 1)) {
+                    specs.add(content(style, text, start, i + 1));
+                    specs.add(new ElementSpec(null, ElementSpec.EndTagType));
+                    if (i + 1 < tail) specs.add(new ElementSpec(paragraph, ElementSpec.StartTagType));
+                    start = i + 1;
+                }
+                int split = Math.min(end, tail);
+                if (start < split) {
+                    specs.add(content(style, text, start, split));
+                    start = split;
+                }
+                if (start < end) tailRuns.add(content(style, text, start, end));
+            };
+            CssStyleScanner.scanAll(text, sink);
+            try {
+                if (tail > 0) create(specs.toArray(new ElementSpec[0]));
+                for (ElementSpec run : tailRuns) {
+                    insertString(getLength(), new String(run.getArray()), run.getAttributes());
+                }
+            } catch (BadLocationException e) {
+                throw new IllegalStateException(e); // 항상 문서 끝에 붙이므로 발생하지 않음
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package csssingleliner;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * 구문 강조 상태 머신. 텍스트를 훑으며 같은 스타일의 연속 구간(토큰)을 오프셋으로 알려준다.
+ *
+ * 상태: ' ' 기본, 's' 선택자, '{' 블록 안, 'p' 속성, ':' 콜론 뒤, 'v' 값, '@' @규칙, '/' '*' 주석,
+ * 'u' 'U' 값과 선택자(@import 등의 문장) 안의 따옴표 없는 url( ... ) (안의 "/*" 는 주석이 아님).
+ * 현재 토큰은 항상 [tokenStart, 현재 위치) 구간이므로, 어느 위치에서든 (상태, tokenStart) 만
+ * 저장해 두면 그 지점부터 다시 이어서 훑을 수 있다 (큰 결과에서 화면에 그리는 부분만 강조할 때 사용, {@link HighlightedText}).
+ * 상태가 바뀔 때는 항상 앞 토큰을 먼저 내보내므로, 끝나지 않은 토큰의 스타일은 현재 상태만으로
+ * 정해진다 ({@link #finish}). 따라서 어느 위치에서 멈춰도 그때까지의 스타일은 전체를 훑은 결과와 같다.
+ */
+final class CssStyleScanner {
+
+    // 스타일 번호
+    static final int DEFAULT = 0;
+    static final int COMMENT = 1;
+    static final int SELECTOR = 2;
+    static final int PROPERTY = 3;
+    static final int VALUE = 4;
+    static final int BRACE = 5;
+    static final int AT_RULE = 6;
+    static final int PUNCTUATION = 7;
+    static final int STYLE_COUNT = 8;
+
+    // 토큰 구간 [start, end) 를 받는 대상
+    interface RunSink {
+        void run(int start, int end, int style);
+    }
+
+    private final CharSequence text;
+    private char state = ' ';
+    private int tokenStart;
+    private int pos;
+
+    CssStyleScanner(CharSequence text) {
+        this.text = text;
+    }
+
+    // 텍스트 전체를 훑어 모든 토큰을 전달
+    static void scanAll(CharSequence text, RunSink sink) {
+        CssStyleScanner scanner = new CssStyleScanner(text);
+        scanner.scan(text.length(), sink);
+        scanner.finish(sink);
+    }
+
+    // 저장해 둔 지점에서 다시 시작
+    void resume(int position, char savedState, int savedTokenStart) {
+        pos = position;
+        state = savedState;
+        tokenStart = savedTokenStart;
+    }
+
+    int position() {
+        return pos;
+    }
+
+    char state() {
+        return state;
+    }
+
+    int tokenStart() {
+        return tokenStart;
+    }
+
+    // limit 직전 글자까지 처리
+    void scan(int limit, RunSink sink) {
+        int length = text.length();
+        int i = pos;
+        while (i < limit) {
+            if ((i & 0xFFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException(); // 취소된 백그라운드 작업
+            }
+            char c = text.charAt(i);
+            char nextChar = (i + 1 < length) ? text.charAt(i + 1) : '\0';
+            switch (state) {
+                case ' ': // 기본 상태 (블록 외부 또는 블록 끝난 직후)
+                    if (c == '/' && nextChar == '*') {
+                        emit(sink, i, DEFAULT); // 이전 토큰 전달, '/' 부터 새 토큰
+                        state = '/';
+                    } else if (c == '@') {
+                        emit(sink, i, DEFAULT);
+                        state = '@';
+                    } else if (c == '{') {
+                        emit(sink, i, SELECTOR);
+                        emit(sink, i + 1, BRACE);
+                        state = '{';
+                    } else if (c == '}') {
+                        emit(sink, i, DEFAULT);
+                        emit(sink, i + 1, BRACE);
+                    } else if (!Character.isWhitespace(c)) {
+                        if (tokenStart == i) state = 's';
+                    } else {
+                        emit(sink, i, DEFAULT);
+                        emit(sink, i + 1, DEFAULT);
+                    }
+                    break;
+                case '/': // '/' 다음은 항상 '*'
+                    state = '*';
+                    break;
+                case '*':
+                    if (c == '*' && nextChar == '/') {
+                        emit(sink, i + 2, COMMENT); // 주석 스타일 적용!
+                        i++;
+                        state = ' ';
+                    }
+                    break;
+                case '@':
+                    if (!Character.isLetterOrDigit(c) && c != '-') {
+                        emit(sink, i, AT_RULE);
+                        state = ' ';
+                        continue; // 같은 글자를 기본 상태에서 다시 처리
+                    }
+                    break;
+                case 's':
+                    if (c == '{') {
+                        emit(sink, i, SELECTOR);
+                        emit(sink, i + 1, BRACE);
+                        state = '{';
+                    } else if (c == '/' && nextChar == '*') {
+                        emit(sink, i, SELECTOR);
+                        state = '/';
+                    } else if (c == '(' && isUrl(i)) {
+                        state = 'U';
+                    } else if (c == ';') {
+                        // 블록 없이 끝나는 문장 (@import 의 나머지, 중첩 블록 사이의 선언 줄)
+                        emit(sink, i, SELECTOR);
+                        emit(sink, i + 1, PUNCTUATION);
+                        state = ' ';
+                    } else if (c == '}') {
+                        emit(sink, i, SELECTOR);
+                        emit(sink, i + 1, BRACE);
+                        state = ' ';
+                    }
+                    break;
+                case '{':
+                    if (c == '}') {
+                        emit(sink, i, DEFAULT);
+                        emit(sink, i + 1, BRACE);
+                        state = ' ';
+                    } else if (c == '/' && nextChar == '*') {
+                        emit(sink, i, DEFAULT);
+                        state = '/';
+                    } else if (!Character.isWhitespace(c)) {
+                        emit(sink, i, DEFAULT);
+                        // 블록 안의 블록 (@media 안의 규칙, CSS 중첩) 이면 속성이 아니라 선택자
+                        state = opensBlock(i) ? 's' : 'p';
+                    } else {
+                        emit(sink, i, DEFAULT);
+                        emit(sink, i + 1, DEFAULT);
+                    }
+                    break;
+                case 'p':
+                    if (c == ':') {
+                        emit(sink, i, PROPERTY);
+                        emit(sink, i + 1, PUNCTUATION);
+                        state = ':';
+                    } else if (c == '{') {
+                        emit(sink, i, PROPERTY);
+                        emit(sink, i + 1, BRACE);
+                        state = '{';
+                    } else if (c == '/' && nextChar == '*') {
+                        emit(sink, i, PROPERTY);
+                        state = '/';
+                    }
+                    break;
+                case ':':
+                    if (c == '/' && nextChar == '*') {
+                        emit(sink, i, DEFAULT);
+                        state = '/';
+                    } else if (!Character.isWhitespace(c)) {
+                        emit(sink, i, DEFAULT);
+                        state = 'v';
+                    } else {
+                        emit(sink, i, DEFAULT);
+                        emit(sink, i + 1, DEFAULT);
+                    }
+                    break;
+                case 'v':
+                    if (c == ';') {
+                        emit(sink, i, VALUE);
+                        emit(sink, i + 1, PUNCTUATION);
+                        state = '{';
+                    } else if (c == '}') {
+                        emit(sink, i, VALUE);
+                        emit(sink, i + 1, BRACE);
+                        state = ' ';
+                    } else if (c == '/' && nextChar == '*') {
+                        emit(sink, i, VALUE);
+                        state = '/';
+                    } else if (c == '(' && isUrl(i)) {
+                        state = 'u';
+                    }
+                    break;
+                case 'u':
+                case 'U':
+                    // 같은 토큰이 이어짐 (스타일은 url 앞과 같음)
+                    if (c == ')' || c == '\n') state = state == 'u' ? 'v' : 's';
+                    break;
+                default:
+                    break;
+            }
+            i++;
+        }
+        pos = i;
+    }
+
+    // paren 위치의 '(' 가 url 함수 (앞 세 글자가 url 이고 그 앞이 이름 글자가 아님). 따옴표로 시작하는 url 도 포함
+    private boolean isUrl(int paren) {
+        if (paren < 3) return false;
+        if ((text.charAt(paren - 3) | 0x20) != 'u' || (text.charAt(paren - 2) | 0x20) != 'r'
+                || (text.charAt(paren - 1) | 0x20) != 'l') return false;
+        if (paren == 3) return true;
+        char before = text.charAt(paren - 4);
+        return !Character.isLetterOrDigit(before) && before != '-' && before != '_' && before != '\\';
+    }
+
+    // from 부터 같은 줄에서 ';' 나 '}' 보다 '{' 가 먼저 나오는지 (주석, 문자열은 고려하지 않음)
+    private boolean opensBlock(int from) {
+        int length = text.length();
+        for (int i = from; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '{') return true;
+            if (c == ';' || c == '}' || c == '\n') return false;
+        }
+        return false;
+    }
+
+    // 텍스트 끝: 남은 토큰을 현재 상태에 맞는 스타일로 전달
+    void finish(RunSink sink) {
+        int style = DEFAULT;
+        if (state == 's') style = SELECTOR;
+        else if (state == 'p') style = PROPERTY;
+        else if (state == 'v' || state == 'u') style = VALUE;
+        else if (state == 'U') style = SELECTOR;
+        else if (state == '*' || state == '/') style = COMMENT; // '/' 는 "/*" 사이에서 멈췄을 때
+        else if (state == '@') style = AT_RULE;
+        emit(sink, pos, style);
+    }
+
+    // [tokenStart, end) 를 하나의 토큰으로 전달 (비어 있으면 무시)
+    private void emit(RunSink sink, int end, int style) {
+        if (end > tokenStart) {
+            sink.run(tokenStart, end, style);
+            tokenStart = end;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package csssingleliner;
+
+import javax.swing.*;
+import javax.swing.text.Style;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyleContext;
+
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Map;
+
+/**
+ * 아주 큰 결과용 읽기 전용 뷰 ({@link HighlightedText}). JTextPane 처럼 줄마다 요소와 뷰 객체를 만들지 않고,
+ * 고정폭 글꼴의 한 칸에 한 글자씩 그리며 화면에 보이는 줄과 열만 그린다. 아주 긴 줄도 보이는 열만 읽으므로
+ * 스크롤 비용이 줄 길이, 문서 크기와 상관없다.
+ *
+ * 탭 같은 제어 문자는 빈칸 한 칸으로 그린다. 한 칸보다 넓은 글자(한글 주석 등)는 제 칸에 한 글자씩 그리므로
+ * 옆 칸과 겹칠 수 있지만 뒤 글자의 위치는 밀리지 않는다. 마우스로 선택, Ctrl+A 로 전체 선택, Ctrl+C 로 복사한다.
+ * EDT 에서만 쓴다.
+ */
+final class CssTextView extends JComponent implements Scrollable {
+    private static final long serialVersionUID = 1L;
+
+    // 왼쪽 여백 (JTextPane 기본 여백과 비슷하게)
+    private static final int MARGIN = 3;
+    // 스크롤 영역 크기 상한 (뷰포트 좌표 계산이 int 를 넘지 않게)
+    private static final int MAX_EXTENT = Integer.MAX_VALUE / 2;
+
+    private final Font[] fonts = new Font[CssStyleScanner.STYLE_COUNT];
+    private final Color[] colors = new Color[CssStyleScanner.STYLE_COUNT];
+    private final int cellWidth;
+    private final int lineHeight;
+    private final int ascent;
+    private final Color selectionColor;
+
+    private HighlightedText text;
+    private int anchor; // 선택을 시작한 위치
+    private int dot;    // 선택이 끝나는 위치 (같으면 선택 없음)
+    private char[] line = new char[256]; // 그리는 중인 줄의 보이는 글자
+
+    CssTextView(CssHighlighter highlighter) {
+        StyleContext context = StyleContext.getDefaultStyleContext();
+        for (int i = 0; i < fonts.length; i++) {
+            Style style = highlighter.style(i);
+            fonts[i] = context.getFont(style);
+            colors[i] = StyleConstants.getForeground(style);
+        }
+        FontMetrics metrics = getFontMetrics(fonts[CssStyleScanner.DEFAULT]);
+        cellWidth = Math.max(1, metrics.charWidth('m'));
+        lineHeight = Math.max(1, metrics.getHeight());
+        ascent = metrics.getAscent();
+        Color background = UIManager.getColor("TextPane.background");
+        Color selection = UIManager.getColor("TextPane.selectionBackground");
+        setBackground(background != null ? background : Color.WHITE);
+        selectionColor = selection != null ? selection : new Color(184, 207, 229);
+        setOpaque(true);
+        setFocusable(true);
+        setCursor(Cursor.getPredefinedCursor(Cursor.TEXT_CURSOR));
+
+        MouseAdapter mouse = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if (text == null || !SwingUtilities.isLeftMouseButton(e)) return;
+                requestFocusInWindow();
+                int offset = offsetAt(e.getPoint());
+                if (!e.isShiftDown()) anchor = offset;
+                dot = offset;
+                repaint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (text == null || !SwingUtilities.isLeftMouseButton(e)) return;
+                dot = offsetAt(e.getPoint());
+                scrollRectToVisible(new Rectangle(e.getX(), e.getY(), 1, 1));
+                repaint();
+            }
+        };
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_C, InputEvent.CTRL_DOWN_MASK), "copy");
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_A, InputEvent.CTRL_DOWN_MASK), "selectAll");
+        getActionMap().put("copy", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                copy();
+            }
+        });
+        getActionMap().put("selectAll", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (text == null) return;
+                select(0, text.getText().length());
+            }
+        });
+    }
+
+    // 보여 줄 텍스트 (null 이면 비움). 선택은 지워짐
+    void setText(HighlightedText text) {
+        this.text = text;
+        anchor = 0;
+        dot = 0;
+        revalidate();
+        repaint();
+    }
+
+    // [start, end) 를 선택하고 시작 부분이 보이게 스크롤
+    void select(int start, int end) {
+        anchor = start;
+        dot = end;
+        int lineIndex = text.lineOf(start);
+        long x = MARGIN + (long) (start - text.getLineStart(lineIndex)) * cellWidth;
+        long width = (long) Math.max(1, end - start) * cellWidth;
+        scrollRectToVisible(new Rectangle((int) Math.min(x, MAX_EXTENT), (int) Math.min((long) lineIndex * lineHeight, MAX_EXTENT),
+                (int) Math.min(width, getVisibleRect().width), lineHeight));
+        repaint();
+    }
+
+    private void copy() {
+        int start = Math.min(anchor, dot);
+        int end = Math.max(anchor, dot);
+        if (text == null || start == end) return;
+        try {
+            Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(text.getText().substring(start, end)), null);
+        } catch (IllegalStateException e) {
+            UIManager.getLookAndFeel().provideErrorFeedback(this); // 다른 프로그램이 클립보드를 쓰는 중
+        }
+    }
+
+    // 화면 위치에 가장 가까운 글자 사이 위치
+    private int offsetAt(Point p) {
+        int lineIndex = Math.max(0, Math.min(text.getLineCount() - 1, p.y / lineHeight));
+        long column = Math.round((p.x - MARGIN) / (double) cellWidth);
+        column = Math.max(0, Math.min(text.getLineLength(lineIndex), column));
+        return text.getLineStart(lineIndex) + (int) column;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (text == null) return;
+
+        // 보이는 영역의 왼쪽 위를 원점으로 옮겨 그림 (글자 위치는 float 로 계산되므로 긴 줄 끝의 큰 좌표는 어긋남)
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.translate(clip.x, clip.y);
+            Object hints = Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints");
+            if (hints instanceof Map) g2.addRenderingHints((Map<?, ?>) hints);
+            int firstLine = clip.y / lineHeight;
+            int lastLine = Math.min(text.getLineCount() - 1, (clip.y + clip.height - 1) / lineHeight);
+            int firstColumn = Math.max(0, (clip.x - MARGIN) / cellWidth);
+            int endColumn = (clip.x + clip.width - MARGIN) / cellWidth + 1;
+            int selectionStart = Math.min(anchor, dot);
+            int selectionEnd = Math.max(anchor, dot);
+            for (int i = firstLine; i <= lastLine; i++) {
+                int lineStart = text.getLineStart(i);
+                int y = (int) ((long) i * lineHeight - clip.y);
+                int x = (int) (MARGIN + (long) firstColumn * cellWidth - clip.x);
+                // 선택 (줄바꿈까지 선택됐으면 줄 끝에 한 칸 더)
+                int from = Math.max(selectionStart - lineStart, firstColumn);
+                int to = Math.min(selectionEnd - lineStart, Math.min(text.getLineLength(i) + 1, endColumn));
+                if (from < to) {
+                    g2.setColor(selectionColor);
+                    g2.fillRect(x + (from - firstColumn) * cellWidth, y, (to - from) * cellWidth, lineHeight);
+                }
+                int length = Math.min(text.getLineLength(i), endColumn) - firstColumn;
+                if (length > 0) paintLine(g2, lineStart + firstColumn, length, x, y + ascent);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    // start 부터 length 글자를 x 에서부터 스타일 구간별로 그림
+    private void paintLine(Graphics2D g2, int start, int length, int x, int baseline) {
+        if (line.length < length) line = new char[Math.max(length, line.length * 2)];
+        char[] chars = line;
+        text.getText().getChars(start, start + length, chars, 0);
+        for (int i = 0; i < length; i++) {
+            if (chars[i] < ' ') chars[i] = ' ';
+        }
+        text.styleRuns(start, start + length, (runStart, runEnd, style) -> {
+            g2.setFont(fonts[style]);
+            g2.setColor(colors[style]);
+            int from = runStart - start;
+            int to = runEnd - start;
+            boolean ascii = true;
+            for (int i = from; i < to && ascii; i++) ascii = chars[i] < 0x80;
+            if (ascii) {
+                g2.drawChars(chars, from, to - from, x + from * cellWidth, baseline);
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                int n = Character.isHighSurrogate(chars[i]) && i + 1 < to ? 2 : 1; // 서로게이트 쌍은 함께
+                g2.drawChars(chars, i, n, x + i * cellWidth, baseline);
+                i += n - 1;
+            }
+        });
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (text == null) return new Dimension(0, 0);
+        long width = 2L * MARGIN + (long) (text.getMaxLineLength() + 1) * cellWidth;
+        long height = (long) text.getLineCount() * lineHeight;
+        return new Dimension((int) Math.min(width, MAX_EXTENT), (int) Math.min(height, MAX_EXTENT));
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? lineHeight : cellWidth;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL
+                ? Math.max(lineHeight, visibleRect.height - lineHeight)
+                : Math.max(cellWidth, visibleRect.width - cellWidth);
+    }
+
+    // 내용이 뷰포트보다 작으면 뷰포트를 채움 (배경이 끝까지 칠해지게)
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getHeight() > getPreferredSize().height;
+    }
+}
@@ -0,0 +1,127 @@
+package csssingleliner;
+
+import csssingleliner.core.CssIndex;
+
+import javax.swing.text.Element;
+import javax.swing.text.StyledDocument;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 구문 강조까지 끝난 결과(문서, 큰 결과는 {@link HighlightedText})와 그 선택자/속성 색인을 (파일, 주석 제거 여부) 별로 보관하는 LRU 캐시.
+ * 체크박스를 다시 켜고 끄거나 같은 파일을 다시 드롭하면 후처리와 강조를 건너뛰고 바로 표시한다.
+ * 문서 크기를 추정해 합계가 상한을 넘으면 가장 오래 쓰지 않은 문서부터 버린다. EDT 에서만 사용한다.
+ */
+final class DocumentCache {
+
+    private final long maxBytes;
+    private long totalBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // 접근 순서
+
+    DocumentCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // 강조된 StyledDocument 또는 HighlightedText (없으면 null)
+    Object get(Key key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.result : null;
+    }
+
+    CssIndex getIndex(Key key) {
+        Entry entry = entries.get(key);
+        return entry != null ? entry.index : null;
+    }
+
+    // 같은 경로의 이전 버전(수정 전 파일) 문서는 함께 버림. 상한보다 큰 문서는 보관하지 않음
+    void put(Key key, Object result, CssIndex index) {
+        long bytes = result instanceof HighlightedText
+                ? ((HighlightedText) result).estimateBytes()
+                : estimateBytes((StyledDocument) result);
+        bytes += index.size() * 24L; // 색인은 위치마다 배열 4개 (long 하나, int 셋)
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> entry = it.next();
+            if (entry.getKey().path.equals(key.path) && !entry.getKey().sameVersion(key)) {
+                totalBytes -= entry.getValue().bytes;
+                it.remove();
+            }
+        }
+        Entry old = entries.remove(key);
+        if (old != null) totalBytes -= old.bytes;
+        if (bytes > maxBytes) return;
+        entries.put(key, new Entry(result, index, bytes));
+        totalBytes += bytes;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().bytes;
+            eldest.remove();
+        }
+    }
+
+    /**
+     * 문서가 차지하는 힙 크기 추정 (문자 수, 스타일 구간 수, 문단 수에 비례).
+     * JDK 17 64비트 실측보다 약간 크게 잡은 값: 강조한 3 MB 문서 실측 87 MB, 추정 102 MB.
+     */
+    static long estimateBytes(StyledDocument document) {
+        Element root = document.getDefaultRootElement();
+        int paragraphs = root.getElementCount();
+        long leaves = 0;
+        for (int i = 0; i < paragraphs; i++) {
+            leaves += root.getElement(i).getElementCount();
+        }
+        return document.getLength() * 4L + leaves * 128L + paragraphs * 64L;
+    }
+
+    // 파일(경로, 수정 시각, 크기)과 표시 옵션
+    static final class Key {
+        final String path;
+        final long lastModified;
+        final long length;
+        final boolean removeComments;
+
+        Key(String path, long lastModified, long length, boolean removeComments) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.removeComments = removeComments;
+        }
+
+        Key withRemoveComments(boolean remove) {
+            return new Key(path, lastModified, length, remove);
+        }
+
+        boolean sameVersion(Key other) {
+            return lastModified == other.lastModified && length == other.length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return lastModified == other.lastModified && length == other.length
+                    && removeComments == other.removeComments && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, lastModified, length, removeComments);
+        }
+    }
+
+    private static final class Entry {
+        final Object result;
+        final CssIndex index;
+        final long bytes;
+
+        Entry(Object result, CssIndex index, long bytes) {
+            this.result = result;
+            this.index = index;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -33,10 +33,8 @@ public class FileDropHandler extends TransferHandler {
             List<File> files = (List<File>) transferable.getTransferData(DataFlavor.javaFileListFlavor);
 
             if (!files.isEmpty()) {
-                // 여러 파일이 드롭되어도 첫 번째 파일만 처리
-                File droppedFile = files.get(0);
-                // 메인 앱의 파일 처리 메서드 호출
-                mainApp.processFile(droppedFile);
+                // 드롭된 파일과 폴더를 모두 변환 큐에 넣음 (변환은 백그라운드에서 진행, 바로 반환)
+                mainApp.processFiles(files);
                 return true; // 데이터 가져오기 성공
             }
         } catch (Exception e) {
@@ -0,0 +1,170 @@
+package csssingleliner;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link CssTextView} 가 보여 주는 큰 결과 텍스트와 구문 강조 정보.
+ *
+ * 텍스트는 변환 결과 문자열을 복사하지 않고 그대로 가리키고, 따로 두는 것은 줄 시작 위치 표와
+ * 청크(4096 글자)마다 저장한 {@link CssStyleScanner} 체크포인트뿐이다. 스타일 구간은 그릴 청크만
+ * 체크포인트부터 훑어 (청크 안 위치 << 3 | 스타일 번호) 로 묶은 int 배열로 만들고, 최근에 쓴 청크
+ * {@value #MAX_CACHED_CHUNKS}개만 보관한다. 청크 단위이므로 아주 긴 한 줄(압축된 결과)의 중간도 바로 강조할 수 있다.
+ *
+ * 생성(줄 표와 체크포인트를 위해 전체를 한 번 훑음)은 백그라운드 스레드에서 할 수 있으며, 스레드가
+ * 인터럽트되면 CancellationException 으로 중단된다. 스타일 조회는 EDT 에서만 한다.
+ */
+final class HighlightedText {
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int STYLE_BITS = 3; // 스타일 번호 0 ~ STYLE_COUNT-1 (8개)
+    private static final int STYLE_MASK = (1 << STYLE_BITS) - 1;
+    private static final int MAX_CACHED_CHUNKS = 256;
+
+    private final String text;
+    private final int[] lineStarts;
+    private final int maxLineLength;
+
+    // 청크 k 의 시작 위치와 그 위치의 스캐너 상태. 시작은 k << CHUNK_SHIFT 이거나,
+    // 주석 끝 "*/" 가 경계에 걸치면 한 글자 뒤 (스캐너가 두 글자를 한 번에 처리하므로)
+    private final int[] chunkStarts;
+    private final byte[] chunkStates;
+    private final int[] chunkTokenStarts;
+
+    // 청크 번호 -> 스타일 구간 (접근 순서, 오래 안 쓴 청크부터 버림)
+    private final Map<Integer, int[]> runCache = new LinkedHashMap<Integer, int[]>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+            return size() > MAX_CACHED_CHUNKS;
+        }
+    };
+
+    HighlightedText(String text) {
+        this.text = text;
+        int count = 1;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) count++;
+        lineStarts = new int[count];
+        int longest = 0;
+        int line = 1;
+        for (int i = text.indexOf('\n'); i >= 0; i = text.indexOf('\n', i + 1)) {
+            longest = Math.max(longest, i - lineStarts[line - 1]);
+            lineStarts[line++] = i + 1;
+        }
+        maxLineLength = Math.max(longest, text.length() - lineStarts[count - 1]);
+
+        int chunks = (text.length() >> CHUNK_SHIFT) + 1;
+        chunkStarts = new int[chunks];
+        chunkStates = new byte[chunks];
+        chunkTokenStarts = new int[chunks];
+        CssStyleScanner scanner = new CssStyleScanner(text);
+        CssStyleScanner.RunSink ignore = (start, end, style) -> { };
+        chunkStates[0] = (byte) scanner.state();
+        for (int k = 1; k < chunks; k++) {
+            scanner.scan(k << CHUNK_SHIFT, ignore);
+            chunkStarts[k] = scanner.position();
+            chunkStates[k] = (byte) scanner.state();
+            chunkTokenStarts[k] = scanner.tokenStart();
+        }
+    }
+
+    String getText() {
+        return text;
+    }
+
+    int getLineCount() {
+        return lineStarts.length;
+    }
+
+    int getLineStart(int line) {
+        return lineStarts[line];
+    }
+
+    // 줄바꿈을 뺀 줄 길이
+    int getLineLength(int line) {
+        int end = line + 1 < lineStarts.length ? lineStarts[line + 1] - 1 : text.length();
+        return end - lineStarts[line];
+    }
+
+    int getMaxLineLength() {
+        return maxLineLength;
+    }
+
+    int lineOf(int offset) {
+        int line = Arrays.binarySearch(lineStarts, offset);
+        return line >= 0 ? line : -line - 2;
+    }
+
+    /**
+     * [from, to) 의 스타일 구간을 순서대로 전달한다. 같은 스타일이 이어지는 토큰은 하나로 합쳐져 있다.
+     */
+    void styleRuns(int from, int to, CssStyleScanner.RunSink sink) {
+        int chunk = chunkOf(from);
+        while (from < to) {
+            int start = chunkStarts[chunk];
+            int end = chunkEnd(chunk);
+            int[] runs = runs(chunk);
+            // from 을 포함하는 구간 (위치가 같으면 스타일 번호와 상관없이 이 키가 더 큼)
+            int i = Arrays.binarySearch(runs, (from - start) << STYLE_BITS | STYLE_MASK);
+            for (i = i >= 0 ? i : -i - 2; i < runs.length && from < to; i++) {
+                int runEnd = Math.min(i + 1 < runs.length ? start + (runs[i + 1] >>> STYLE_BITS) : end, to);
+                sink.run(from, runEnd, runs[i] & STYLE_MASK);
+                from = runEnd;
+            }
+            chunk++;
+        }
+    }
+
+    // 힙 사용량 추정 (텍스트는 글자당 2바이트로, 스타일 캐시는 다 찼을 때 크기로)
+    long estimateBytes() {
+        return text.length() * 2L + lineStarts.length * 4L + chunkStarts.length * 9L
+                + ((long) MAX_CACHED_CHUNKS << CHUNK_SHIFT);
+    }
+
+    private int chunkOf(int offset) {
+        int chunk = Math.min(offset >> CHUNK_SHIFT, chunkStarts.length - 1);
+        return offset < chunkStarts[chunk] ? chunk - 1 : chunk;
+    }
+
+    private int chunkEnd(int chunk) {
+        return chunk + 1 < chunkStarts.length ? chunkStarts[chunk + 1] : text.length();
+    }
+
+    // 청크의 스타일 구간. 처음이면 체크포인트부터 청크 끝까지 훑어 만듦
+    private int[] runs(int chunk) {
+        int[] runs = runCache.get(chunk);
+        if (runs == null) {
+            RunList list = new RunList(chunkStarts[chunk], chunkEnd(chunk));
+            CssStyleScanner scanner = new CssStyleScanner(text);
+            scanner.resume(list.from, (char) chunkStates[chunk], chunkTokenStarts[chunk]);
+            scanner.scan(list.to, list);
+            // 끝나지 않은 토큰의 스타일은 현재 상태만으로 정해지므로 청크 뒤를 더 훑지 않음 (CssStyleScanner 참고)
+            scanner.finish(list);
+            runs = Arrays.copyOf(list.runs, list.count);
+            runCache.put(chunk, runs);
+        }
+        return runs;
+    }
+
+    // 청크 [from, to) 안쪽으로 자른 토큰을 모음. 앞 구간과 스타일이 같으면 이어 붙임
+    private static final class RunList implements CssStyleScanner.RunSink {
+        final int from;
+        final int to;
+        int[] runs = new int[64];
+        int count;
+
+        RunList(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void run(int start, int end, int style) {
+            start = Math.max(start, from);
+            if (start >= Math.min(end, to)) return;
+            if (count > 0 && (runs[count - 1] & STYLE_MASK) == style) return;
+            if (count == runs.length) runs = Arrays.copyOf(runs, count * 2);
+            runs[count++] = (start - from) << STYLE_BITS | style;
+        }
+    }
+}
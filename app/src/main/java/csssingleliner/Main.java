@@ -0,0 +1,154 @@
+package csssingleliner;
+
+import csssingleliner.cli.BatchConverter;
+import csssingleliner.core.CssIndex;
+import csssingleliner.core.CssSingleLiner;
+import csssingleliner.server.ConversionServer;
+
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * 실행 진입점. 인자를 보고 서버(--serve), 배치(인자가 있거나 화면이 없음), 창 중 하나로 나눈다.
+ * Swing 클래스를 참조하지 않으므로 배치와 서버 실행에서는 AWT/Swing 을 읽지 않는다 ({@link CSSSingleLiner} 는
+ * JFrame 이라 main 을 부르기만 해도 AWT 를 초기화함). 창은 필요할 때만 {@link CSSSingleLiner#launch()} 로 띄운다.
+ *
+ * -Dcsssingleliner.startup=true 로 실행하면 시작 시간(JVM 시작부터 main, main 부터 창이 열리거나 배치가 끝날 때까지)을
+ * 표준 오류로 알린다. --cds-training 은 빌드가 AppCDS 아카이브를 만들 때 쓰는 학습 실행 (README 참고).
+ */
+public final class Main {
+
+    static final boolean REPORT_STARTUP = Boolean.getBoolean("csssingleliner.startup");
+
+    // main 에 들어온 시각 (시작 시간 보고용)
+    private static long mainNanos;
+
+    // 학습 실행에서 미리 읽어 아카이브에 넣을 창 쪽 클래스 (창을 띄울 수 없는 빌드 환경에서도 읽기만은 됨)
+    private static final String[] UI_CLASSES = {
+            "csssingleliner.CSSSingleLiner",
+            "csssingleliner.CSSSingleLiner$QueueListener",
+            "csssingleliner.CssHighlighter",
+            "csssingleliner.CssHighlighter$BulkDocument",
+            "csssingleliner.CssHighlighter$Edit",
+            "csssingleliner.CssStyleScanner",
+            "csssingleliner.CssTextView",
+            "csssingleliner.HighlightedText",
+            "csssingleliner.HighlightedText$RunList",
+            "csssingleliner.DocumentCache",
+            "csssingleliner.DocumentCache$Key",
+            "csssingleliner.ConversionQueue",
+            "csssingleliner.ConversionJob",
+            "csssingleliner.ConversionJob$State",
+            "csssingleliner.FileDropHandler",
+            "csssingleliner.RuleSearchPanel",
+            "csssingleliner.StageStatsPanel",
+            "javax.swing.JTextPane",
+            "javax.swing.JScrollPane",
+            "javax.swing.JSplitPane",
+            "javax.swing.JList",
+            "javax.swing.JProgressBar",
+            "javax.swing.JCheckBox",
+            "javax.swing.JToggleButton",
+            "javax.swing.JTextField",
+            "javax.swing.JTextArea",
+            "javax.swing.SwingWorker",
+            "javax.swing.text.DefaultStyledDocument",
+            "javax.swing.text.StyledEditorKit",
+            "javax.swing.text.StyleContext",
+    };
+
+    private Main() {
+    }
+
+    public static void main(String[] args) {
+        mainNanos = System.nanoTime();
+        if (args.length == 1 && args[0].equals("--cds-training")) {
+            System.exit(train());
+        }
+        // --serve 면 로컬 HTTP 변환 서버
+        if (args.length > 0 && args[0].equals("--serve")) {
+            System.exit(ConversionServer.run(args));
+        }
+        // 인자가 있거나 화면이 없는 환경이면 GUI 없이 배치 모드로 실행
+        if (args.length > 0 || GraphicsEnvironment.isHeadless()) {
+            int exit = BatchConverter.run(args);
+            reportStartup("배치 변환 끝");
+            System.exit(exit);
+        }
+        CSSSingleLiner.launch();
+    }
+
+    // JVM 시작 -> main -> 지금 (ms) 을 표준 오류로. 측정할 때만 관리 API 를 읽음
+    static void reportStartup(String milestone) {
+        if (!REPORT_STARTUP) return;
+        long sinceMain = (System.nanoTime() - mainNanos) / 1_000_000;
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        System.err.printf("시작 시간: JVM 시작 -> main %d ms, main -> %s %d ms (합계 %d ms)%n",
+                uptime - sinceMain, milestone, sinceMain, uptime);
+    }
+
+    /**
+     * AppCDS 학습 실행: 배치 변환의 여러 옵션 경로를 한 번씩 실제로 돌리고, 창 쪽 클래스는 읽기만 한다.
+     * -XX:ArchiveClassesAtExit 와 함께 실행하면 여기서 읽은 클래스가 아카이브에 들어간다.
+     */
+    private static int train() {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("csssingleliner-cds");
+            Path css = dir.resolve("sample.css");
+            Files.write(css, ("/* 학습용 */\n@charset \"utf-8\";\n@import url(\"a.css\");\n"
+                    + "@media (max-width: 600px) {\n  .nav a, .nav b {\n    color: #FFAABB;\n    margin: 0px 0.50em;\n  }\n}\n"
+                    + ".card {\n  padding: 4px;\n  &:hover { color: red; }\n}\n"
+                    + "a[href^='http'] { background: url(x.png) no-repeat; }\n.broken {\n  color: red;\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            Path result = dir.resolve("out");
+            // 진행 출력과 (일부러 넣은) 구문 오류 보고는 버림
+            PrintStream discard = new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) {
+                }
+            });
+            System.setOut(discard);
+            System.setErr(discard);
+            String file = css.toString();
+            String outDir = result.toString();
+            BatchConverter.run(new String[] {"-o", outDir, file});
+            BatchConverter.run(new String[] {"-o", outDir, "-c", "--stats", dir.resolve("stats.json").toString(), file});
+            BatchConverter.run(new String[] {"-o", outDir, "-m", "--source-map", file});
+            BatchConverter.run(new String[] {"-o", outDir, "-s", file});
+            BatchConverter.run(new String[] {"-o", outDir, "--cache", dir.resolve("cache").toString(), file});
+            CssIndex.of(new CssSingleLiner().convert(new String(Files.readAllBytes(css), StandardCharsets.UTF_8)))
+                    .duplicateSelectors();
+            ClassLoader loader = Main.class.getClassLoader();
+            for (String name : UI_CLASSES) {
+                Class.forName(name, false, loader);
+            }
+            return BatchConverter.EXIT_OK;
+        } catch (IOException | ClassNotFoundException e) {
+            err.println("학습 실행 중 오류 발생: " + e);
+            return BatchConverter.EXIT_USAGE;
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+            if (dir != null) delete(dir);
+        }
+    }
+
+    private static void delete(Path dir) {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            walk.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            // 임시 디렉터리이므로 남아도 됨
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package csssingleliner;
+
+import csssingleliner.core.CssIndex;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 드롭 패널의 선택자/속성 검색. 표시 중인 문서의 {@link CssIndex} 에서 입력한 글자로 시작하거나 그 글자가 들어 있는
+ * 선택자, 속성, @규칙을 글자를 칠 때마다 찾아 목록으로 보여 주고, 고르면 (Enter, 더블클릭) 결과의 그 위치로 간다.
+ * 색인 검색은 이름 수에 비례하므로 아주 큰 문서도 바로 찾는다. EDT 에서만 쓴다.
+ */
+final class RuleSearchPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    // 목록에 보여 줄 최대 결과 수
+    private static final int MAX_RESULTS = 500;
+
+    private final JTextField field = new JTextField();
+    private final DefaultListModel<CssIndex.Entry> model = new DefaultListModel<>();
+    private final JList<CssIndex.Entry> results = new JList<>(model);
+    private final JLabel status = new JLabel(" ");
+    private final Consumer<CssIndex.Entry> jump;
+
+    private CssIndex index;
+
+    RuleSearchPanel(Consumer<CssIndex.Entry> jump) {
+        super(new BorderLayout(0, 3));
+        this.jump = jump;
+        setOpaque(false);
+
+        field.setToolTipText("선택자, 속성, @규칙 찾기 (앞부분이나 일부)");
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                search();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                search();
+            }
+        });
+        // 검색 칸에서 Enter 는 첫 결과로, 아래 화살표는 목록으로
+        field.addActionListener(e -> {
+            if (!model.isEmpty()) {
+                results.setSelectedIndex(0);
+                jumpToSelected();
+            }
+        });
+        field.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_DOWN, 0), "focusResults");
+        field.getActionMap().put("focusResults", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (model.isEmpty()) return;
+                results.requestFocusInWindow();
+                if (results.isSelectionEmpty()) results.setSelectedIndex(0);
+            }
+        });
+
+        results.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        results.setFont(results.getFont().deriveFont(11f));
+        results.setVisibleRowCount(6);
+        results.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int i, boolean selected, boolean focused) {
+                CssIndex.Entry entry = (CssIndex.Entry) value;
+                super.getListCellRendererComponent(list, marker(entry.getKind()) + entry, i, selected, focused);
+                setToolTipText(entry.getContext().isEmpty() ? null : entry.getContext());
+                return this;
+            }
+        });
+        results.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) jumpToSelected();
+            }
+        });
+        results.getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "jump");
+        results.getActionMap().put("jump", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                jumpToSelected();
+            }
+        });
+
+        status.setFont(status.getFont().deriveFont(11f));
+        add(field, BorderLayout.NORTH);
+        add(new JScrollPane(results), BorderLayout.CENTER);
+        add(status, BorderLayout.SOUTH);
+        setIndex(null);
+    }
+
+    // 표시 중인 문서의 색인 (없으면 null). 입력한 검색어로 다시 찾음
+    void setIndex(CssIndex index) {
+        this.index = index;
+        field.setEnabled(index != null);
+        search();
+    }
+
+    private void search() {
+        model.clear();
+        String query = field.getText().trim();
+        if (index == null) {
+            status.setText("파일을 드롭하면 찾을 수 있습니다.");
+            return;
+        }
+        if (query.isEmpty()) {
+            status.setText(String.format("선택자, 속성, @규칙 %,d개 (이름 %,d개)", index.size(), index.getNameCount()));
+            return;
+        }
+        List<CssIndex.Entry> found = index.search(query, MAX_RESULTS + 1);
+        for (int i = 0; i < Math.min(found.size(), MAX_RESULTS); i++) {
+            model.addElement(found.get(i));
+        }
+        status.setText(found.size() > MAX_RESULTS ? "처음 " + MAX_RESULTS + "개만 표시" : found.size() + "개 찾음");
+    }
+
+    private void jumpToSelected() {
+        CssIndex.Entry entry = results.getSelectedValue();
+        if (entry != null) jump.accept(entry);
+    }
+
+    private static String marker(CssIndex.Kind kind) {
+        switch (kind) {
+            case PROPERTY:
+                return "P  ";
+            case AT_RULE:
+                return "@  ";
+            default:
+                return "S  ";
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package csssingleliner;
+
+import csssingleliner.core.ConversionStats;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * 드롭 패널의 접을 수 있는 처리 통계 영역. 현재 파일의 단계별 시간, 처리량, 할당량과 변환 카운터를 보여준다.
+ * 처음에는 접혀 있고, 제목을 누르면 펼친다. EDT 에서만 쓴다.
+ */
+final class StageStatsPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+
+    private final JToggleButton toggle = new JToggleButton();
+    private final JTextArea text = new JTextArea();
+
+    StageStatsPanel() {
+        super(new BorderLayout());
+        setOpaque(false);
+
+        toggle.setBorderPainted(false);
+        toggle.setContentAreaFilled(false);
+        toggle.setFocusPainted(false);
+        toggle.setHorizontalAlignment(SwingConstants.LEFT);
+        toggle.addItemListener(e -> updateToggle());
+        add(toggle, BorderLayout.NORTH);
+
+        text.setEditable(false);
+        text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 11));
+        text.setBackground(Color.LIGHT_GRAY);
+        text.setText("파일을 드롭하면 표시됩니다.");
+        add(text, BorderLayout.CENTER);
+        updateToggle();
+    }
+
+    private void updateToggle() {
+        boolean open = toggle.isSelected();
+        toggle.setText((open ? "▾" : "▸") + " 처리 통계");
+        text.setVisible(open);
+        revalidate();
+    }
+
+    // 단계마다 "이름 시간 처리량 할당량 [횟수]" 한 줄 (기록된 단계만), 그 아래 카운터. 드롭 패널 폭에 맞게 짧게
+    void show(ConversionStats stats) {
+        StringBuilder lines = new StringBuilder(pad("단계")).append("     ms   처리   할당\n");
+        for (ConversionStats.Stage stage : ConversionStats.Stage.values()) {
+            long count = stats.getCount(stage);
+            if (count == 0) continue;
+            lines.append(pad(stage.getLabel()))
+                    .append(String.format("%7.1f %6s %6s", stats.getNanos(stage) / 1e6,
+                            size(stats.getUnits(stage)), size(stats.getAllocatedBytes(stage))));
+            if (count > 1) lines.append(" x").append(count);
+            lines.append('\n');
+        }
+        lines.append("규칙 ").append(stats.getRuleCount())
+                .append(", @규칙 ").append(stats.getAtRuleCount())
+                .append("\n넣은 토큰 ").append(stats.getInsertedTokenCount());
+        text.setText(lines.toString());
+    }
+
+    void clear() {
+        text.setText("");
+    }
+
+    // 한글은 두 칸으로 보고 열을 맞춤
+    private static String pad(String label) {
+        StringBuilder padded = new StringBuilder(label);
+        int width = 0;
+        for (int i = 0; i < label.length(); i++) width += label.charAt(i) >= 0x1100 ? 2 : 1;
+        while (width++ < 10) padded.append(' ');
+        return padded.toString();
+    }
+
+    private static String size(long n) {
+        if (n >= 10_000_000) return String.format("%.0fM", n / 1e6);
+        if (n >= 10_000) return String.format("%.0fK", n / 1e3);
+        return Long.toString(n);
+    }
+}
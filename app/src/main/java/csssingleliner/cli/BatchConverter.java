@@ -0,0 +1,541 @@
+package csssingleliner.cli;
+
+import csssingleliner.core.ConversionStats;
+import csssingleliner.core.CssMinifier;
+import csssingleliner.core.CssPostProcessor;
+import csssingleliner.core.CssFileInput;
+import csssingleliner.core.CssSingleLiner;
+import csssingleliner.core.FileWatcher;
+import csssingleliner.core.IncrementalConverter;
+import csssingleliner.core.ParallelConverter;
+import csssingleliner.core.ResultCache;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * GUI 없이 여러 CSS 파일/디렉터리/glob 을 한 번에 변환하는 명령행 모드.
+ * 파일들은 work-stealing 풀로 모든 코어에 나눠 처리하고, 파일별/전체 소요 시간을 출력한다.
+ * 감시 모드(-w)에서는 변환 후에도 종료하지 않고, 입력 파일이 바뀔 때마다 바뀐 블록만 다시 변환한다.
+ * 분할 모드(-s)에서는 큰 파일 하나도 최상위 블록 단위로 나눠 같은 풀에서 여러 코어로 변환한다.
+ * --stats 를 주면 단계별 처리 통계(읽기, 변환, 후처리, 쓰기 등)를 JSON 으로 남긴다.
+ * --cache 를 주면 결과를 디스크에 캐시해, 다음 실행에서 내용과 옵션이 같은 파일은 변환 없이 캐시에서 바로 쓴다.
+ * --source-map 을 주면 결과 파일마다 원본 위치를 가리키는 Source Map (결과 파일 이름 + .map) 을 함께 쓴다.
+ */
+public final class BatchConverter {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_PARSE_ERROR = 1;
+    public static final int EXIT_USAGE = 2;
+
+    // 출력 디렉터리를 주지 않았을 때 입력 파일 옆에 만드는 결과 파일 접미사
+    static final String OUTPUT_SUFFIX = ".single.css";
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private Path outputDir;
+    private boolean removeComments;
+    private boolean minify;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean watch;
+    private boolean split;
+    private boolean sourceMap;
+    private String statsTarget; // 통계 JSON 을 쓸 파일, "-" 면 표준 출력 (없으면 null)
+    private Path cacheDir;      // 디스크 결과 캐시 디렉터리 (없으면 null)
+    private long cacheBytes = ResultCache.DEFAULT_MAX_BYTES;
+    private final List<String> patterns = new ArrayList<>();
+
+    private long totalBytes; // 마지막 convertAll 에서 읽은 입력 크기
+
+    // 모든 작업 스레드가 같이 쓰는 변환기 (상태 없음)
+    private CssSingleLiner liner;
+
+    // 실행 사이에 남는 변환 결과 캐시 (--cache, 감시 모드에서는 쓰지 않음)
+    private ResultCache cache;
+
+    // 실행 전체의 단계별 통계 (모든 작업 스레드가 같이 기록)
+    private final ConversionStats stats = new ConversionStats(ConversionStats.global());
+
+    // 감시 모드: 파일별 블록 캐시
+    private final Map<Path, IncrementalConverter> converters = new ConcurrentHashMap<>();
+
+    BatchConverter(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static int run(String[] args) {
+        return new BatchConverter(System.out, System.err).execute(args);
+    }
+
+    int execute(String[] args) {
+        if (!parseArguments(args)) {
+            printUsage();
+            return EXIT_USAGE;
+        }
+        liner = new CssSingleLiner(CssSingleLiner.Options.DEFAULT.withRemoveComments(removeComments).withMinify(minify));
+
+        Map<Path, Path> inputs; // 입력 파일 -> 상대 경로 기준 디렉터리
+        try {
+            inputs = collectInputs();
+        } catch (IOException e) {
+            err.println("입력 파일 탐색 중 오류 발생: " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        if (inputs.isEmpty()) {
+            err.println("변환할 CSS 파일이 없습니다.");
+            return EXIT_USAGE;
+        }
+        String collision = findOutputCollision(inputs);
+        if (collision != null) {
+            err.println(collision);
+            return EXIT_USAGE;
+        }
+
+        if (cacheDir != null) {
+            try {
+                cache = ResultCache.open(cacheDir, cacheBytes);
+            } catch (IOException e) {
+                err.println("캐시를 열 수 없습니다: " + e.getMessage());
+                return EXIT_USAGE;
+            }
+        }
+
+        long start = System.nanoTime();
+        // Executors.newWorkStealingPool 과 같은 풀. 분할 모드에서는 파일 안의 조각도 이 풀에서 나눠 처리
+        ForkJoinPool pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        int failed = convertAll(pool, inputs);
+        double elapsedMs = (System.nanoTime() - start) / 1e6;
+        out.printf("전체: %d개 파일, %.2f MB, %.1f ms (스레드 %d개), 오류 %d개%n",
+                inputs.size(), totalBytes / 1e6, elapsedMs, threads, failed);
+        if (cache != null) {
+            out.printf("캐시: 적중 %d, 누락 %d%n", cache.getHits(), cache.getMisses());
+        }
+        writeStats(inputs.size(), failed, elapsedMs);
+        if (cache != null) {
+            try {
+                cache.close();
+            } catch (IOException e) {
+                err.println("캐시를 닫는 중 오류 발생: " + e.getMessage());
+            }
+        }
+        if (watch) {
+            ConversionStats.registerGlobal(); // 오래 돌므로 JMX 로 볼 수 있게
+            return watchInputs(pool);
+        }
+        pool.shutdown();
+        return failed == 0 ? EXIT_OK : EXIT_PARSE_ERROR;
+    }
+
+    // 파일들을 풀에 나눠 변환하고 실패한 파일 수를 반환
+    private int convertAll(ForkJoinPool pool, Map<Path, Path> inputs) {
+        List<Future<FileResult>> futures = new ArrayList<>();
+        for (Map.Entry<Path, Path> input : inputs.entrySet()) {
+            futures.add(pool.submit(() -> convert(pool, input.getKey(), outputPath(input.getKey(), input.getValue()))));
+        }
+
+        int failed = 0;
+        totalBytes = 0;
+        for (Future<FileResult> future : futures) {
+            try {
+                FileResult result = future.get();
+                totalBytes += result.bytes;
+                if (!result.ok) failed++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed++;
+                break;
+            } catch (ExecutionException e) {
+                err.println("변환 중 오류 발생: " + e.getCause());
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    // 입력 디렉터리들을 감시하며 바뀐 입력 파일만 다시 변환 (Ctrl+C 로 종료할 때까지)
+    private int watchInputs(ForkJoinPool pool) {
+        try (FileWatcher watcher = new FileWatcher(changed -> reconvert(pool, changed),
+                (dir, e) -> err.println("디렉터리 감시 등록 실패: " + dir + " (" + e.getMessage() + ")"))) {
+            for (String pattern : patterns) {
+                Path path = Paths.get(pattern);
+                if (isGlob(pattern)) {
+                    Path base = globBase(pattern);
+                    if (Files.isDirectory(base)) watcher.register(base, true);
+                } else if (Files.isDirectory(path)) {
+                    watcher.register(path, true);
+                } else {
+                    Path parent = path.toAbsolutePath().getParent();
+                    if (parent != null) watcher.register(parent, false);
+                }
+            }
+            out.println("변경 감시 중... (종료: Ctrl+C)");
+            watcher.run();
+            return EXIT_OK;
+        } catch (IOException e) {
+            err.println("파일 감시 중 오류 발생: " + e.getMessage());
+            return EXIT_USAGE;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void reconvert(ForkJoinPool pool, Set<Path> changed) {
+        Map<Path, Path> inputs;
+        try {
+            inputs = collectInputs(); // 새로 생긴 파일도 인자의 디렉터리/glob 에 맞으면 포함
+        } catch (IOException e) {
+            err.println("입력 파일 탐색 중 오류 발생: " + e.getMessage());
+            return;
+        }
+        String collision = findOutputCollision(inputs); // 새로 생긴 파일이 다른 파일과 같은 결과 파일로 갈 때
+        if (collision != null) {
+            err.println(collision);
+            return;
+        }
+        inputs.keySet().retainAll(changed);
+        if (inputs.isEmpty()) return;
+        long start = System.nanoTime();
+        int failed = convertAll(pool, inputs);
+        writeStats(inputs.size(), failed, (System.nanoTime() - start) / 1e6); // 통계는 실행 시작부터 누적
+    }
+
+    private boolean parseArguments(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-o":
+                case "--out":
+                    if (++i >= args.length) return false;
+                    outputDir = Paths.get(args[i]);
+                    break;
+                case "-c":
+                case "--remove-comments":
+                    removeComments = true;
+                    break;
+                case "-m":
+                case "--minify":
+                    minify = true;
+                    break;
+                case "-j":
+                case "--threads":
+                    if (++i >= args.length) return false;
+                    try {
+                        threads = Integer.parseInt(args[i]);
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                    if (threads < 1) return false;
+                    break;
+                case "-w":
+                case "--watch":
+                    watch = true;
+                    break;
+                case "-s":
+                case "--split":
+                    split = true;
+                    break;
+                case "--source-map":
+                    sourceMap = true;
+                    break;
+                case "--stats":
+                    if (++i >= args.length) return false;
+                    statsTarget = args[i];
+                    break;
+                case "--cache":
+                    if (++i >= args.length) return false;
+                    cacheDir = Paths.get(args[i]);
+                    break;
+                case "--cache-mb":
+                    if (++i >= args.length) return false;
+                    try {
+                        cacheBytes = Long.parseLong(args[i]) * 1024 * 1024;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                    if (cacheBytes < 1) return false;
+                    break;
+                case "-h":
+                case "--help":
+                    return false;
+                default:
+                    if (arg.startsWith("-")) {
+                        err.println("알 수 없는 옵션: " + arg);
+                        return false;
+                    }
+                    patterns.add(arg);
+            }
+        }
+        if (sourceMap && (watch || split)) {
+            // 감시/분할 모드는 흘려보내는 변환을 거치지 않아 원본 위치를 모을 수 없음
+            err.println("--source-map 은 -w, -s 와 함께 쓸 수 없습니다");
+            return false;
+        }
+        return !patterns.isEmpty();
+    }
+
+    private void printUsage() {
+        err.println("사용법: java -jar csssingleliner.jar [옵션] <파일|디렉터리|glob>...");
+        err.println("  -o, --out <디렉터리>     결과를 저장할 디렉터리 (기본: 입력 파일 옆에 *" + OUTPUT_SUFFIX + ")");
+        err.println("  -c, --remove-comments    주석 제거");
+        err.println("  -m, --minify             압축 출력 (주석, 공백, 마지막 ';' 제거, 색/숫자 축약, 이웃한 같은 규칙 합침)");
+        err.println("  -j, --threads <N>        작업 스레드 수 (기본: CPU 코어 수)");
+        err.println("  -w, --watch              변환 후 입력 파일이 바뀔 때마다 다시 변환 (바뀐 블록만)");
+        err.println("  -s, --split              큰 파일도 블록 단위로 나눠 여러 코어에서 변환 (파일 전체를 메모리에 읽음)");
+        err.println("      --source-map         결과 파일마다 Source Map (*.map) 을 쓰고 결과 끝에 sourceMappingURL 주석을 붙임");
+        err.println("      --stats <파일|->     단계별 처리 통계를 JSON 으로 저장 (- 면 표준 출력)");
+        err.println("      --cache <디렉터리>   변환 결과를 디스크에 캐시해 다음 실행에서 바뀌지 않은 파일은 건너뜀");
+        err.println("      --cache-mb <N>       캐시 최대 크기 (기본: " + ResultCache.DEFAULT_MAX_BYTES / (1024 * 1024) + " MB)");
+        err.println("  -h, --help               도움말");
+    }
+
+    // 인자마다 변환할 파일과, 출력 디렉터리 안에서의 상대 경로 기준을 모음 (중복 제거, 순서 유지)
+    private Map<Path, Path> collectInputs() throws IOException {
+        Map<Path, Path> inputs = new LinkedHashMap<>();
+        for (String pattern : patterns) {
+            Path path = Paths.get(pattern);
+            if (isGlob(pattern)) {
+                collectGlob(pattern, inputs);
+            } else if (Files.isDirectory(path)) {
+                for (Path file : walkCssFiles(path)) {
+                    inputs.putIfAbsent(file.toAbsolutePath().normalize(), path.toAbsolutePath().normalize());
+                }
+            } else if (Files.isRegularFile(path)) {
+                Path file = path.toAbsolutePath().normalize();
+                inputs.putIfAbsent(file, file.getParent());
+            } else {
+                throw new IOException("파일을 찾을 수 없습니다: " + pattern);
+            }
+        }
+        if (outputDir != null) {
+            // 출력 디렉터리가 입력 디렉터리 안에 있으면 이전 실행의 결과 파일은 입력이 아님
+            Path outputRoot = outputDir.toAbsolutePath().normalize();
+            inputs.keySet().removeIf(file -> file.startsWith(outputRoot));
+        }
+        return inputs;
+    }
+
+    // 서로 다른 입력이 같은 결과 파일로 가면 (-o 에서 다른 인자의 x/site.css 와 y/site.css 등) 오류 메시지, 아니면 null
+    private String findOutputCollision(Map<Path, Path> inputs) {
+        Map<Path, Path> writers = new HashMap<>(); // 결과 파일 -> 입력 파일
+        for (Map.Entry<Path, Path> input : inputs.entrySet()) {
+            Path output = outputPath(input.getKey(), input.getValue()).toAbsolutePath().normalize();
+            Path other = writers.putIfAbsent(output, input.getKey());
+            if (other != null) {
+                return "결과 파일이 겹칩니다: " + other + ", " + input.getKey() + " -> " + output
+                        + " (입력을 공통 상위 디렉터리 하나로 지정하세요)";
+            }
+        }
+        return null;
+    }
+
+    private void collectGlob(String pattern, Map<Path, Path> inputs) throws IOException {
+        Path base = globBase(pattern);
+        String normalized = pattern.replace('\\', '/');
+        String glob = normalized.substring(normalized.lastIndexOf('/', globStart(normalized)) + 1);
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        // "**/" 로 시작하면 기준 디렉터리 바로 아래 파일도 포함
+        PathMatcher topLevel = glob.startsWith("**/")
+                ? FileSystems.getDefault().getPathMatcher("glob:" + glob.substring(3)) : matcher;
+        if (!Files.isDirectory(base)) return;
+        for (Path file : walkCssFiles(base)) {
+            Path relative = base.relativize(file);
+            if (matcher.matches(relative) || topLevel.matches(relative)) {
+                inputs.putIfAbsent(file.toAbsolutePath().normalize(), base.toAbsolutePath().normalize());
+            }
+        }
+    }
+
+    // glob 문자가 처음 나오는 경로 구간 앞까지를 탐색 기준 디렉터리로 사용
+    private static Path globBase(String pattern) {
+        String normalized = pattern.replace('\\', '/');
+        int slash = normalized.lastIndexOf('/', globStart(normalized));
+        return slash < 0 ? Paths.get(".") : Paths.get(slash == 0 ? "/" : normalized.substring(0, slash));
+    }
+
+    private static int globStart(String normalized) {
+        int globAt = 0;
+        while (!isGlob(String.valueOf(normalized.charAt(globAt)))) globAt++;
+        return globAt;
+    }
+
+    private List<Path> walkCssFiles(Path dir) throws IOException {
+        try (Stream<Path> stream = Files.walk(dir)) {
+            return stream.filter(Files::isRegularFile)
+                    .filter(p -> {
+                        String name = p.getFileName().toString().toLowerCase();
+                        // 출력 디렉터리 없이 실행하면 이전 실행 결과물은 다시 변환하지 않음
+                        return name.endsWith(".css") && (outputDir != null || !name.endsWith(OUTPUT_SUFFIX));
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isGlob(String s) {
+        return s.indexOf('*') >= 0 || s.indexOf('?') >= 0 || s.indexOf('[') >= 0 || s.indexOf('{') >= 0;
+    }
+
+    private Path outputPath(Path file, Path root) {
+        if (outputDir != null) {
+            return outputDir.resolve(root.relativize(file).toString());
+        }
+        String name = file.getFileName().toString();
+        int dot = name.toLowerCase().lastIndexOf(".css");
+        return file.resolveSibling(name.substring(0, dot) + OUTPUT_SUFFIX);
+    }
+
+    // 파일 하나 변환: GUI 와 같은 한 줄 변환 + 후처리(주석 제거, 연속 개행 축소)
+    private FileResult convert(ForkJoinPool pool, Path input, Path output) {
+        long start = System.nanoTime();
+        try {
+            long bytes = Files.size(input);
+            if (output.getParent() != null) Files.createDirectories(output.getParent());
+            // 결과는 입력과 같은 문자셋으로 (BOM 이 있었으면 BOM 도)
+            CssFileInput.Encoding encoding = CssFileInput.detectEncoding(input);
+            List<String> errors;
+            String detail = "";
+            ResultCache.Key key = null;
+            ByteBuffer cached = null;
+            if (cache != null && !watch && !sourceMap) { // 캐시에는 결과만 있고 맵은 없음
+                ConversionStats.Sample sample = ConversionStats.start();
+                key = ResultCache.key(input, liner.getOptions());
+                cached = key != null ? cache.get(key) : null; // 2GB 를 넘는 파일은 키 없음
+                stats.record(ConversionStats.Stage.READ, sample, cached != null ? bytes : 0);
+            }
+            if (cached != null) {
+                // 디스크 캐시 적중: 저장된 결과(입력과 같은 문자셋)를 그대로 씀
+                writeCached(output, cached);
+                errors = Collections.emptyList();
+                detail = " (캐시)";
+            } else if (watch) {
+                // 감시 모드: 파일별 블록 캐시를 채워 두고, 다음 변경부터는 바뀐 블록만 변환
+                IncrementalConverter converter = converters.computeIfAbsent(input, p -> new IncrementalConverter(stats));
+                String singleLined = converter.convert(read(input, bytes));
+                errors = converter.getErrors();
+                write(output, encoding, postProcess(singleLined));
+                detail = String.format(" (블록 %d개 중 %d개 변환)",
+                        converter.getBlockCount(), converter.getConvertedBlockCount());
+            } else if (split) {
+                // 분할 모드: 최상위 블록 경계에서 나눈 조각들을 풀의 여러 스레드가 변환 (결과는 순차 변환과 같음)
+                StringBuilder singleLined = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, bytes));
+                errors = ParallelConverter.convert(read(input, bytes), singleLined, pool, stats);
+                write(output, encoding, postProcess(singleLined.toString()));
+            } else if (sourceMap) {
+                Path map = output.resolveSibling(output.getFileName() + ".map");
+                errors = liner.convert(input, output, map, stats);
+                detail = " (+ " + map.getFileName() + ")";
+            } else {
+                // 파일 전체를 힙에 올리지 않고, 메모리 매핑한 내용을 조금씩 디코딩하며 변환
+                errors = liner.convert(input, output, stats);
+            }
+            // 오류가 있는 결과는 다음에도 오류를 보여야 하므로 캐시하지 않음
+            if (key != null && cached == null && errors.isEmpty()) {
+                try (FileChannel channel = FileChannel.open(output, StandardOpenOption.READ)) {
+                    long size = channel.size();
+                    cache.put(key, size == 0 ? ByteBuffer.allocate(0) : channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+                }
+            }
+
+            double elapsedMs = (System.nanoTime() - start) / 1e6;
+            synchronized (this) {
+                out.printf("%8.1f ms  %s -> %s%s%n", elapsedMs, input, output, detail);
+                for (String error : errors) {
+                    err.println(input + ":" + error);
+                }
+            }
+            return new FileResult(bytes, errors.isEmpty());
+        } catch (IOException e) {
+            synchronized (this) {
+                err.println(input + ": 파일 처리 중 오류 발생: " + e.getMessage());
+            }
+            return new FileResult(0, false);
+        }
+    }
+
+    private void writeCached(Path output, ByteBuffer result) throws IOException {
+        ConversionStats.Sample sample = ConversionStats.start();
+        int length = result.remaining();
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (result.hasRemaining()) channel.write(result);
+        }
+        stats.record(ConversionStats.Stage.WRITE, sample, length);
+    }
+
+    // 메모리에 있는 한 줄 변환 결과의 후처리 (감시, 분할 모드)
+    private String postProcess(String singleLined) {
+        if (minify) return CssMinifier.minify(singleLined, stats);
+        return CssPostProcessor.apply(singleLined, removeComments, stats);
+    }
+
+    private String read(Path input, long bytes) throws IOException {
+        ConversionStats.Sample sample = ConversionStats.start();
+        String css = CssFileInput.read(input);
+        stats.record(ConversionStats.Stage.READ, sample, bytes);
+        return css;
+    }
+
+    private void write(Path output, CssFileInput.Encoding encoding, String css) throws IOException {
+        ConversionStats.Sample sample = ConversionStats.start();
+        try (Writer writer = CssFileInput.newWriter(output, encoding)) {
+            writer.write(css);
+        }
+        stats.record(ConversionStats.Stage.WRITE, sample, css.length());
+    }
+
+    // 실행 요약과 단계별 통계를 JSON 한 줄로
+    private void writeStats(int files, int failed, double elapsedMs) {
+        if (statsTarget == null) return;
+        String json = String.format(Locale.ROOT,
+                "{\"files\":%d,\"failed\":%d,\"inputBytes\":%d,\"elapsedMs\":%.3f,\"threads\":%d,%s\"stats\":%s}",
+                files, failed, totalBytes, elapsedMs, threads,
+                cache == null ? "" : String.format("\"cache\":{\"hits\":%d,\"misses\":%d},", cache.getHits(), cache.getMisses()),
+                stats.toJson());
+        if (statsTarget.equals("-")) {
+            out.println(json);
+            return;
+        }
+        try {
+            Files.write(Paths.get(statsTarget), (json + "\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            err.println("통계 파일을 쓸 수 없습니다: " + e.getMessage());
+        }
+    }
+
+    private static final class FileResult {
+        final long bytes;
+        final boolean ok;
+
+        FileResult(long bytes, boolean ok) {
+            this.bytes = bytes;
+            this.ok = ok;
+        }
+    }
+}
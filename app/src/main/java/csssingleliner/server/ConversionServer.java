@@ -0,0 +1,387 @@
+package csssingleliner.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import csssingleliner.core.CssSingleLiner;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 다른 프로세스(빌드 도구, 에디터 플러그인 등)가 HTTP 로 변환을 요청하는 로컬 서버 모드.
+ *
+ *   POST /convert[?removeComments=true&collapseBlankLines=false&minify=true]  본문의 CSS 를 변환해 text/css 로 돌려줌
+ *   GET  /metrics                                                                  요청 수, 받은/보낸 바이트, 지연 시간 분위수, 캐시 통계
+ *
+ * 요청마다 가상 스레드 하나가 처리한다 (JDK 21 이상. 그 전 JDK 에서는 캐시 스레드 풀).
+ * {@link #CACHEABLE_LIMIT} 이하의 본문은 SHA-256 해시와 옵션을 키로 결과를 LRU 캐시에 보관하고,
+ * 더 큰 본문은 메모리에 모으지 않고 읽는 대로 변환해 chunked 로 내보낸다 (캐시하지 않음).
+ * 작은 본문을 모두 읽은 뒤 변환하는 것은 일부러다: 캐시 키(해시)는 본문을 다 읽어야 나오고, 응답 헤더에
+ * 길이와 구문 오류 수({@link #ERRORS_HEADER})를 넣으려면 변환이 끝나야 한다. 요청 하나가 잡는 메모리는 1MB 남짓이다.
+ * 기본으로 127.0.0.1 에만 바인드하므로 같은 컴퓨터에서만 접근할 수 있다.
+ */
+public final class ConversionServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final String DEFAULT_HOST = "127.0.0.1";
+    public static final int DEFAULT_CACHE_MB = 64;
+
+    // 이보다 큰 본문은 캐시하지 않고 스트림으로 변환
+    static final int CACHEABLE_LIMIT = 1024 * 1024;
+
+    // 응답 헤더: 캐시 적중 여부, 구문 오류 수 (스트림 변환에서는 헤더를 먼저 보내므로 없음)
+    static final String CACHE_HEADER = "X-Cache";
+    static final String ERRORS_HEADER = "X-Css-Errors";
+
+    private static final String CSS_TYPE = "text/css; charset=UTF-8";
+    private static final String TEXT_TYPE = "text/plain; charset=UTF-8";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ResponseCache cache;
+    private final ServerMetrics metrics = new ServerMetrics();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+
+    private ConversionServer(HttpServer server, ExecutorService executor, long cacheBytes) {
+        this.server = server;
+        this.executor = executor;
+        this.cache = new ResponseCache(cacheBytes);
+    }
+
+    /**
+     * 서버를 시작하고 바로 반환한다. 포트 0 이면 빈 포트를 고르며, 실제 포트는 {@link #getPort()}.
+     */
+    public static ConversionServer start(InetSocketAddress address, long cacheBytes) throws IOException {
+        HttpServer http = HttpServer.create(address, 0);
+        ExecutorService executor = newRequestExecutor();
+        ConversionServer server = new ConversionServer(http, executor, cacheBytes);
+        http.createContext("/convert", server::handleConvert);
+        http.createContext("/metrics", server::handleMetrics);
+        http.setExecutor(executor);
+        http.start();
+        return server;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // 처리 중인 요청은 최대 1초 기다린 뒤 종료
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        stopped.countDown();
+    }
+
+    /**
+     * 명령행 진입점 (--serve). Ctrl+C 로 종료할 때까지 반환하지 않는다.
+     */
+    public static int run(String[] args) {
+        return run(args, System.out, System.err);
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        String host = DEFAULT_HOST;
+        int port = DEFAULT_PORT;
+        int cacheMb = DEFAULT_CACHE_MB;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--serve":
+                        break;
+                    case "--host":
+                        host = args[++i];
+                        break;
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cache-mb":
+                        cacheMb = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        printUsage(err);
+                        return 2;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            printUsage(err);
+            return 2;
+        }
+
+        ConversionServer server;
+        try {
+            server = start(new InetSocketAddress(host, port), cacheMb * 1024L * 1024L);
+        } catch (IOException e) {
+            err.println("서버를 시작할 수 없습니다: " + e.getMessage());
+            return 1;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+        out.printf("http://%s:%d/convert 에서 대기 중 (캐시 %d MB, %s)%n", host, server.getPort(), cacheMb,
+                server.executor instanceof ThreadPoolExecutor ? "스레드 풀" : "가상 스레드");
+        try {
+            server.stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    private static void printUsage(PrintStream err) {
+        err.println("사용법: java -jar csssingleliner.jar --serve [옵션]");
+        err.println("  --host <주소>      바인드할 주소 (기본: " + DEFAULT_HOST + ")");
+        err.println("  --port <N>         포트 (기본: " + DEFAULT_PORT + ", 0 이면 빈 포트)");
+        err.println("  --cache-mb <N>     변환 결과 캐시 크기 (기본: " + DEFAULT_CACHE_MB + " MB, 0 이면 캐시 안 함)");
+    }
+
+    // JDK 21 이상이면 요청마다 가상 스레드. Java 8 대상으로 빌드하므로 리플렉션으로 찾음
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "css-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // --- /convert ---
+
+    private void handleConvert(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        CountingInputStream in = new CountingInputStream(exchange.getRequestBody());
+        CountingOutputStream body = new CountingOutputStream(exchange.getResponseBody());
+        boolean ok = false;
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                sendText(exchange, body, 405, "POST 로 CSS 를 보내 주세요.\n");
+                return;
+            }
+            CssSingleLiner.Options options;
+            Charset charset;
+            try {
+                options = parseOptions(exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException e) {
+                sendText(exchange, body, 400, e.getMessage() + "\n");
+                return;
+            }
+            try {
+                charset = requestCharset(exchange.getRequestHeaders().getFirst("Content-Type"));
+            } catch (IllegalArgumentException e) {
+                sendText(exchange, body, 415, "지원하지 않는 문자셋: " + e.getMessage() + "\n");
+                return;
+            }
+
+            byte[] head = readAtMost(in, CACHEABLE_LIMIT + 1);
+            if (head.length <= CACHEABLE_LIMIT) {
+                convertCached(exchange, body, head, charset, options);
+            } else {
+                convertStreamed(exchange, body, new SequenceInputStream(new ByteArrayInputStream(head), in),
+                        charset, options);
+            }
+            ok = true;
+        } finally {
+            exchange.close();
+            metrics.record(in.count, body.count, System.nanoTime() - start, ok);
+        }
+    }
+
+    private void convertCached(HttpExchange exchange, OutputStream body, byte[] css, Charset charset,
+                               CssSingleLiner.Options options) throws IOException {
+        ResponseCache.Key key = new ResponseCache.Key(sha256(css), charset.name(), options);
+        ResponseCache.Entry entry = cache.get(key);
+        boolean hit = entry != null;
+        if (!hit) {
+            List<String> errors = new ArrayList<>();
+            String result = new CssSingleLiner(options).convert(new String(css, charset), errors);
+            entry = new ResponseCache.Entry(result.getBytes(StandardCharsets.UTF_8), errors.size());
+            cache.put(key, entry);
+        }
+        exchange.getResponseHeaders().set("Content-Type", CSS_TYPE);
+        exchange.getResponseHeaders().set(CACHE_HEADER, hit ? "HIT" : "MISS");
+        exchange.getResponseHeaders().set(ERRORS_HEADER, Integer.toString(entry.errorCount));
+        if (entry.body.length == 0) {
+            exchange.sendResponseHeaders(200, -1); // 빈 CSS
+        } else {
+            exchange.sendResponseHeaders(200, entry.body.length);
+            body.write(entry.body);
+        }
+    }
+
+    // 본문 길이를 모르므로 chunked 응답
+    private static void convertStreamed(HttpExchange exchange, OutputStream body, InputStream css, Charset charset,
+                                        CssSingleLiner.Options options) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", CSS_TYPE);
+        exchange.getResponseHeaders().set(CACHE_HEADER, "BYPASS");
+        exchange.sendResponseHeaders(200, 0);
+        Reader reader = new InputStreamReader(css, charset);
+        Writer writer = new OutputStreamWriter(body, StandardCharsets.UTF_8);
+        new CssSingleLiner(options).convert(reader, writer);
+        writer.flush();
+    }
+
+    // removeComments, collapseBlankLines, minify 만 받음. 값은 true/false
+    static CssSingleLiner.Options parseOptions(String rawQuery) {
+        CssSingleLiner.Options options = CssSingleLiner.Options.DEFAULT;
+        if (rawQuery == null || rawQuery.isEmpty()) return options;
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            String name = decode(eq < 0 ? pair : pair.substring(0, eq));
+            String value = eq < 0 ? "true" : decode(pair.substring(eq + 1));
+            boolean flag;
+            if ("true".equalsIgnoreCase(value)) flag = true;
+            else if ("false".equalsIgnoreCase(value)) flag = false;
+            else throw new IllegalArgumentException("옵션 값은 true 또는 false 여야 합니다: " + name + "=" + value);
+
+            if ("removeComments".equals(name)) options = options.withRemoveComments(flag);
+            else if ("collapseBlankLines".equals(name)) options = options.withCollapseBlankLines(flag);
+            else if ("minify".equals(name)) options = options.withMinify(flag);
+            else throw new IllegalArgumentException("알 수 없는 옵션: " + name);
+        }
+        return options;
+    }
+
+    private static String decode(String s) {
+        try {
+            return URLDecoder.decode(s, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e); // UTF-8 은 항상 있음
+        }
+    }
+
+    // Content-Type 의 charset 매개변수. 없으면 UTF-8
+    static Charset requestCharset(String contentType) {
+        if (contentType == null) return StandardCharsets.UTF_8;
+        for (String param : contentType.split(";")) {
+            param = param.trim();
+            if (param.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                String name = param.substring("charset=".length()).trim();
+                if (name.length() >= 2 && name.startsWith("\"") && name.endsWith("\"")) {
+                    name = name.substring(1, name.length() - 1);
+                }
+                try {
+                    return Charset.forName(name);
+                } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                    throw new IllegalArgumentException(name);
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    // --- /metrics ---
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try {
+            sendText(exchange, exchange.getResponseBody(), 200, metrics.render(cache));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // --- 공통 ---
+
+    private static void sendText(HttpExchange exchange, OutputStream body, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", TEXT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        body.write(bytes);
+    }
+
+    // 최대 limit 바이트까지 읽음. 결과가 limit 보다 짧으면 스트림 끝까지 읽은 것
+    private static byte[] readAtMost(InputStream in, int limit) throws IOException {
+        byte[] buffer = new byte[Math.min(limit, 8192)];
+        int length = 0;
+        while (length < limit) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(limit, buffer.length * 2L));
+            }
+            int n = in.read(buffer, length, buffer.length - length);
+            if (n < 0) break;
+            length += n;
+        }
+        return length == buffer.length ? buffer : Arrays.copyOf(buffer, length);
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // 모든 JRE 에 있음
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
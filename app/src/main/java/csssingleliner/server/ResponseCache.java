@@ -0,0 +1,105 @@
+package csssingleliner.server;
+
+import csssingleliner.core.CssSingleLiner;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * 변환 결과를 (요청 본문 해시, 문자셋, 옵션) 별로 보관하는 LRU 캐시.
+ * 결과 바이트 수 합계가 상한을 넘으면 가장 오래 쓰지 않은 결과부터 버린다. 스레드 안전하다.
+ */
+final class ResponseCache {
+
+    // 결과 하나에 붙는 대략의 부가 크기 (키, 엔트리, 맵 노드)
+    private static final int ENTRY_OVERHEAD = 160;
+
+    private final long maxBytes;
+    private long totalBytes;
+    private long hits;
+    private long misses;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // 접근 순서
+
+    ResponseCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized Entry get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null) hits++;
+        else misses++;
+        return entry;
+    }
+
+    // 상한보다 큰 결과는 보관하지 않음
+    synchronized void put(Key key, Entry entry) {
+        long bytes = entry.body.length + (long) ENTRY_OVERHEAD;
+        if (bytes > maxBytes) return;
+        Entry old = entries.put(key, entry);
+        if (old != null) totalBytes -= old.body.length + (long) ENTRY_OVERHEAD;
+        totalBytes += bytes;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().body.length + (long) ENTRY_OVERHEAD;
+            eldest.remove();
+        }
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long bytes() {
+        return totalBytes;
+    }
+
+    // 요청 본문의 SHA-256, 본문 문자셋, 변환 옵션
+    static final class Key {
+        final byte[] digest;
+        final String charset;
+        final CssSingleLiner.Options options;
+        private final int hash;
+
+        Key(byte[] digest, String charset, CssSingleLiner.Options options) {
+            this.digest = digest;
+            this.charset = charset;
+            this.options = options;
+            this.hash = Arrays.hashCode(digest) * 31 + charset.hashCode() * 8 + options.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return options.equals(other.options)
+                    && charset.equals(other.charset)
+                    && Arrays.equals(digest, other.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // 응답 본문(UTF-8)과 구문 오류 수
+    static final class Entry {
+        final byte[] body;
+        final int errorCount;
+
+        Entry(byte[] body, int errorCount) {
+            this.body = body;
+            this.errorCount = errorCount;
+        }
+    }
+}
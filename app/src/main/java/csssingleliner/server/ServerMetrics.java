@@ -0,0 +1,68 @@
+package csssingleliner.server;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 서버 통계: 요청 수, 받은/보낸 바이트, 지연 시간 분위수.
+ * 분위수는 최근 {@link #LATENCY_WINDOW} 개 요청의 지연 시간으로 계산한다 (/metrics 요청 때 정렬).
+ * 지연 시간은 Prometheus 관례대로 초 단위이고, 소수점은 기본 로캘과 상관없이 '.' 이다.
+ */
+final class ServerMetrics {
+
+    static final int LATENCY_WINDOW = 4096;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+
+    private final long[] latencies = new long[LATENCY_WINDOW]; // 나노초, 원형 버퍼
+    private long recorded;
+
+    void record(long bytesRead, long bytesWritten, long elapsedNanos, boolean ok) {
+        requests.incrementAndGet();
+        if (!ok) failures.incrementAndGet();
+        bytesIn.addAndGet(bytesRead);
+        bytesOut.addAndGet(bytesWritten);
+        synchronized (latencies) {
+            latencies[(int) (recorded++ % LATENCY_WINDOW)] = elapsedNanos;
+        }
+    }
+
+    // Prometheus 텍스트 형식
+    String render(ResponseCache cache) {
+        long[] window;
+        synchronized (latencies) {
+            window = Arrays.copyOf(latencies, (int) Math.min(recorded, LATENCY_WINDOW));
+        }
+        Arrays.sort(window);
+
+        StringBuilder out = new StringBuilder(512);
+        line(out, "csssingleliner_requests_total", requests.get());
+        line(out, "csssingleliner_requests_failed_total", failures.get());
+        line(out, "csssingleliner_bytes_in_total", bytesIn.get());
+        line(out, "csssingleliner_bytes_out_total", bytesOut.get());
+        line(out, "csssingleliner_cache_hits_total", cache.hits());
+        line(out, "csssingleliner_cache_misses_total", cache.misses());
+        line(out, "csssingleliner_cache_entries", cache.size());
+        line(out, "csssingleliner_cache_bytes", cache.bytes());
+        for (double q : new double[] {0.5, 0.9, 0.99, 1.0}) {
+            out.append("csssingleliner_latency_seconds{quantile=\"").append(q).append("\"} ");
+            out.append(String.format(Locale.ROOT, "%.6f", percentile(window, q) / 1e9)).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void line(StringBuilder out, String name, long value) {
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    // 정렬된 값에서 q 분위수 (nearest-rank). 값이 없으면 0
+    private static long percentile(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(q * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+}
@@ -0,0 +1,163 @@
+package csssingleliner.server;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 127.0.0.1 의 빈 포트에 서버를 띄우고 HTTP 로 변환, 캐시 적중, 잘못된 옵션, /metrics 를 확인한다.
+ */
+public class ConversionServerTest {
+
+    private static final String CSS = "a {\n  color: red;\n}\n/* 주석 */\nb { margin: 0 }\n";
+
+    private ConversionServer server;
+
+    @Before
+    public void start() throws IOException {
+        server = ConversionServer.start(new InetSocketAddress("127.0.0.1", 0), 1024 * 1024);
+    }
+
+    @After
+    public void stop() {
+        server.stop();
+    }
+
+    @Test
+    public void convertsAndServesRepeatFromCache() throws IOException {
+        Response first = post("/convert", CSS);
+        assertEquals(200, first.status);
+        assertEquals("a { color:red; }\n/* 주석 */\nb { margin:0 }\n", first.body);
+        assertEquals("MISS", first.connection.getHeaderField(ConversionServer.CACHE_HEADER));
+        assertEquals("0", first.connection.getHeaderField(ConversionServer.ERRORS_HEADER));
+
+        Response second = post("/convert", CSS);
+        assertEquals(200, second.status);
+        assertEquals(first.body, second.body);
+        assertEquals("HIT", second.connection.getHeaderField(ConversionServer.CACHE_HEADER));
+
+        Response minified = post("/convert?minify=true", CSS);
+        assertEquals("a{color:red}b{margin:0}", minified.body);
+        assertEquals("MISS", minified.connection.getHeaderField(ConversionServer.CACHE_HEADER)); // 옵션도 키
+    }
+
+    @Test
+    public void rejectsUnknownOptionAndValue() throws IOException {
+        Response unknown = post("/convert?compress=true", CSS);
+        assertEquals(400, unknown.status);
+        assertTrue(unknown.body, unknown.body.contains("compress"));
+        assertNull(unknown.connection.getHeaderField(ConversionServer.CACHE_HEADER));
+
+        assertEquals(400, post("/convert?minify=yes", CSS).status);
+    }
+
+    @Test
+    public void streamsBodiesOverCacheableLimit() throws IOException {
+        StringBuilder css = new StringBuilder();
+        while (css.length() <= ConversionServer.CACHEABLE_LIMIT) css.append(".rule {\n  color: red;\n}\n");
+        Response response = post("/convert", css.toString());
+        assertEquals(200, response.status);
+        assertEquals("BYPASS", response.connection.getHeaderField(ConversionServer.CACHE_HEADER));
+        assertTrue(response.body.startsWith(".rule { color:red; }\n.rule { color:red; }\n"));
+        assertEquals(css.length() / ".rule {\n  color: red;\n}\n".length() * ".rule { color:red; }\n".length(),
+                response.body.length());
+    }
+
+    @Test
+    public void metricsCountRequestsAndCache() throws IOException {
+        post("/convert", CSS);
+        post("/convert", CSS);
+        post("/convert?removeComments=maybe", CSS);
+
+        Response metrics = get("/metrics");
+        assertEquals(200, metrics.status);
+        assertTrue(metrics.body, metrics.body.contains("csssingleliner_requests_total 3\n"));
+        assertTrue(metrics.body, metrics.body.contains("csssingleliner_requests_failed_total 1\n"));
+        assertTrue(metrics.body, metrics.body.contains("csssingleliner_cache_hits_total 1\n"));
+        assertTrue(metrics.body, metrics.body.contains("csssingleliner_cache_misses_total 1\n"));
+        assertTrue(metrics.body, metrics.body.contains("csssingleliner_cache_entries 1\n"));
+        assertTrue(metrics.body, metrics.body.contains("csssingleliner_latency_seconds{quantile=\"0.5\"} "));
+    }
+
+    @Test
+    public void metricsUseDotDecimalUnderAnyLocale() throws IOException {
+        post("/convert", CSS);
+        Locale original = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY); // 로캘을 따르면 0,000163 처럼 나옴
+        try {
+            String body = get("/metrics").body;
+            for (String line : body.split("\n")) {
+                if (!line.startsWith("csssingleliner_latency_seconds")) continue;
+                String value = line.substring(line.lastIndexOf(' ') + 1);
+                assertTrue(line, value.matches("\\d+\\.\\d{6}"));
+            }
+            assertTrue(body, body.contains("csssingleliner_latency_seconds{quantile=\"1.0\"} "));
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+
+    @Test
+    public void convertAcceptsOnlyPost() throws IOException {
+        Response response = get("/convert");
+        assertEquals(405, response.status);
+        assertEquals("POST", response.connection.getHeaderField("Allow"));
+    }
+
+    // --- HTTP ---
+
+    private static final class Response {
+        final HttpURLConnection connection;
+        final int status;
+        final String body;
+
+        Response(HttpURLConnection connection) throws IOException {
+            this.connection = connection;
+            this.status = connection.getResponseCode();
+            InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            this.body = in == null ? "" : read(in);
+        }
+    }
+
+    private Response post(String path, String css) throws IOException {
+        HttpURLConnection connection = open(path);
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "text/css; charset=UTF-8");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(css.getBytes(StandardCharsets.UTF_8));
+        }
+        return new Response(connection);
+    }
+
+    private Response get(String path) throws IOException {
+        return new Response(open(path));
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        return (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int n; (n = stream.read(buffer)) > 0; ) bytes.write(buffer, 0, n);
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
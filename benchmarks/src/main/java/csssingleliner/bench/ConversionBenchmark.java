@@ -0,0 +1,38 @@
+package csssingleliner.bench;
+
+import csssingleliner.core.CssStreamConverter;
+import csssingleliner.core.CssTokenizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 한 줄 변환 단계 (기존 processCssContent 자리).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class ConversionBenchmark {
+
+    @Benchmark
+    public String convertString(CorpusState.AllSizes corpus) {
+        return CssTokenizer.convert(corpus.css);
+    }
+
+    @Benchmark
+    public long convertStream(CorpusState.AllSizes corpus) throws IOException {
+        NullWriter out = new NullWriter();
+        CssStreamConverter.convert(new StringReader(corpus.css), out, false);
+        return out.written;
+    }
+}
@@ -0,0 +1,55 @@
+package csssingleliner.bench;
+
+import csssingleliner.core.CssTokenizer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 벤치마크 입력 상태. 원본 CSS 와 한 줄 변환된 결과(후처리 단계 입력)를 미리 만들어 둔다.
+ */
+public final class CorpusState {
+
+    private CorpusState() {
+    }
+
+    // 변환/후처리처럼 큰 입력도 감당하는 단계용
+    @State(Scope.Benchmark)
+    public static class AllSizes {
+        @Param({CssCorpus.FLAT, CssCorpus.NESTED_MEDIA, CssCorpus.COMMENT_HEAVY})
+        public String shape;
+
+        @Param({CssCorpus.SMALL, CssCorpus.MB_1, CssCorpus.MB_50})
+        public String size;
+
+        public String css;
+        public String singleLined;
+
+        @Setup(Level.Trial)
+        public void load() {
+            css = CssCorpus.get(shape, size);
+            singleLined = CssTokenizer.convert(css);
+        }
+    }
+
+    // 구문 강조가 포함된 단계용: 50MB 는 한 번 실행에 수 분이 걸려 기본값에서 제외 (-p size=50MB 로 지정 가능)
+    @State(Scope.Benchmark)
+    public static class UiSizes {
+        @Param({CssCorpus.FLAT, CssCorpus.NESTED_MEDIA, CssCorpus.COMMENT_HEAVY})
+        public String shape;
+
+        @Param({CssCorpus.SMALL, CssCorpus.MB_1})
+        public String size;
+
+        public String css;
+        public String singleLined;
+
+        @Setup(Level.Trial)
+        public void load() {
+            css = CssCorpus.get(shape, size);
+            singleLined = CssTokenizer.convert(css);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package csssingleliner.bench;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 벤치마크용 CSS 입력 생성기. 같은 (모양, 크기) 조합은 항상 같은 내용을 만든다.
+ *
+ * 모양
+ * - flat: 여러 줄짜리 일반 규칙만
+ * - nested-media: 4단계로 중첩된 @media 블록 안의 규칙
+ * - comment-heavy: 선언마다 주석, 규칙 사이마다 여러 줄 주석
+ */
+public final class CssCorpus {
+
+    public static final String SMALL = "small"; // 약 16 KB
+    public static final String MB_1 = "1MB";
+    public static final String MB_50 = "50MB";
+
+    public static final String FLAT = "flat";
+    public static final String NESTED_MEDIA = "nested-media";
+    public static final String COMMENT_HEAVY = "comment-heavy";
+
+    private static final String[] PROPERTIES = {
+        "color", "margin", "padding", "background", "font-family", "border", "width", "display", "content"
+    };
+    private static final String[] VALUES = {
+        "#336699", "0 auto", "4px 8px", "url(\"img/bg.png\") no-repeat", "\"Helvetica Neue\", Arial, sans-serif",
+        "1px solid rgba(0, 0, 0, 0.2)", "calc(100% - 24px)", "inline-block", "\"\\201C\""
+    };
+    private static final String[] SELECTORS = {
+        ".btn", "div > p", ".nav a:hover", "h1, h2", "#main .card::before", "ul li a[href^='http']", ".grid-item"
+    };
+
+    // 포크된 JVM 안에서 같은 입력을 여러 벤치마크가 재사용
+    private static final Map<String, String> CACHE = new HashMap<>();
+
+    private CssCorpus() {
+    }
+
+    public static synchronized String get(String shape, String size) {
+        String key = shape + "/" + size;
+        String css = CACHE.get(key);
+        if (css == null) {
+            css = generate(shape, bytes(size), 42);
+            CACHE.put(key, css);
+        }
+        return css;
+    }
+
+    static int bytes(String size) {
+        switch (size) {
+            case SMALL: return 16 * 1024;
+            case MB_1: return 1_000_000;
+            case MB_50: return 50_000_000;
+            default: throw new IllegalArgumentException("알 수 없는 크기: " + size);
+        }
+    }
+
+    public static String generate(String shape, int targetBytes, long seed) {
+        Random random = new Random(seed);
+        StringBuilder css = new StringBuilder(targetBytes + 4096);
+        int n = 0;
+        while (css.length() < targetBytes) {
+            switch (shape) {
+                case FLAT:
+                    appendRule(css, random, "", n++, false);
+                    break;
+                case NESTED_MEDIA:
+                    appendNestedMedia(css, random, 0, n++);
+                    break;
+                case COMMENT_HEAVY:
+                    css.append("/*\n * 구역 ").append(n).append(" 설명\n * { 중괄호가 든 주석 }\n */\n");
+                    appendRule(css, random, "", n++, true);
+                    break;
+                default:
+                    throw new IllegalArgumentException("알 수 없는 모양: " + shape);
+            }
+            css.append('\n');
+        }
+        return css.toString();
+    }
+
+    private static void appendNestedMedia(StringBuilder css, Random random, int depth, int n) {
+        String indent = indent(depth);
+        if (depth == 4) {
+            for (int i = 0; i < 5; i++) appendRule(css, random, indent, n * 5 + i, false);
+            return;
+        }
+        css.append(indent).append("@media (min-width: ").append(320 * (depth + 1)).append("px) {\n");
+        appendRule(css, random, indent(depth + 1), n, false);
+        appendNestedMedia(css, random, depth + 1, n);
+        css.append(indent).append("}\n");
+    }
+
+    private static void appendRule(StringBuilder css, Random random, String indent, int n, boolean comments) {
+        css.append(indent).append(SELECTORS[random.nextInt(SELECTORS.length)]).append("-").append(n).append(" {\n");
+        int declarations = 2 + random.nextInt(5);
+        for (int i = 0; i < declarations; i++) {
+            css.append(indent).append("    ")
+               .append(PROPERTIES[random.nextInt(PROPERTIES.length)]).append(": ")
+               .append(VALUES[random.nextInt(VALUES.length)]).append(';');
+            if (comments) css.append(" /* 선언 ").append(i).append(" */");
+            css.append('\n');
+        }
+        css.append(indent).append("}\n");
+    }
+
+    private static String indent(int depth) {
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i < depth; i++) indent.append("    ");
+        return indent.toString();
+    }
+}
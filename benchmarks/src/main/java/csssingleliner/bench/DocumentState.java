@@ -0,0 +1,24 @@
+package csssingleliner.bench;
+
+import csssingleliner.CssHighlighter;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import javax.swing.text.DefaultStyledDocument;
+
+/**
+ * 구문 강조 대상 문서. 화면에 붙지 않은 문서라 헤드리스 JVM 에서도 동작한다.
+ */
+@State(Scope.Thread)
+public class DocumentState {
+
+    public DefaultStyledDocument doc;
+    public CssHighlighter highlighter;
+
+    @Setup
+    public void create() {
+        doc = new DefaultStyledDocument();
+        highlighter = new CssHighlighter(doc);
+    }
+}
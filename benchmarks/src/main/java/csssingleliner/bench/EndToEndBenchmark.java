@@ -0,0 +1,43 @@
+package csssingleliner.bench;
+
+import csssingleliner.core.CssPostProcessor;
+import csssingleliner.core.CssStreamConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 전체 경로.
+ * - window: 파일을 드롭했을 때와 같은 순서 (변환 -> 후처리 -> 구문 강조)
+ * - batch: 배치 모드와 같은 스트리밍 변환 + 후처리 (주석 제거 포함)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class EndToEndBenchmark {
+
+    @Benchmark
+    public int window(CorpusState.UiSizes corpus, DocumentState document) throws IOException {
+        StringBuilder singleLined = new StringBuilder();
+        CssStreamConverter.convert(new StringReader(corpus.css), singleLined);
+        String css = CssPostProcessor.apply(singleLined.toString(), false);
+        return document.highlighter.buildDocument(css).getLength();
+    }
+
+    @Benchmark
+    public long batch(CorpusState.AllSizes corpus) throws IOException {
+        NullWriter out = new NullWriter();
+        CssStreamConverter.convert(new StringReader(corpus.css), out, true);
+        return out.written;
+    }
+}
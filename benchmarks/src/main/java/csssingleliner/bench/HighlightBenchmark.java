@@ -0,0 +1,36 @@
+package csssingleliner.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.text.BadLocationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 구문 강조 단계 (기존 applyStyles 자리). 한 줄 변환된 결과를 문서에 스타일과 함께 채운다.
+ * - highlight: 토큰마다 insertString (기존 방식)
+ * - buildDocument: 분리된 문서에 ElementSpec 으로 일괄 생성 (화면에서 사용하는 방식)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class HighlightBenchmark {
+
+    @Benchmark
+    public int highlight(CorpusState.UiSizes corpus, DocumentState document) throws BadLocationException {
+        document.highlighter.highlight(document.doc, corpus.singleLined);
+        return document.doc.getLength();
+    }
+
+    @Benchmark
+    public int buildDocument(CorpusState.UiSizes corpus, DocumentState document) {
+        return document.highlighter.buildDocument(corpus.singleLined).getLength();
+    }
+}
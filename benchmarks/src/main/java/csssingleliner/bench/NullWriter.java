@@ -0,0 +1,22 @@
+package csssingleliner.bench;
+
+import java.io.Writer;
+
+// 출력 비용을 빼고 변환 비용만 재기 위한 Writer
+final class NullWriter extends Writer {
+
+    long written;
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        written += len;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
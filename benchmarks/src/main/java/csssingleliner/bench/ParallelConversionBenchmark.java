@@ -0,0 +1,70 @@
+package csssingleliner.bench;
+
+import csssingleliner.core.CssTokenizer;
+import csssingleliner.core.ParallelConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 큰 파일 하나의 병렬 변환 (블록 경계 분할 + ForkJoin) 과 순차 변환 비교.
+ * parallelism 은 풀의 스레드 수이므로, 실제 코어 수보다 크면 속도는 코어 수에서 멈춘다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Djava.awt.headless=true"})
+public class ParallelConversionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Input {
+        @Param({CssCorpus.FLAT, CssCorpus.NESTED_MEDIA, CssCorpus.COMMENT_HEAVY})
+        public String shape;
+
+        @Param({CssCorpus.MB_50})
+        public String size;
+
+        @Param({"1", "4", "16"})
+        public int parallelism;
+
+        public String css;
+        public ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void load() {
+            css = CssCorpus.get(shape, size);
+            pool = new ForkJoinPool(parallelism);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public String sequential(Input input) {
+        return CssTokenizer.convert(input.css);
+    }
+
+    @Benchmark
+    public int parallel(Input input) {
+        StringBuilder out = new StringBuilder(input.css.length());
+        ParallelConverter.convert(input.css, out, input.pool);
+        return out.length();
+    }
+}
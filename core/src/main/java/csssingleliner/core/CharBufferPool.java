@@ -0,0 +1,44 @@
+package csssingleliner.core;
+
+/**
+ * 변환에 쓰는 char[] 버퍼를 파일(조각)마다 새로 만들지 않고 돌려 쓰는 풀.
+ *
+ * 토크나이저 출력 버퍼, 후처리 버퍼, 스트림 읽기 버퍼가 여기서 빌리고 다 쓰면 돌려준다.
+ * 배치 변환처럼 변환기를 계속 새로 만드는 경우에도 버퍼가 한 번 커진 뒤로는 새로 할당하지 않는다.
+ * 큰 블록 때문에 커진 배열까지 붙잡고 있지 않도록, {@link #MAX_POOLED_LENGTH} 보다 큰 배열과
+ * {@link #MAX_POOLED_COUNT} 개를 넘는 배열은 버린다. 스레드 안전하다.
+ */
+final class CharBufferPool {
+
+    static final int MAX_POOLED_LENGTH = 256 * 1024;
+    static final int MAX_POOLED_COUNT = 16;
+
+    private static final char[][] free = new char[MAX_POOLED_COUNT][];
+    private static int freeCount;
+
+    private CharBufferPool() {
+    }
+
+    // 길이가 minLength 이상인 배열 (내용은 정해져 있지 않음)
+    static char[] take(int minLength) {
+        synchronized (free) {
+            for (int i = freeCount - 1; i >= 0; i--) {
+                char[] buffer = free[i];
+                if (buffer.length >= minLength) {
+                    free[i] = free[--freeCount];
+                    free[freeCount] = null;
+                    return buffer;
+                }
+            }
+        }
+        return new char[minLength];
+    }
+
+    // 다 쓴 배열 반환 (반환한 뒤에는 쓰지 않아야 함)
+    static void give(char[] buffer) {
+        if (buffer == null || buffer.length > MAX_POOLED_LENGTH) return;
+        synchronized (free) {
+            if (freeCount < MAX_POOLED_COUNT) free[freeCount++] = buffer;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * 파일 내용 해시 (xxHash64). 8바이트씩 읽어 섞으므로 메모리 매핑한 파일도 디코딩보다 훨씬 빠르게 훑는다.
+ * 보안용이 아니라 캐시 키용이다 (길이와 함께 비교).
+ */
+final class ContentHash {
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    private ContentHash() {
+    }
+
+    // 채널에서 나눠 읽는 크기 (32바이트 묶음의 배수)
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    // data 의 position 부터 limit 까지. data 의 위치는 바꾸지 않음
+    static long xxh64(ByteBuffer data, long seed) {
+        ByteBuffer b = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int p = b.position();
+        int end = b.limit();
+        long h;
+        if (end - p >= 32) {
+            Stripes stripes = new Stripes(seed);
+            p = stripes.update(b, p, end);
+            h = stripes.converge();
+        } else {
+            h = seed + P5;
+        }
+        h += end - b.position();
+        return finish(h, b, p, end);
+    }
+
+    // 채널의 처음부터 끝까지를 매핑하지 않고 나눠 읽어 해시. 같은 내용이면 xxh64(ByteBuffer, seed) 와 같은 값
+    static long xxh64(FileChannel channel, long seed) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(READ_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        long total = read(channel, b, 0);
+        if (total < READ_BUFFER_SIZE) return xxh64(b, seed); // 한 번에 다 읽힘
+        Stripes stripes = new Stripes(seed);
+        while (b.limit() == READ_BUFFER_SIZE) {
+            stripes.update(b, 0, READ_BUFFER_SIZE); // 버퍼가 묶음의 배수라 남는 바이트 없음
+            total += read(channel, b, total);
+        }
+        int p = stripes.update(b, 0, b.limit());
+        return finish(stripes.converge() + total, b, p, b.limit());
+    }
+
+    // position 부터 b 가 차거나 파일이 끝날 때까지 읽고 읽기 상태로 바꿈. 읽은 바이트 수
+    private static int read(FileChannel channel, ByteBuffer b, long position) throws IOException {
+        b.clear();
+        while (b.hasRemaining()) {
+            if (channel.read(b, position + b.position()) < 0) break;
+        }
+        b.flip();
+        return b.limit();
+    }
+
+    // 32바이트보다 짧게 남은 p..end 를 섞고 마무리
+    private static long finish(long h, ByteBuffer b, int p, int end) {
+        for (; p + 8 <= end; p += 8) {
+            h ^= round(0, b.getLong(p));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (p + 4 <= end) {
+            h ^= (b.getInt(p) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            p += 4;
+        }
+        for (; p < end; p++) {
+            h ^= (b.get(p) & 0xFF) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    // 32바이트 묶음을 네 갈래로 섞는 상태 (입력이 32바이트 이상일 때)
+    private static final class Stripes {
+        long v1;
+        long v2;
+        long v3;
+        long v4;
+
+        Stripes(long seed) {
+            v1 = seed + P1 + P2;
+            v2 = seed + P2;
+            v3 = seed;
+            v4 = seed - P1;
+        }
+
+        // p 부터 end 안에 들어가는 묶음을 모두 섞고 다음 위치를 반환
+        int update(ByteBuffer b, int p, int end) {
+            for (; p + 32 <= end; p += 32) {
+                v1 = round(v1, b.getLong(p));
+                v2 = round(v2, b.getLong(p + 8));
+                v3 = round(v3, b.getLong(p + 16));
+                v4 = round(v4, b.getLong(p + 24));
+            }
+            return p;
+        }
+
+        long converge() {
+            long h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            return merge(h, v4);
+        }
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long merge(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * P1 + P4;
+    }
+}
@@ -0,0 +1,285 @@
+package csssingleliner.core;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * 처리 단계별 소요 시간과 카운터 (읽기, 변환, 주석 제거, 연속 개행 축소, 구문 강조 등).
+ *
+ * 단계마다 횟수, 시간, 처리한 양(읽기는 바이트, 나머지는 글자 수), 할당한 바이트를 모은다.
+ * 할당량은 ThreadMXBean 의 스레드별 할당량 차이라서 측정한 스레드의 것만 들어간다 (병렬 변환의 다른 작업 스레드는 빠짐).
+ * 변환 카운터는 토크나이저가 센 규칙/@규칙 블록 수와 넣은 구분 토큰 수 ({@link #count}).
+ *
+ * 스레드 안전하다. parent 가 있으면 기록할 때 parent 에도 더한다 (파일별 통계 -> 전체 통계).
+ * {@link #global()} 은 프로그램 전체 누적 통계로, {@link #registerGlobal()} 을 부르면 JMX 에 {@value #OBJECT_NAME} 로 등록된다
+ * (오래 도는 창, 서버, 감시 모드. 플랫폼 MBean 서버를 만드는 데 수백 ms 가 들어 한 번 변환하고 끝나는 실행에서는 하지 않음).
+ * 단계마다 JFR 이벤트(csssingleliner.Stage)도 남긴다 (JFR 이 있는 JVM 에서 기록 중일 때만. 기록이 없으면 JFR 클래스를 읽지 않음).
+ */
+public final class ConversionStats implements ConversionStatsMXBean {
+
+    public static final String OBJECT_NAME = "csssingleliner:type=ConversionStats";
+
+    public enum Stage {
+        READ("읽기"),
+        CONVERT("변환"),
+        POST_PROCESS("후처리"),  // 주석 제거와 개행 축소를 한 패스로
+        WRITE("쓰기"),
+        HIGHLIGHT("구문 강조"),
+        SOURCE_MAP("소스 맵"),    // 맵 파일 만들기와 쓰기 (매핑은 변환, 후처리 중에 모음)
+        INDEX("색인");            // 선택자, 속성, @규칙 색인 (CssIndex)
+
+        private final String label;
+
+        Stage(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        // JSON, JMX 키 (read, strip_comments, ...)
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+    private static final boolean JFR = isClassPresent("jdk.jfr.Event");
+
+    private final ConversionStats parent;
+    private final LongAdder[] counts = adders();
+    private final LongAdder[] nanos = adders();
+    private final LongAdder[] units = adders();
+    private final LongAdder[] allocated = adders();
+    private final LongAdder rules = new LongAdder();
+    private final LongAdder atRules = new LongAdder();
+    private final LongAdder insertedTokens = new LongAdder();
+
+    public ConversionStats() {
+        this(null);
+    }
+
+    public ConversionStats(ConversionStats parent) {
+        this.parent = parent;
+    }
+
+    // 프로그램 전체 누적 통계
+    public static ConversionStats global() {
+        return Global.INSTANCE;
+    }
+
+    // 전체 통계를 JMX 에 등록 (여러 번 불러도 한 번만)
+    public static void registerGlobal() {
+        synchronized (Global.class) {
+            if (Global.registered) return;
+            Global.registered = true;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(Global.INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (JMException | SecurityException e) {
+            // JMX 를 쓸 수 없어도 통계는 그대로 모음
+        }
+    }
+
+    private static final class Global {
+        static final ConversionStats INSTANCE = new ConversionStats();
+        static boolean registered;
+    }
+
+    /**
+     * 측정 시작 시점. {@link #record} 에 넘긴다.
+     */
+    public static Sample start() {
+        return new Sample(System.nanoTime(), allocatedBytes(), recording() ? StageEvent.start() : null);
+    }
+
+    public static final class Sample {
+        final long nanos;
+        final long allocatedBytes;
+        final Object event; // StageEvent (JFR 이 없거나 기록 중이 아니면 null)
+
+        Sample(long nanos, long allocatedBytes, Object event) {
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+            this.event = event;
+        }
+    }
+
+    // sample 부터 지금까지를 stage 한 번으로 기록
+    public void record(Stage stage, Sample sample, long amount) {
+        long elapsed = System.nanoTime() - sample.nanos;
+        long bytes = allocatedBytes() - sample.allocatedBytes;
+        add(stage, 1, elapsed, bytes, amount);
+        if (sample.event != null || recording()) StageEvent.finish((StageEvent) sample.event, stage.key(), elapsed, bytes, amount);
+    }
+
+    // 따로 잰 합계를 기록 (다른 단계 안에서 잰 하위 단계 등)
+    public void record(Stage stage, long elapsedNanos, long allocatedBytes, long amount) {
+        add(stage, 1, elapsedNanos, allocatedBytes, amount);
+        if (recording()) StageEvent.finish(null, stage.key(), elapsedNanos, allocatedBytes, amount);
+    }
+
+    // 이미 기록한 from 단계의 시간 중 일부가 실제로는 to 단계였을 때 (출력 Writer 안에서 쓴 시간 등) 옮김
+    void move(Stage from, Stage to, long elapsedNanos, long allocatedBytes, long amount) {
+        add(from, 0, -elapsedNanos, -allocatedBytes, 0);
+        add(to, 1, elapsedNanos, allocatedBytes, amount);
+    }
+
+    private void add(Stage stage, long count, long elapsedNanos, long allocatedBytes, long amount) {
+        for (ConversionStats s = this; s != null; s = s.parent) {
+            int i = stage.ordinal();
+            s.counts[i].add(count);
+            s.nanos[i].add(elapsedNanos);
+            s.allocated[i].add(allocatedBytes);
+            s.units[i].add(amount);
+        }
+    }
+
+    // 다 쓴 토크나이저의 카운터를 더함
+    public void count(CssTokenizer tokenizer) {
+        for (ConversionStats s = this; s != null; s = s.parent) {
+            s.rules.add(tokenizer.getRuleCount());
+            s.atRules.add(tokenizer.getAtRuleCount());
+            s.insertedTokens.add(tokenizer.getInsertedTokenCount());
+        }
+    }
+
+    public long getCount(Stage stage) {
+        return counts[stage.ordinal()].sum();
+    }
+
+    public long getNanos(Stage stage) {
+        return nanos[stage.ordinal()].sum();
+    }
+
+    public long getUnits(Stage stage) {
+        return units[stage.ordinal()].sum();
+    }
+
+    public long getAllocatedBytes(Stage stage) {
+        return allocated[stage.ordinal()].sum();
+    }
+
+    @Override
+    public long getRuleCount() {
+        return rules.sum();
+    }
+
+    @Override
+    public long getAtRuleCount() {
+        return atRules.sum();
+    }
+
+    @Override
+    public long getInsertedTokenCount() {
+        return insertedTokens.sum();
+    }
+
+    @Override
+    public Map<String, Long> getStageCounts() {
+        return byStage(counts);
+    }
+
+    @Override
+    public Map<String, Long> getStageNanos() {
+        return byStage(nanos);
+    }
+
+    @Override
+    public Map<String, Long> getStageUnits() {
+        return byStage(units);
+    }
+
+    @Override
+    public Map<String, Long> getStageAllocatedBytes() {
+        return byStage(allocated);
+    }
+
+    // 이 통계만 비움 (parent 는 그대로)
+    @Override
+    public void reset() {
+        for (int i = 0; i < STAGES.length; i++) {
+            counts[i].reset();
+            nanos[i].reset();
+            units[i].reset();
+            allocated[i].reset();
+        }
+        rules.reset();
+        atRules.reset();
+        insertedTokens.reset();
+    }
+
+    /**
+     * JSON 객체 하나: 기록된 단계별 {count, ms, units, allocatedBytes} 와 카운터.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"stages\":{");
+        boolean first = true;
+        for (Stage stage : STAGES) {
+            if (getCount(stage) == 0) continue;
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(stage.key()).append("\":{\"count\":").append(getCount(stage))
+                    .append(",\"ms\":").append(String.format(Locale.ROOT, "%.3f", getNanos(stage) / 1e6))
+                    .append(",\"units\":").append(getUnits(stage))
+                    .append(",\"allocatedBytes\":").append(getAllocatedBytes(stage)).append('}');
+        }
+        json.append("},\"rules\":").append(getRuleCount())
+                .append(",\"atRules\":").append(getAtRuleCount())
+                .append(",\"insertedTokens\":").append(getInsertedTokenCount()).append('}');
+        return json.toString();
+    }
+
+    // JFR 이 시작됨 (-XX:StartFlightRecording 이나 jcmd JFR.start). 아니면 이벤트 클래스를 읽지 않음 (읽으면 JFR 초기화에 수백 ms)
+    private static boolean recording() {
+        return JFR && jdk.jfr.FlightRecorder.isInitialized();
+    }
+
+    // 현재 스레드가 지금까지 할당한 바이트. 지원하지 않는 JVM 이면 0
+    static long allocatedBytes() {
+        return THREADS != null ? THREADS.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (!isClassPresent("com.sun.management.ThreadMXBean")) return null;
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) return null;
+        if (!threads.isThreadAllocatedMemoryEnabled()) threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static boolean isClassPresent(String name) {
+        try {
+            Class.forName(name, false, ConversionStats.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private Map<String, Long> byStage(LongAdder[] values) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (Stage stage : STAGES) {
+            map.put(stage.key(), values[stage.ordinal()].sum());
+        }
+        return map;
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[STAGES.length];
+        for (int i = 0; i < adders.length; i++) adders[i] = new LongAdder();
+        return adders;
+    }
+}
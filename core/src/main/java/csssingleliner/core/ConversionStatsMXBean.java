@@ -0,0 +1,27 @@
+package csssingleliner.core;
+
+import java.util.Map;
+
+/**
+ * JMX 로 보이는 처리 통계 ({@link ConversionStats#global()}, 이름 {@value ConversionStats#OBJECT_NAME}).
+ * 단계별 값은 단계 이름(read, convert, ...)을 키로 하는 표.
+ */
+public interface ConversionStatsMXBean {
+
+    Map<String, Long> getStageCounts();
+
+    Map<String, Long> getStageNanos();
+
+    // 처리한 양: 읽기는 바이트, 소스 맵은 매핑 수, 나머지는 글자 수
+    Map<String, Long> getStageUnits();
+
+    Map<String, Long> getStageAllocatedBytes();
+
+    long getRuleCount();
+
+    long getAtRuleCount();
+
+    long getInsertedTokenCount();
+
+    void reset();
+}
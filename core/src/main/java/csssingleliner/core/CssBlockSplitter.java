@@ -0,0 +1,149 @@
+package csssingleliner.core;
+
+import java.util.Arrays;
+
+/**
+ * 입력을 서로 독립적으로 변환할 수 있는 구간(최상위 블록 단위)으로 나눈다.
+ *
+ * 구간 경계는 블록/주석/문자열 밖에 있는 줄의 시작이다. 이 위치에서 {@link CssTokenizer} 의 상태는
+ * 줄 번호를 빼면 처음 상태와 같으므로, 구간마다 따로 변환해 이어 붙인 결과는 전체를 한 번에
+ * 변환한 결과와 같다. 각 구간은 최상위 블록 하나와 그 앞의 블록 밖 줄들로 이루어진다
+ * (최소 길이를 주면 그 길이가 찰 때까지 여러 블록을 한 구간으로 묶는다).
+ * 중괄호 깊이, 주석, 문자열, 줄바꿈 판단은 {@link CssTokenizer} 와 같은 규칙을 따른다.
+ */
+final class CssBlockSplitter {
+
+    // 상태를 바꿀 수 있는 ASCII 글자 (줄바꿈, 따옴표, 주석, 이스케이프, 중괄호, url 괄호)
+    private static final boolean[] SPECIAL = new boolean[128];
+
+    static {
+        for (char c : "\r\n\u000B\f\"'*/\\{}()".toCharArray()) SPECIAL[c] = true;
+    }
+
+    private int count;
+    private int[] starts = new int[16]; // 구간 시작 위치 (마지막 원소 다음은 입력 끝)
+    private int[] lines = new int[16];  // 구간 시작 줄 번호 (1부터)
+
+    private CssBlockSplitter() {
+    }
+
+    static CssBlockSplitter split(CharSequence css) {
+        return split(css, 0);
+    }
+
+    // 구간마다 최소 minLength 글자 (마지막 구간 제외)
+    static CssBlockSplitter split(CharSequence css, int minLength) {
+        CssBlockSplitter segments = new CssBlockSplitter();
+        segments.scan(css, minLength);
+        return segments;
+    }
+
+    int count() {
+        return count;
+    }
+
+    int start(int segment) {
+        return starts[segment];
+    }
+
+    int line(int segment) {
+        return lines[segment];
+    }
+
+    private void scan(CharSequence css, int minLength) {
+        int length = css.length();
+        int depth = 0;
+        boolean comment = false;
+        boolean string = false;
+        boolean url = false; // 따옴표 없는 url( ... ) 안 (url( 바로 뒤의 공백도 포함)
+        char quote = 0;
+        boolean escape = false;
+        boolean slash = false;
+        boolean star = false;
+        boolean closed = false; // 현재 구간에서 최상위 블록이 닫혔음
+        int line = 1;
+        add(0, 1);
+        for (int i = 0; i < length; i++) {
+            char c = css.charAt(i);
+            if (c < 128 ? !SPECIAL[c] : c != '\u0085' && c != (char) 0x2028 && c != (char) 0x2029) {
+                // 상태를 바꾸지 않는 글자: 직전 글자 기억만 지움
+                slash = false;
+                star = false;
+                escape = false;
+                continue;
+            }
+            boolean lineBreak = false;
+            if (c == '\r') {
+                if (i + 1 < length && css.charAt(i + 1) == '\n') i++; // \r\n 은 줄바꿈 하나
+                lineBreak = true;
+            } else if (c == '\n' || c == '\u000B' || c == '\f' || c == '\u0085'
+                    || c == (char) 0x2028 || c == (char) 0x2029) {
+                lineBreak = true;
+            }
+            if (lineBreak) {
+                line++;
+                c = '\n';
+            }
+
+            if (comment) {
+                if (c == '/' && star) comment = false;
+                star = c == '*';
+            } else if (url) {
+                if (c == '\n' || (c == ')' && !escape)) {
+                    url = false;
+                    escape = false;
+                } else if (!escape && (c == '"' || c == '\'') && urlStart(css, i)) {
+                    url = false; // url("...") 은 문자열
+                    string = true;
+                    quote = c;
+                } else {
+                    escape = !escape && c == '\\';
+                }
+            } else if (string) {
+                if (escape) escape = false;
+                else if (c == '\\') escape = true;
+                else if (c == quote || c == '\n') string = false;
+            } else {
+                if (c == '"' || c == '\'') {
+                    string = true;
+                    quote = c;
+                } else if (c == '*' && slash) {
+                    comment = true;
+                    star = false;
+                } else if (c == '{') {
+                    depth++;
+                } else if (c == '}' && depth > 0) {
+                    if (--depth == 0) closed = true;
+                } else if (c == '(' && i >= 3 && CssPostProcessor.isUrlFunction(i >= 4 ? css.charAt(i - 4) : 0,
+                        css.charAt(i - 3), css.charAt(i - 2), css.charAt(i - 1))) {
+                    url = true;
+                }
+                slash = c == '/';
+            }
+
+            // 블록 밖 줄의 시작: 앞 구간에 닫힌 블록이 있으면 여기서 새 구간
+            if (lineBreak && closed && depth == 0 && !comment && !string && !url && i + 1 < length
+                    && i + 1 - starts[count - 1] >= minLength) {
+                add(i + 1, line);
+                closed = false;
+            }
+        }
+    }
+
+    // quote 위치 앞이 url( 과 공백뿐인가 (따옴표로 시작하는 url)
+    private static boolean urlStart(CharSequence css, int quote) {
+        int i = quote - 1;
+        while (css.charAt(i) == ' ' || css.charAt(i) == '\t') i--;
+        return css.charAt(i) == '(';
+    }
+
+    private void add(int start, int line) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            lines = Arrays.copyOf(lines, count * 2);
+        }
+        starts[count] = start;
+        lines[count] = line;
+        count++;
+    }
+}
@@ -0,0 +1,330 @@
+package csssingleliner.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * CSS 파일을 메모리 매핑(FileChannel.map)으로 읽어 문자셋에 맞게 조금씩 디코딩하며 변환하는 입력 경로.
+ *
+ * 파일 내용은 힙에 올리지 않고, 매핑된 영역에서 고정 크기 버퍼로 옮겨 디코딩한 뒤 바로
+ * {@link CssTokenizer} 로 넘긴다. 따라서 힙 사용량은 파일 크기와 무관하다 (버퍼 몇 개 + 토크나이저).
+ * 1MB 보다 작은 파일과 Windows 에서는 매핑하지 않고 같은 버퍼로 FileChannel.read 한다
+ * (Windows 는 매핑된 파일을 매핑이 GC 될 때까지 잠가 덮어쓰지 못하게 함).
+ *
+ * 문자셋은 CSS 규격(css-syntax "Determine the fallback encoding") 순서로 정한다.
+ * 1. BOM (UTF-8, UTF-16BE, UTF-16LE)
+ * 2. 파일 맨 앞의 {@code @charset "이름";} (UTF-16 계열 이름이면 UTF-8)
+ * 3. 그 외에는 UTF-8
+ * 잘못된 바이트는 대체 문자(U+FFFD)로 바꾼다.
+ */
+public final class CssFileInput {
+
+    // 한 번에 매핑하는 최대 크기 (MappedByteBuffer 는 2GB 미만만 가능)
+    private static final long MAP_WINDOW = 256L * 1024 * 1024;
+    private static final int BYTE_BUFFER_SIZE = 64 * 1024;
+    private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+    // 이보다 작은 파일은 매핑하지 않고 읽음 (매핑과 페이지 폴트 비용이 복사보다 큼)
+    private static final long MAP_THRESHOLD = 1024 * 1024;
+    // Windows 에서는 매핑이 GC 될 때까지 파일을 잠가, 감시 중인 파일을 편집기가 저장하지 못함
+    private static final boolean MAPPING_LOCKS_FILE = System.getProperty("os.name", "").startsWith("Windows");
+
+    // @charset 규칙의 최대 길이 (규격상 1024 바이트 안에서만 찾음)
+    private static final int CHARSET_RULE_LIMIT = 1024;
+    private static final byte[] CHARSET_PREFIX = "@charset \"".getBytes(StandardCharsets.US_ASCII);
+
+    private CssFileInput() {
+    }
+
+    // size 바이트인 입력 파일을 메모리 매핑해 읽을지 (아니면 고정 크기 버퍼로 나눠 읽음)
+    static boolean shouldMap(long size) {
+        return size >= MAP_THRESHOLD && !MAPPING_LOCKS_FILE;
+    }
+
+    /** 파일 앞부분으로 정한 문자셋과 건너뛸 BOM 길이. */
+    public static final class Encoding {
+        public final Charset charset;
+        public final int bomLength;
+
+        Encoding(Charset charset, int bomLength) {
+            this.charset = charset;
+            this.bomLength = bomLength;
+        }
+    }
+
+    // 파일 앞부분(head 의 position 부터)으로 문자셋 판단. head 의 위치는 바꾸지 않음
+    public static Encoding detectEncoding(ByteBuffer head) {
+        int p = head.position();
+        int n = head.remaining();
+        if (n >= 3 && (head.get(p) & 0xFF) == 0xEF && (head.get(p + 1) & 0xFF) == 0xBB && (head.get(p + 2) & 0xFF) == 0xBF) {
+            return new Encoding(StandardCharsets.UTF_8, 3);
+        }
+        if (n >= 2 && (head.get(p) & 0xFF) == 0xFE && (head.get(p + 1) & 0xFF) == 0xFF) {
+            return new Encoding(StandardCharsets.UTF_16BE, 2);
+        }
+        if (n >= 2 && (head.get(p) & 0xFF) == 0xFF && (head.get(p + 1) & 0xFF) == 0xFE) {
+            return new Encoding(StandardCharsets.UTF_16LE, 2);
+        }
+        return new Encoding(charsetRule(head), 0);
+    }
+
+    // 맨 앞의 @charset "이름"; 규칙. 없거나 모르는 이름이면 UTF-8
+    private static Charset charsetRule(ByteBuffer head) {
+        int p = head.position();
+        int limit = Math.min(head.limit(), p + CHARSET_RULE_LIMIT);
+        if (limit - p < CHARSET_PREFIX.length) return StandardCharsets.UTF_8;
+        for (int i = 0; i < CHARSET_PREFIX.length; i++) {
+            if (head.get(p + i) != CHARSET_PREFIX[i]) return StandardCharsets.UTF_8;
+        }
+        StringBuilder name = new StringBuilder();
+        for (int i = p + CHARSET_PREFIX.length; i + 1 < limit; i++) {
+            byte b = head.get(i);
+            if (b == '"') {
+                if (head.get(i + 1) != ';') return StandardCharsets.UTF_8;
+                return charsetForName(name.toString());
+            }
+            if (b < 0x20 || b > 0x7E) return StandardCharsets.UTF_8;
+            name.append((char) b);
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static Charset charsetForName(String name) {
+        String lower = name.toLowerCase();
+        // ASCII 로 쓰인 @charset 이 있다면 실제로 UTF-16 일 수 없음 (규격과 동일하게 UTF-8 로)
+        if (lower.equals("utf-16") || lower.equals("utf-16be") || lower.equals("utf-16le")) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            return Charset.forName(name);
+        } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    // 파일 문자셋 판단
+    public static Encoding detectEncoding(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(CHARSET_RULE_LIMIT);
+            while (head.hasRemaining() && channel.read(head) > 0) {
+                // 앞부분만 채움
+            }
+            head.flip();
+            return detectEncoding(head);
+        }
+    }
+
+    // 입력과 같은 문자셋으로 쓰는 출력 파일 (입력에 BOM 이 있었으면 BOM 도)
+    public static Writer newWriter(Path output, Encoding encoding) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(output), encoding.charset), 8192);
+        if (encoding.bomLength > 0) writer.write('\uFEFF');
+        return writer;
+    }
+
+    // 한 줄 변환만 (후처리 없음). 반환값은 구문 오류 목록
+    public static List<String> convert(Path file, Appendable out) throws IOException {
+        return convert(file, out, (OriginQueue) null);
+    }
+
+    // origins 가 null 이 아니면 출력 줄마다 원본 위치를 넣음 (소스 맵)
+    static List<String> convert(Path file, Appendable out, OriginQueue origins) throws IOException {
+        CssTokenizer tokenizer = new CssTokenizer(out);
+        if (origins != null) tokenizer.trackOrigins(origins);
+        decode(file, tokenizer::feed);
+        tokenizer.finish();
+        return tokenizer.getErrors();
+    }
+
+    /**
+     * 한 줄 변환하며 단계별 통계를 stats 에 기록한다: 읽기(매핑, 디코딩)와 변환(토크나이저, out 에 쓰는 시간 포함).
+     * 두 단계는 조각마다 번갈아 일어나므로 토크나이저에 넘긴 호출 안의 시간만 변환으로 센다.
+     * out 이 {@link StageWriter} 면 그 안에서 걸린 시간(후처리, 쓰기)은 변환에서 뺀다 (호출한 쪽에서 따로 기록).
+     */
+    public static List<String> convert(Path file, Appendable out, ConversionStats stats) throws IOException {
+        return convert(file, out, stats, null);
+    }
+
+    static List<String> convert(Path file, Appendable out, ConversionStats stats, OriginQueue origins) throws IOException {
+        ConversionStats.Sample total = ConversionStats.start();
+        CssTokenizer tokenizer = new CssTokenizer(out);
+        if (origins != null) tokenizer.trackOrigins(origins);
+        TimedFeed feed = new TimedFeed(tokenizer);
+        decode(file, feed);
+        feed.finish();
+        long elapsed = System.nanoTime() - total.nanos;
+        long allocated = ConversionStats.allocatedBytes() - total.allocatedBytes;
+        stats.record(ConversionStats.Stage.READ, elapsed - feed.nanos, allocated - feed.allocatedBytes, Files.size(file));
+        long convertNanos = feed.nanos;
+        long convertAllocated = feed.allocatedBytes;
+        if (out instanceof StageWriter) {
+            convertNanos -= ((StageWriter) out).nanos;
+            convertAllocated -= ((StageWriter) out).allocatedBytes;
+        }
+        stats.record(ConversionStats.Stage.CONVERT, convertNanos, convertAllocated, feed.chars);
+        stats.count(feed.tokenizer);
+        return feed.tokenizer.getErrors();
+    }
+
+    // 한 줄 변환 + 후처리 (주석 제거 선택, 연속 개행 축소)
+    public static List<String> convert(Path file, Writer out, boolean removeComments) throws IOException {
+        PostProcessingWriter post = new PostProcessingWriter(out, removeComments);
+        List<String> errors = convert(file, post);
+        post.finish();
+        return errors;
+    }
+
+    // 파일 전체를 디코딩한 문자열 (블록 캐시처럼 전체 텍스트가 필요한 경우)
+    public static String read(Path file) throws IOException {
+        StringBuilder text = new StringBuilder();
+        decode(file, (chars, off, len) -> text.append(chars, off, len));
+        return text.toString();
+    }
+
+    // 디코딩된 문자 조각을 받는 대상
+    private interface CharSink {
+        void accept(char[] chars, int off, int len) throws IOException;
+    }
+
+    // 토크나이저에 넘기는 호출 안에서 걸린 시간과 할당량
+    private static final class TimedFeed implements CharSink {
+        final CssTokenizer tokenizer;
+        long nanos;
+        long allocatedBytes;
+        long chars;
+
+        TimedFeed(CssTokenizer tokenizer) {
+            this.tokenizer = tokenizer;
+        }
+
+        @Override
+        public void accept(char[] buf, int off, int len) throws IOException {
+            long start = System.nanoTime();
+            long allocated = ConversionStats.allocatedBytes();
+            tokenizer.feed(buf, off, len);
+            add(start, allocated);
+            chars += len;
+        }
+
+        void finish() throws IOException {
+            long start = System.nanoTime();
+            long allocated = ConversionStats.allocatedBytes();
+            tokenizer.finish();
+            add(start, allocated);
+        }
+
+        private void add(long start, long allocated) {
+            nanos += System.nanoTime() - start;
+            allocatedBytes += ConversionStats.allocatedBytes() - allocated;
+        }
+    }
+
+    private static void decode(Path file, CharSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) return;
+            // 매핑 영역이나 채널에서 힙 배열로 옮겨 디코딩 (배열 기반 디코딩이 직접 버퍼보다 빠름)
+            ByteBuffer bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+            char[] charArray = CharBufferPool.take(CHAR_BUFFER_SIZE);
+            CharBuffer chars = CharBuffer.wrap(charArray);
+            try {
+                if (shouldMap(size)) decodeMapped(channel, size, bytes, chars, sink);
+                else decodeRead(channel, bytes, chars, sink);
+            } finally {
+                CharBufferPool.give(charArray);
+            }
+        }
+    }
+
+    private static void decodeMapped(FileChannel channel, long size, ByteBuffer bytes, CharBuffer chars, CharSink sink)
+            throws IOException {
+        MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAP_WINDOW));
+        Encoding encoding = detectEncoding(window);
+        window.position(encoding.bomLength);
+        long windowStart = 0;
+        CharsetDecoder decoder = newDecoder(encoding);
+        while (true) {
+            if (!window.hasRemaining() && windowStart + window.limit() < size) {
+                windowStart += window.limit();
+                window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(size - windowStart, MAP_WINDOW));
+            }
+            boolean last = windowStart + window.limit() >= size;
+            int n = Math.min(bytes.remaining(), window.remaining());
+            int windowLimit = window.limit();
+            window.limit(window.position() + n);
+            bytes.put(window);
+            window.limit(windowLimit);
+            bytes.flip();
+
+            boolean endOfInput = last && !window.hasRemaining();
+            decodeChunk(decoder, bytes, chars, endOfInput, sink);
+            if (endOfInput) break;
+        }
+        finishDecoding(decoder, chars, sink);
+    }
+
+    // 매핑하지 않고 채널에서 bytes 로 차례로 읽음 (작은 파일, Windows)
+    private static void decodeRead(FileChannel channel, ByteBuffer bytes, CharBuffer chars, CharSink sink)
+            throws IOException {
+        boolean endOfInput = false;
+        while (bytes.hasRemaining() && !endOfInput) { // 문자셋을 정할 앞부분
+            endOfInput = channel.read(bytes) < 0;
+        }
+        bytes.flip();
+        Encoding encoding = detectEncoding(bytes);
+        bytes.position(encoding.bomLength);
+        CharsetDecoder decoder = newDecoder(encoding);
+        while (true) {
+            decodeChunk(decoder, bytes, chars, endOfInput, sink);
+            if (endOfInput) break;
+            endOfInput = channel.read(bytes) < 0;
+            bytes.flip();
+        }
+        finishDecoding(decoder, chars, sink);
+    }
+
+    private static CharsetDecoder newDecoder(Encoding encoding) {
+        return encoding.charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    // 읽기 상태인 bytes 를 디코딩해 넘기고 다시 쓰기 상태로 (잘린 다중 바이트 문자는 다음 조각과 이어서 디코딩)
+    private static void decodeChunk(CharsetDecoder decoder, ByteBuffer bytes, CharBuffer chars, boolean endOfInput,
+                                    CharSink sink) throws IOException {
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, chars, endOfInput);
+            drain(chars, sink);
+        } while (result.isOverflow());
+        bytes.compact();
+    }
+
+    private static void finishDecoding(CharsetDecoder decoder, CharBuffer chars, CharSink sink) throws IOException {
+        while (decoder.flush(chars).isOverflow()) {
+            drain(chars, sink);
+        }
+        drain(chars, sink);
+    }
+
+    private static void drain(CharBuffer chars, CharSink sink) throws IOException {
+        chars.flip();
+        if (chars.hasRemaining()) sink.accept(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        chars.clear();
+    }
+}
@@ -0,0 +1,797 @@
+package csssingleliner.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 변환 결과의 선택자, 속성, @규칙 색인. 이름마다 결과 안의 위치(글자 offset)를 모두 담아, 이름의 앞부분이나
+ * 일부로 찾아 해당 규칙으로 바로 가거나 (GUI 검색 상자), 같은 문맥에서 되풀이된 선택자를 찾을 때 (중복 선택자 보고) 쓴다.
+ *
+ * 변환 출력을 흘려보내며 한 번 훑어 만든다 ({@link Builder}, {@link CssSingleLiner#convert(java.io.Reader, java.io.Writer, Builder)}).
+ * 출력 형식(한 줄에 규칙 하나)에 기대지 않고 괄호, 문자열, 주석만 따라가므로 압축 출력이나 구문 오류로 남은 원문에도 쓸 수 있다.
+ * 규칙이 수만 개여도 객체를 만들지 않도록 이름은 글자 배열 하나에 한 번씩만 담고, 위치는 이름 번호와 offset 의
+ * 기본형 배열로 둔다. 검색 결과만 {@link Entry} 객체로 만든다. 만든 뒤에는 바뀌지 않으므로 여러 스레드에서 읽어도 된다.
+ */
+public final class CssIndex {
+
+    public enum Kind {
+        SELECTOR,
+        PROPERTY,
+        AT_RULE
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    // 이름 (종류별로 같은 글자면 하나): nameChars[nameStart[n] ..+ nameLength[n]]
+    private final char[] nameChars;
+    private final int[] nameStart;
+    private final int[] nameLength;
+    private final byte[] nameKind;
+    private final int nameCount;
+    private final int[] table;       // 이름 번호 + 1 (0 은 빈 칸), 개방 주소법
+    private final int[] sortedNames; // 대소문자 무시한 이름 순서 (앞부분 검색)
+
+    // 위치 (출력 순서)
+    private final int[] occurrenceName;
+    private final long[] occurrenceOffset;
+    private final int[] occurrenceParent;  // 감싼 블록의 위치 번호 (@규칙 또는 중첩 규칙의 첫 선택자, 없으면 -1)
+    private final int[] occurrenceContext; // 감싼 블록들의 이름이 같으면 같은 번호 (최상위는 0)
+    private final int occurrenceCount;
+
+    // 이름별 위치 목록: postings[postingStart[n] .. postingStart[n + 1]) (출력 순서)
+    private final int[] postingStart;
+    private final int[] postings;
+
+    private CssIndex(Builder b) {
+        nameChars = Arrays.copyOf(b.nameChars, b.charCount);
+        nameStart = Arrays.copyOf(b.nameStart, b.nameCount);
+        nameLength = Arrays.copyOf(b.nameLength, b.nameCount);
+        nameKind = Arrays.copyOf(b.nameKind, b.nameCount);
+        nameCount = b.nameCount;
+        table = b.table;
+        occurrenceName = Arrays.copyOf(b.occurrenceName, b.occurrenceCount);
+        occurrenceOffset = Arrays.copyOf(b.occurrenceOffset, b.occurrenceCount);
+        occurrenceParent = Arrays.copyOf(b.occurrenceParent, b.occurrenceCount);
+        occurrenceCount = b.occurrenceCount;
+
+        // 계수 정렬로 이름별 위치 목록
+        postingStart = new int[nameCount + 1];
+        for (int i = 0; i < occurrenceCount; i++) postingStart[occurrenceName[i] + 1]++;
+        for (int n = 0; n < nameCount; n++) postingStart[n + 1] += postingStart[n];
+        postings = new int[occurrenceCount];
+        int[] fill = Arrays.copyOf(postingStart, nameCount);
+        for (int i = 0; i < occurrenceCount; i++) postings[fill[occurrenceName[i]]++] = i;
+
+        // 문맥 번호: (감싼 블록의 문맥, 감싼 블록의 이름) 이 같으면 같은 번호. 감싼 블록은 항상 앞에 있음
+        occurrenceContext = new int[occurrenceCount];
+        LongIntMap contexts = new LongIntMap();
+        for (int i = 0; i < occurrenceCount; i++) {
+            int parent = occurrenceParent[i];
+            if (parent < 0) continue;
+            long key = pack(occurrenceContext[parent], occurrenceName[parent]);
+            int context = contexts.get(key);
+            if (context < 0) {
+                context = contexts.size() + 1;
+                contexts.put(key, context);
+            }
+            occurrenceContext[i] = context;
+        }
+
+        sortedNames = new int[nameCount];
+        for (int n = 0; n < nameCount; n++) sortedNames[n] = n;
+        sortNames(sortedNames, new int[nameCount], 0, nameCount);
+    }
+
+    // 변환된 CSS 텍스트 (한 줄 변환, 후처리, 압축 결과 어느 것이든) 의 색인
+    public static CssIndex of(CharSequence css) {
+        return new Builder().append(css).build();
+    }
+
+    // 선택자, 속성, @규칙이 나온 횟수
+    public int size() {
+        return occurrenceCount;
+    }
+
+    // 서로 다른 이름 수
+    public int getNameCount() {
+        return nameCount;
+    }
+
+    /**
+     * 이름에 query 가 들어 있는 위치들 (대소문자 무시). 이름이 query 로 시작하는 것이 먼저이고,
+     * 각각 이름 순, 같은 이름은 출력 순이다. 최대 limit 개.
+     */
+    public List<Entry> search(String query, int limit) {
+        if (query.isEmpty() || limit <= 0) return Collections.emptyList();
+        char[] q = query.toCharArray();
+        List<Entry> result = new ArrayList<>();
+        // 앞부분이 같은 이름은 정렬 순서에서 이어져 있음
+        int first = lowerBound(q);
+        int last = first;
+        while (last < nameCount && startsWith(sortedNames[last], q)) last++;
+        for (int k = first; k < last && result.size() < limit; k++) {
+            addOccurrences(sortedNames[k], result, limit);
+        }
+        for (int k = 0; k < nameCount && result.size() < limit; k++) {
+            if (k == first && last > first) { // 앞부분이 같은 이름은 이미 넣음
+                k = last - 1;
+                continue;
+            }
+            int n = sortedNames[k];
+            if (contains(n, q)) addOccurrences(n, result, limit);
+        }
+        return result;
+    }
+
+    // 이름이 정확히 name 인 위치들 (출력 순)
+    public List<Entry> find(Kind kind, String name) {
+        int n = lookup(kind, name);
+        if (n < 0) return Collections.emptyList();
+        List<Entry> result = new ArrayList<>();
+        addOccurrences(n, result, Integer.MAX_VALUE);
+        return result;
+    }
+
+    /**
+     * 같은 문맥(감싼 @규칙과 중첩 규칙의 이름이 같음)에서 두 번 이상 나온 선택자. 처음 나온 순서대로.
+     * 선택자 목록 "a, b" 는 선택자마다 따로 센다.
+     */
+    public List<Duplicate> duplicateSelectors() {
+        LongIntMap counts = new LongIntMap();
+        for (int i = 0; i < occurrenceCount; i++) {
+            if (nameKind[occurrenceName[i]] != Kind.SELECTOR.ordinal()) continue;
+            long key = pack(occurrenceContext[i], occurrenceName[i]);
+            int count = counts.get(key);
+            counts.put(key, count < 0 ? 1 : count + 1);
+        }
+        List<Duplicate> duplicates = new ArrayList<>();
+        for (int i = 0; i < occurrenceCount; i++) {
+            int n = occurrenceName[i];
+            if (nameKind[n] != Kind.SELECTOR.ordinal()) continue;
+            long key = pack(occurrenceContext[i], n);
+            int count = counts.get(key);
+            if (count < 2) continue; // 한 번뿐이거나 이미 보고함 (0)
+            counts.put(key, 0);
+            long[] offsets = new long[count];
+            int k = 0;
+            for (int p = postingStart[n]; p < postingStart[n + 1]; p++) {
+                int j = postings[p];
+                if (occurrenceContext[j] == occurrenceContext[i]) offsets[k++] = occurrenceOffset[j];
+            }
+            duplicates.add(new Duplicate(name(n), context(i), offsets));
+        }
+        return duplicates;
+    }
+
+    private void addOccurrences(int n, List<Entry> result, int limit) {
+        for (int p = postingStart[n]; p < postingStart[n + 1] && result.size() < limit; p++) {
+            int i = postings[p];
+            result.add(new Entry(KINDS[nameKind[n]], name(n), occurrenceOffset[i], context(i)));
+        }
+    }
+
+    private String name(int n) {
+        return new String(nameChars, nameStart[n], nameLength[n]);
+    }
+
+    // 감싼 블록 이름들 (바깥부터, " › " 로 이음)
+    private String context(int i) {
+        int parent = occurrenceParent[i];
+        if (parent < 0) return "";
+        String outer = context(parent);
+        String name = name(occurrenceName[parent]);
+        return outer.isEmpty() ? name : outer + " › " + name;
+    }
+
+    private int lookup(Kind kind, String name) {
+        char[] chars = name.toCharArray();
+        int mask = table.length - 1;
+        for (int slot = hash(kind.ordinal(), chars, 0, chars.length) & mask; ; slot = (slot + 1) & mask) {
+            int n = table[slot] - 1;
+            if (n < 0) return -1;
+            if (nameKind[n] == kind.ordinal() && nameLength[n] == chars.length
+                    && sameName(nameChars, nameStart[n], chars)) {
+                return n;
+            }
+        }
+    }
+
+    private static boolean sameName(char[] names, int start, char[] name) {
+        return sameName(names, start, name, name.length);
+    }
+
+    private static boolean sameName(char[] names, int start, char[] name, int length) {
+        for (int i = 0; i < length; i++) {
+            if (names[start + i] != name[i]) return false;
+        }
+        return true;
+    }
+
+    // 정렬 순서에서 q 보다 작지 않은 첫 이름의 자리
+    private int lowerBound(char[] q) {
+        int low = 0;
+        int high = nameCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareIgnoreCase(nameChars, nameStart[sortedNames[mid]], nameLength[sortedNames[mid]], q, 0, q.length) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean startsWith(int n, char[] q) {
+        return nameLength[n] >= q.length && regionEqualsIgnoreCase(nameStart[n], q);
+    }
+
+    private boolean contains(int n, char[] q) {
+        for (int i = nameStart[n], end = nameStart[n] + nameLength[n] - q.length; i <= end; i++) {
+            if (regionEqualsIgnoreCase(i, q)) return true;
+        }
+        return false;
+    }
+
+    private boolean regionEqualsIgnoreCase(int from, char[] q) {
+        for (int k = 0; k < q.length; k++) {
+            if (fold(nameChars[from + k]) != fold(q[k])) return false;
+        }
+        return true;
+    }
+
+    // 병합 정렬 (이름 번호를 이름의 대소문자 무시 순서로, 같으면 글자 그대로, 종류 순)
+    private void sortNames(int[] a, int[] tmp, int from, int to) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        sortNames(a, tmp, from, mid);
+        sortNames(a, tmp, mid, to);
+        System.arraycopy(a, from, tmp, from, to - from);
+        int i = from;
+        int j = mid;
+        for (int k = from; k < to; k++) {
+            if (j >= to || (i < mid && compareNames(tmp[i], tmp[j]) <= 0)) a[k] = tmp[i++];
+            else a[k] = tmp[j++];
+        }
+    }
+
+    private int compareNames(int a, int b) {
+        int c = compareIgnoreCase(nameChars, nameStart[a], nameLength[a], nameChars, nameStart[b], nameLength[b]);
+        if (c != 0) return c;
+        for (int k = 0; k < nameLength[a]; k++) {
+            c = nameChars[nameStart[a] + k] - nameChars[nameStart[b] + k];
+            if (c != 0) return c;
+        }
+        return nameKind[a] - nameKind[b];
+    }
+
+    private static int compareIgnoreCase(char[] a, int aFrom, int aLength, char[] b, int bFrom, int bLength) {
+        for (int k = 0, n = Math.min(aLength, bLength); k < n; k++) {
+            int c = fold(a[aFrom + k]) - fold(b[bFrom + k]);
+            if (c != 0) return c;
+        }
+        return aLength - bLength;
+    }
+
+    private static char fold(char c) {
+        if (c >= 'A' && c <= 'Z') return (char) (c + 32);
+        return c < 0x80 ? c : Character.toLowerCase(c);
+    }
+
+    private static int hash(int kind, char[] chars, int from, int length) {
+        int hash = kind;
+        for (int i = from, end = from + length; i < end; i++) hash = 31 * hash + chars[i];
+        return hash ^ (hash >>> 16);
+    }
+
+    private static long pack(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 검색 결과 하나: 이름, 결과 안의 위치(이름 첫 글자), 감싼 블록 이름들 (예: "@media print › .nav", 최상위면 빈 문자열).
+     */
+    public static final class Entry {
+        private final Kind kind;
+        private final String name;
+        private final long offset;
+        private final String context;
+
+        Entry(Kind kind, String name, long offset, String context) {
+            this.kind = kind;
+            this.name = name;
+            this.offset = offset;
+            this.context = context;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public String getContext() {
+            return context;
+        }
+
+        @Override
+        public String toString() {
+            return context.isEmpty() ? name : name + "  (" + context + ")";
+        }
+    }
+
+    // 같은 문맥에서 되풀이된 선택자와 그 위치들 (출력 순)
+    public static final class Duplicate {
+        private final String selector;
+        private final String context;
+        private final long[] offsets;
+
+        Duplicate(String selector, String context, long[] offsets) {
+            this.selector = selector;
+            this.context = context;
+            this.offsets = offsets;
+        }
+
+        public String getSelector() {
+            return selector;
+        }
+
+        public String getContext() {
+            return context;
+        }
+
+        public long[] getOffsets() {
+            return offsets.clone();
+        }
+
+        public int getCount() {
+            return offsets.length;
+        }
+    }
+
+    /**
+     * 출력 글자를 차례로 받아 색인을 만든다. 블록 안팎의 문장(다음 '{', ';', '}' 까지)을 모았다가 끝나는 글자로 종류를 정한다:
+     * '{' 앞은 선택자 목록이나 @규칙, ';' 나 '}' 앞은 속성 선언(블록 안, 첫 ':' 앞이 이름)이나 블록 없는 @규칙.
+     * 문자열, 주석, 따옴표 없는 url() 안의 글자는 구조로 보지 않는다. 스레드 안전하지 않다.
+     */
+    public static final class Builder {
+
+        // 문장은 이 길이까지만 모음 (구문 오류로 남은 아주 긴 원문). 넘으면 앞부분만으로 이름을 정함
+        private static final int MAX_STATEMENT = 1 << 16;
+
+        // 문장 안에서 상태를 바꾸는 글자
+        private static final boolean[] SPECIAL = new boolean[128];
+
+        static {
+            for (char c : "{};():\"'/".toCharArray()) SPECIAL[c] = true;
+        }
+
+        private static final int NORMAL = 0;
+        private static final int STRING = 1;
+        private static final int COMMENT = 2;
+        private static final int URL_START = 3; // url( 바로 뒤: 따옴표가 오면 문자열, 아니면 따옴표 없는 url
+        private static final int URL = 4;       // 따옴표 없는 url: ')' 나 줄바꿈까지
+
+        private char[] nameChars = new char[4096];
+        private int charCount;
+        private int[] nameStart = new int[256];
+        private int[] nameLength = new int[256];
+        private byte[] nameKind = new byte[256];
+        private int nameCount;
+        private int[] table = new int[512]; // 이름 번호 + 1 (0 은 빈 칸), 개방 주소법
+
+        private int[] occurrenceName = new int[1024];
+        private long[] occurrenceOffset = new long[1024];
+        private int[] occurrenceParent = new int[1024];
+        private int occurrenceCount;
+
+        // 열린 블록마다 그 블록의 위치 번호 (이름 없는 블록은 -1)
+        private int[] blocks = new int[16];
+        private int depth;
+
+        private long position;     // 다음 글자의 출력 위치
+        private int state = NORMAL;
+        private char quote;
+        private boolean escaped;   // 문자열 안 '\' 다음
+        private boolean slash;     // 주석 시작일 수 있는 '/' 를 보류 중
+        private boolean star;      // 주석 안 '*' 다음
+
+        private char[] statement = new char[256];
+        private int statementLength;
+        private long statementOffset;
+        private boolean started;   // 문장의 첫 글자(공백, 앞선 주석 제외)를 봄
+        private int colon = -1;    // 괄호 밖 첫 ':' 의 자리
+        private int parens;
+
+        private char[] name = new char[256]; // 이름을 다듬는 작업 공간
+
+        public Builder append(CharSequence css) {
+            for (int i = 0, n = css.length(); i < n; i++) accept(css.charAt(i));
+            return this;
+        }
+
+        void accept(char[] cbuf, int off, int len) {
+            for (int i = off, end = off + len; i < end; i++) {
+                char c = cbuf[i];
+                if (state == NORMAL && started && !slash && ordinary(c)) {
+                    // 문장 안의 보통 글자 (대부분의 글자): 이어진 만큼 한 번에 모음
+                    int run = i + 1;
+                    while (run < end && ordinary(cbuf[run])) run++;
+                    buffer(cbuf, i, run - i);
+                    position += run - i;
+                    i = run - 1;
+                } else {
+                    accept(c);
+                }
+            }
+        }
+
+        public CssIndex build() {
+            if (slash) {
+                slash = false;
+                normal('/', position - 1);
+            }
+            endStatement();
+            return new CssIndex(this);
+        }
+
+        private void accept(char c) {
+            long at = position++;
+            if (state == URL_START && c != '"' && c != '\'' && c != ' ' && c != '\t') state = URL; // 따옴표 없는 url
+            switch (state) {
+                case STRING:
+                    buffer(c);
+                    if (escaped) escaped = false;
+                    else if (c == '\\') escaped = true;
+                    else if (c == quote || c == '\n') state = NORMAL;
+                    return;
+                case COMMENT:
+                    if (started) buffer(c);
+                    if (star && c == '/') state = NORMAL;
+                    star = c == '*';
+                    return;
+                case URL_START:
+                    if (c == '"' || c == '\'') normal(c, at);
+                    else buffer(c); // url( 뒤의 공백
+                    return;
+                case URL:
+                    if (c == '\n' || (c == ')' && !escaped)) {
+                        state = NORMAL;
+                        escaped = false;
+                        normal(c, at);
+                        return;
+                    }
+                    escaped = !escaped && c == '\\';
+                    buffer(c);
+                    return;
+                default:
+                    if (slash) {
+                        slash = false;
+                        if (c == '*') {
+                            if (started) {
+                                buffer('/');
+                                buffer('*');
+                            }
+                            state = COMMENT;
+                            star = false;
+                            return;
+                        }
+                        normal('/', at - 1);
+                    }
+                    if (c == '/') {
+                        slash = true;
+                        return;
+                    }
+                    normal(c, at);
+            }
+        }
+
+        private void normal(char c, long at) {
+            switch (c) {
+                case '{':
+                    openBlock();
+                    return;
+                case '}':
+                    endStatement();
+                    if (depth > 0) depth--;
+                    return;
+                case ';':
+                    if (parens == 0) {
+                        endStatement();
+                        return;
+                    }
+                    break;
+                case '(':
+                    parens++;
+                    if (isUrl()) state = URL_START;
+                    break;
+                case ')':
+                    if (parens > 0) parens--;
+                    break;
+                case ':':
+                    if (parens == 0 && colon < 0 && started) colon = statementLength;
+                    break;
+                case '"':
+                case '\'':
+                    state = STRING;
+                    quote = c;
+                    break;
+                default:
+                    if (c <= ' ' && !started) return;
+            }
+            if (!started) {
+                started = true;
+                statementOffset = at;
+                if (c == ':') colon = 0;
+            }
+            buffer(c);
+        }
+
+        // 모은 문장이 url 함수 이름으로 끝남 ('(' 를 넣기 전)
+        private boolean isUrl() {
+            int n = statementLength;
+            return n >= 3 && CssPostProcessor.isUrlFunction(n >= 4 ? statement[n - 4] : 0,
+                    statement[n - 3], statement[n - 2], statement[n - 1]);
+        }
+
+        private static boolean ordinary(char c) {
+            return c >= 128 || !SPECIAL[c];
+        }
+
+        private void buffer(char[] cbuf, int off, int len) {
+            int n = Math.min(len, MAX_STATEMENT - statementLength);
+            if (n <= 0) return;
+            if (statementLength + n > statement.length) {
+                statement = Arrays.copyOf(statement, Math.max(statement.length * 2, statementLength + n));
+            }
+            System.arraycopy(cbuf, off, statement, statementLength, n);
+            statementLength += n;
+        }
+
+        private void buffer(char c) {
+            if (statementLength == statement.length) {
+                if (statementLength >= MAX_STATEMENT) return;
+                statement = Arrays.copyOf(statement, statementLength * 2);
+            }
+            statement[statementLength++] = c;
+        }
+
+        private void openBlock() {
+            int block = -1;
+            if (started) {
+                int parent = depth > 0 ? blocks[depth - 1] : -1;
+                if (statement[0] == '@') {
+                    block = add(Kind.AT_RULE, 0, statementLength, parent);
+                } else {
+                    // 선택자 목록: 괄호, 대괄호, 문자열, 주석 밖의 ',' 로 나눔. 블록은 첫 선택자로 가리킴
+                    int from = 0;
+                    int nesting = 0;
+                    for (int i = 0; i < statementLength; i++) {
+                        char c = statement[i];
+                        if (c == '"' || c == '\'') {
+                            i = skipString(i) - 1;
+                        } else if (c == '/' && i + 1 < statementLength && statement[i + 1] == '*') {
+                            i = skipComment(i) - 1;
+                        } else if (c == '(' || c == '[') {
+                            nesting++;
+                        } else if ((c == ')' || c == ']') && nesting > 0) {
+                            nesting--;
+                        } else if (c == ',' && nesting == 0) {
+                            int occurrence = add(Kind.SELECTOR, from, i, parent);
+                            if (block < 0) block = occurrence;
+                            from = i + 1;
+                        }
+                    }
+                    int occurrence = add(Kind.SELECTOR, from, statementLength, parent);
+                    if (block < 0) block = occurrence;
+                }
+            }
+            if (depth == blocks.length) blocks = Arrays.copyOf(blocks, depth * 2);
+            blocks[depth++] = block;
+            resetStatement();
+        }
+
+        // 블록 없는 @규칙, 또는 블록 안의 "속성: 값" 선언
+        private void endStatement() {
+            if (started) {
+                int parent = depth > 0 ? blocks[depth - 1] : -1;
+                if (statement[0] == '@') {
+                    add(Kind.AT_RULE, 0, statementLength, parent);
+                } else if (colon > 0 && depth > 0 && isPropertyName(colon)) {
+                    add(Kind.PROPERTY, 0, colon, parent);
+                }
+            }
+            resetStatement();
+        }
+
+        private void resetStatement() {
+            statementLength = 0;
+            started = false;
+            colon = -1;
+            parens = 0;
+        }
+
+        // 속성 이름은 식별자 글자만 (뒤 공백은 허용). 그 밖의 ':' 문장은 구문 오류로 남은 원문 등
+        private boolean isPropertyName(int end) {
+            while (end > 0 && statement[end - 1] <= ' ') end--;
+            for (int i = 0; i < end; i++) {
+                char c = statement[i];
+                if (!(c == '-' || c == '_' || c == '\\' || c >= 0x80
+                        || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))) {
+                    return false;
+                }
+            }
+            return end > 0;
+        }
+
+        // statement[from, to) 를 주석을 빼고 공백을 하나로 줄인 이름으로 넣음. 반환값은 위치 번호 (빈 이름이면 -1)
+        private int add(Kind kind, int from, int to, int parent) {
+            int length = 0;
+            int first = -1;
+            boolean space = false;
+            for (int i = from; i < to; i++) {
+                char c = statement[i];
+                if (c == '/' && i + 1 < to && statement[i + 1] == '*') {
+                    i = skipComment(i) - 1;
+                    space = length > 0;
+                    continue;
+                }
+                if (c <= ' ') {
+                    space = length > 0;
+                    continue;
+                }
+                int end = c == '"' || c == '\'' ? Math.min(skipString(i), to) : i + 1;
+                if (length + (end - i) + 1 > name.length) name = Arrays.copyOf(name, (length + (end - i) + 1) * 2);
+                if (space) name[length++] = ' ';
+                space = false;
+                if (first < 0) first = i;
+                System.arraycopy(statement, i, name, length, end - i);
+                length += end - i;
+                i = end - 1;
+            }
+            if (length == 0) return -1;
+            if (occurrenceCount == occurrenceName.length) {
+                int capacity = occurrenceCount * 2;
+                occurrenceName = Arrays.copyOf(occurrenceName, capacity);
+                occurrenceOffset = Arrays.copyOf(occurrenceOffset, capacity);
+                occurrenceParent = Arrays.copyOf(occurrenceParent, capacity);
+            }
+            occurrenceName[occurrenceCount] = intern(kind, length);
+            occurrenceOffset[occurrenceCount] = statementOffset + first;
+            occurrenceParent[occurrenceCount] = parent;
+            return occurrenceCount++;
+        }
+
+        // name[0, length) 의 이름 번호 (처음이면 새로 넣음)
+        private int intern(Kind kind, int length) {
+            int mask = table.length - 1;
+            for (int slot = hash(kind.ordinal(), name, 0, length) & mask; ; slot = (slot + 1) & mask) {
+                int n = table[slot] - 1;
+                if (n < 0) {
+                    n = newName(kind, length);
+                    table[slot] = n + 1;
+                    if (nameCount * 2 > table.length) rehash();
+                    return n;
+                }
+                if (nameKind[n] == kind.ordinal() && nameLength[n] == length
+                        && sameName(nameChars, nameStart[n], name, length)) {
+                    return n;
+                }
+            }
+        }
+
+        private int newName(Kind kind, int length) {
+            if (nameCount == nameStart.length) {
+                int capacity = nameCount * 2;
+                nameStart = Arrays.copyOf(nameStart, capacity);
+                nameLength = Arrays.copyOf(nameLength, capacity);
+                nameKind = Arrays.copyOf(nameKind, capacity);
+            }
+            if (charCount + length > nameChars.length) {
+                nameChars = Arrays.copyOf(nameChars, Math.max(nameChars.length * 2, charCount + length));
+            }
+            System.arraycopy(name, 0, nameChars, charCount, length);
+            nameStart[nameCount] = charCount;
+            nameLength[nameCount] = length;
+            nameKind[nameCount] = (byte) kind.ordinal();
+            charCount += length;
+            return nameCount++;
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            int mask = table.length - 1;
+            for (int n = 0; n < nameCount; n++) {
+                int slot = hash(nameKind[n], nameChars, nameStart[n], nameLength[n]) & mask;
+                while (table[slot] != 0) slot = (slot + 1) & mask;
+                table[slot] = n + 1;
+            }
+        }
+
+        // statement 의 quote 위치 문자열 끝 다음 (닫히지 않으면 문장 끝)
+        private int skipString(int quote) {
+            char q = statement[quote];
+            for (int i = quote + 1; i < statementLength; i++) {
+                char c = statement[i];
+                if (c == '\\') i++;
+                else if (c == q) return i + 1;
+            }
+            return statementLength;
+        }
+
+        // statement 의 "/*" 위치 주석 끝 다음 (닫히지 않으면 문장 끝)
+        private int skipComment(int start) {
+            for (int i = start + 3; i < statementLength; i++) {
+                if (statement[i] == '/' && statement[i - 1] == '*') return i + 1;
+            }
+            return statementLength;
+        }
+    }
+
+    // 키가 0 이상인 long -> int 개방 주소 해시 (없으면 -1)
+    private static final class LongIntMap {
+        private long[] keys = new long[64];
+        private int[] values = new int[64];
+        private int size;
+
+        LongIntMap() {
+            Arrays.fill(keys, -1);
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return values[slot];
+                if (keys[slot] < 0) return -1;
+            }
+        }
+
+        void put(long key, int value) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] >= 0 && keys[slot] != key) slot = (slot + 1) & mask;
+            if (keys[slot] < 0) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    values[slot] = value;
+                    grow();
+                    return;
+                }
+            }
+            values[slot] = value;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            Arrays.fill(keys, -1);
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] < 0) continue;
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] >= 0) slot = (slot + 1) & mask;
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
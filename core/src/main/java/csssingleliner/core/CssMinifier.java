@@ -0,0 +1,39 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * 한 줄 변환 결과를 압축(minify)한다. 읽기 좋은 한 줄 출력 대신 크기가 가장 작은 출력이 필요할 때 (배치 -m, 서버 minify=true).
+ * - 주석과 없어도 되는 공백을 모두 지우고, 블록의 마지막 ';' 을 지움
+ * - 16진수 색, 숫자, 길이 0 을 짧게 씀
+ * - 바로 이웃한 규칙의 선택자나 내용이 같으면 하나로 합침
+ * 토크나이저가 찾은 규칙 경계(한 줄에 규칙 하나)를 그대로 쓰므로 CSS 를 다시 파싱하지 않고, 글자를 한 번씩만 본다.
+ * 자세한 규칙은 {@link MinifyingWriter} 참고. 흘려보내며 압축하려면 {@link CssSingleLiner.Options#withMinify(boolean)}.
+ */
+public final class CssMinifier {
+
+    private CssMinifier() {
+    }
+
+    public static String minify(String singleLined) {
+        StringWriter result = new StringWriter(singleLined.length());
+        try {
+            MinifyingWriter writer = new MinifyingWriter(result, true);
+            writer.write(CssPostProcessor.removeComments(singleLined));
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter 는 IOException 을 던지지 않음
+        }
+        return result.toString();
+    }
+
+    // minify 와 같고, 압축 시간을 후처리 단계로 stats 에 기록
+    public static String minify(String singleLined, ConversionStats stats) {
+        ConversionStats.Sample sample = ConversionStats.start();
+        String css = minify(singleLined);
+        stats.record(ConversionStats.Stage.POST_PROCESS, sample, singleLined.length());
+        return css;
+    }
+}
@@ -0,0 +1,218 @@
+package csssingleliner.core;
+
+/**
+ * 한 줄 변환 결과에 적용하는 후처리 (GUI 화면 갱신과 배치 모드가 공유).
+ * - 주석 제거 (선택)
+ * - 3줄 이상 연속된 개행을 2줄로 축소 (앞뒤 공백 포함, 결과는 항상 \n\n)
+ *
+ * 정규식 없이 글자를 한 번씩만 보는 한 번의 패스로 처리한다. 문자열("...", '...')과 따옴표 없는 url(...)
+ * 안은 그대로 두므로, 그 안의 슬래시-별표는 주석으로 보지 않고 공백도 줄이지 않는다.
+ * 주석을 지우면 그 앞뒤 공백은 하나의 공백 구간으로 이어서 줄인다. 닫히지 않은 주석은 지우지 않는다.
+ * {@link PostProcessingWriter} 는 같은 규칙을 흘려보내면서 적용한다.
+ */
+public final class CssPostProcessor {
+
+    // 글자의 문맥
+    static final int NORMAL = 0;
+    static final int COMMENT = 1;
+    static final int STRING = 2;
+    static final int URL_START = 3; // url( 바로 뒤: 따옴표가 오면 문자열, 아니면 따옴표 없는 url
+    static final int URL = 4;
+
+    private CssPostProcessor() {
+    }
+
+    public static String removeComments(String css) {
+        return normalize(css, true, false);
+    }
+
+    // 결과는 항상 \n\n 으로 통일
+    public static String collapseBlankLines(String css) {
+        return normalize(css, false, true);
+    }
+
+    // 화면/파일로 내보낼 최종 결과
+    public static String apply(String singleLined, boolean removeComments) {
+        return normalize(singleLined, removeComments, true);
+    }
+
+    // apply 와 같고, 후처리 단계를 stats 에 기록 (주석 제거와 개행 축소는 한 패스이므로 후처리 한 단계로)
+    public static String apply(String singleLined, boolean removeComments, ConversionStats stats) {
+        ConversionStats.Sample sample = ConversionStats.start();
+        String css = normalize(singleLined, removeComments, true);
+        stats.record(ConversionStats.Stage.POST_PROCESS, sample, singleLined.length());
+        return css;
+    }
+
+    /*
+     * 결과는 입력보다 길어지지 않으므로 입력 길이의 버퍼 하나에 쓴다.
+     * 공백 구간은 일단 그대로 쓰고, 구간이 끝났을 때 줄바꿈이 3개 이상이었으면 첫 줄바꿈 위치부터 \n\n 으로 덮어쓴다.
+     */
+    static String normalize(String css, boolean removeComments, boolean collapseBlankLines) {
+        int length = css.length();
+        char[] out = CharBufferPool.take(Math.max(length, 16));
+        int n = 0;
+        int context = NORMAL;
+        char quote = 0;
+        boolean star = false;
+        // 현재 공백 구간
+        int breaks = 0;
+        int firstBreak = -1; // 구간의 첫 줄바꿈이 쓰인 위치
+        boolean lastCr = false;
+
+        for (int i = 0; i < length; i++) {
+            char c = css.charAt(i);
+            // 대부분의 글자: 문맥 밖의 평범한 글자는 공백 구간만 끝내고 그대로
+            if (context == NORMAL && (c < 128 ? !SPECIAL[c] : !isLineBreak(c))) {
+                if (breaks != 0) {
+                    if (breaks >= 3) {
+                        n = firstBreak;
+                        out[n++] = '\n';
+                        out[n++] = '\n';
+                    }
+                    breaks = 0;
+                    firstBreak = -1;
+                    lastCr = false;
+                }
+                out[n++] = c;
+                continue;
+            }
+            if (context == URL_START && c != '"' && c != '\'' && c != ' ' && c != '\t') {
+                context = URL; // 따옴표 없는 url
+            }
+            switch (context) {
+                case STRING:
+                    if (!isLineBreak(c)) {
+                        out[n++] = c;
+                        if (c == '\\' && i + 1 < length) out[n++] = css.charAt(++i); // 이스케이프 (줄바꿈이면 문자열이 이어짐)
+                        else if (c == quote) context = NORMAL;
+                        continue;
+                    }
+                    context = NORMAL; // 줄바꿈은 잘못된 문자열을 끝냄 (줄바꿈 자체는 보통 글자로)
+                    break;
+                case URL_START:
+                    if (c == '"' || c == '\'') {
+                        context = STRING;
+                        quote = c;
+                        out[n++] = c;
+                        continue;
+                    }
+                    out[n++] = c; // url( 뒤의 공백
+                    continue;
+                case URL:
+                    if (!isLineBreak(c)) {
+                        out[n++] = c;
+                        if (c == '\\' && i + 1 < length && !isLineBreak(css.charAt(i + 1))) out[n++] = css.charAt(++i);
+                        else if (c == ')') context = NORMAL;
+                        continue;
+                    }
+                    context = NORMAL; // 줄바꿈에서 끝냄 (한 줄 변환 결과에서 url() 은 줄을 넘지 않음)
+                    break;
+                default:
+                    break;
+            }
+
+            if (context == COMMENT) {
+                if (c == '/' && star) context = NORMAL;
+                star = c == '*';
+            } else if (c == '/' && i + 1 < length && css.charAt(i + 1) == '*') {
+                if (removeComments) {
+                    int end = css.indexOf("*/", i + 2);
+                    if (end >= 0) {
+                        i = end + 1; // 주석을 건너뜀. 공백 구간은 끊지 않음
+                        continue;
+                    }
+                }
+                // 남기는 주석 (닫히지 않은 주석 포함). 안의 공백은 줄임. 여는 별표는 닫는 */ 로 세지 않음
+                context = COMMENT;
+                star = false;
+                if (breaks >= 3) {
+                    n = firstBreak;
+                    out[n++] = '\n';
+                    out[n++] = '\n';
+                }
+                breaks = 0;
+                firstBreak = -1;
+                lastCr = false;
+                out[n++] = '/';
+                out[n++] = '*';
+                i++;
+                continue;
+            } else if (c == '"' || c == '\'') {
+                context = STRING;
+                quote = c;
+            } else if (c == '(' && i >= 3 && isUrlFunction(i >= 4 ? css.charAt(i - 4) : 0,
+                    css.charAt(i - 3), css.charAt(i - 2), css.charAt(i - 1))) {
+                context = URL_START;
+            }
+
+            if (collapseBlankLines) {
+                if (isLineBreak(c)) {
+                    if (!(c == '\n' && lastCr)) breaks++; // \r\n 은 줄바꿈 하나
+                    if (firstBreak < 0) firstBreak = n;
+                    lastCr = c == '\r';
+                    out[n++] = c;
+                    continue;
+                }
+                if (isWhitespace(c)) {
+                    lastCr = false;
+                    out[n++] = c;
+                    continue;
+                }
+                if (breaks >= 3) {
+                    n = firstBreak;
+                    out[n++] = '\n';
+                    out[n++] = '\n';
+                }
+                breaks = 0;
+                firstBreak = -1;
+                lastCr = false;
+            }
+            out[n++] = c;
+        }
+        if (breaks >= 3) {
+            n = firstBreak;
+            out[n++] = '\n';
+            out[n++] = '\n';
+        }
+        // 바뀐 곳이 없으면 (결과는 줄어들기만 하므로 길이가 같으면) 입력을 그대로
+        String result = n == length ? css : new String(out, 0, n);
+        CharBufferPool.give(out);
+        return result;
+    }
+
+    /*
+     * '(' 앞의 세 글자 u, r, l 이 "url" 이고 (대소문자 무시) 그 앞이 이름 글자가 아니면 url 함수.
+     * myurl( 같은 다른 함수는 url 로 보지 않는다. u 가 입력의 첫 글자면 before 는 0.
+     */
+    static boolean isUrlFunction(char before, char u, char r, char l) {
+        return (u | 0x20) == 'u' && (r | 0x20) == 'r' && (l | 0x20) == 'l' && !isNameChar(before);
+    }
+
+    private static boolean isNameChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '\\' || (c >= 0x80 && !isLineBreak(c));
+    }
+
+    // 문맥을 바꾸거나 공백 구간에 들어가는 ASCII 글자
+    private static final boolean[] SPECIAL = new boolean[128];
+
+    static {
+        for (char c = 0; c <= ' '; c++) SPECIAL[c] = isWhitespace(c) || isLineBreak(c);
+        SPECIAL['/'] = true;
+        SPECIAL['"'] = true;
+        SPECIAL['\''] = true;
+        SPECIAL['('] = true;
+    }
+
+    // 정규식 \s
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // 정규식 \R
+    static boolean isLineBreak(char c) {
+        return c == '\n' || c == '\r' || c == '\u000B' || c == '\f' || c == '\u0085'
+                || c == (char) 0x2028 || c == (char) 0x2029;
+    }
+}
@@ -0,0 +1,267 @@
+package csssingleliner.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 다른 프로그램(빌드 플러그인, 서버 등)에서 쓰는 변환 API. GUI, 배치 모드와 같은 한 줄 변환 + 후처리를 한다.
+ *
+ * 인스턴스에는 옵션만 있고 상태가 없으므로, 하나를 만들어 여러 스레드가 동시에 써도 된다.
+ * 호출마다 토크나이저를 새로 만들지만 버퍼는 {@link CharBufferPool} 에서 빌려 쓰므로 준비 비용은 거의 없다.
+ * Swing 에 의존하지 않으므로 headless JVM 에서도 쓸 수 있다.
+ *
+ * 구문 오류(닫히지 않은 블록/주석, 짝 없는 '}')가 있어도 변환은 끝까지 하며, 오류는 "N행: 내용" 형식으로 돌려준다.
+ * 스트림과 파일 변환은 원본 위치를 찾아가는 Source Map ({@link SourceMap}) 을 같은 패스에서 함께 만들 수 있다.
+ */
+public final class CssSingleLiner {
+
+    // 같은 입력과 옵션에 대한 출력이 이전 버전과 달라지면 올림 (디스크 결과 캐시 {@link ResultCache} 의 키)
+    public static final int OUTPUT_VERSION = 6; // 2: 문자열, url() 안의 주석 모양은 지우지 않음, 3: 압축 시 여러 줄 선택자 목록을 한 줄로, 4: 토크나이저도 url() 안의 "/*" 를 주석으로 보지 않음, 5: 압축 시 안전한 선택자만 합치고 중복 선언을 지움, 6: 압축 시 합친 선택자 목록에 이미 있는 선택자는 다시 넣지 않음
+
+    private final Options options;
+
+    public CssSingleLiner() {
+        this(Options.DEFAULT);
+    }
+
+    public CssSingleLiner(Options options) {
+        if (options == null) throw new NullPointerException("options");
+        this.options = options;
+    }
+
+    public Options getOptions() {
+        return options;
+    }
+
+    // 문자열(String, StringBuilder 등) 변환
+    public String convert(CharSequence css) {
+        return convert(css, null);
+    }
+
+    // errors 가 null 이 아니면 구문 오류를 덧붙임
+    public String convert(CharSequence css, List<String> errors) {
+        StringWriter result = new StringWriter(css.length());
+        try {
+            Writer out = postProcessor(result);
+            CssTokenizer tokenizer = new CssTokenizer(out);
+            tokenizer.feed(css);
+            tokenizer.finish();
+            finish(out);
+            if (errors != null) errors.addAll(tokenizer.getErrors());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter 는 IOException 을 던지지 않음
+        }
+        return result.toString();
+    }
+
+    // 스트림 변환 (입력 전체를 메모리에 올리지 않음). 스트림은 닫지 않음. 반환값은 구문 오류 목록
+    public List<String> convert(Reader in, Writer out) throws IOException {
+        Writer post = postProcessor(out);
+        List<String> errors = CssStreamConverter.convert(in, post);
+        finish(post);
+        return errors;
+    }
+
+    // 스트림 변환하며 출력 위치 -> 원본 위치 매핑을 sourceMap 에 모음. 스트림은 닫지 않음. 반환값은 구문 오류 목록
+    public List<String> convert(Reader in, Writer out, SourceMap sourceMap) throws IOException {
+        OriginQueue origins = new OriginQueue();
+        SourceMapWriter mapped = new SourceMapWriter(out, new OriginQueue(), sourceMap);
+        Writer post = postProcessor(mapped, origins);
+        List<String> errors = CssStreamConverter.convert(in, post, origins);
+        finish(post);
+        return errors;
+    }
+
+    // 스트림 변환하며 최종 출력의 선택자, 속성, @규칙 색인을 index 에 모음 (끝나면 index.build()). 스트림은 닫지 않음
+    public List<String> convert(Reader in, Writer out, CssIndex.Builder index) throws IOException {
+        Writer post = postProcessor(new IndexingWriter(out, index));
+        List<String> errors = CssStreamConverter.convert(in, post);
+        finish(post);
+        return errors;
+    }
+
+    // 파일 변환. 결과는 입력과 같은 문자셋으로 (BOM 이 있었으면 BOM 도). 반환값은 구문 오류 목록
+    public List<String> convert(Path input, Path output) throws IOException {
+        CssFileInput.Encoding encoding = CssFileInput.detectEncoding(input);
+        try (Writer writer = CssFileInput.newWriter(output, encoding)) {
+            Writer post = postProcessor(writer);
+            List<String> errors = CssFileInput.convert(input, post);
+            finish(post);
+            return errors;
+        }
+    }
+
+    /**
+     * 파일 변환하며 단계별 통계(읽기, 변환, 후처리, 쓰기)를 stats 에 기록한다.
+     * 후처리와 쓰기는 변환 중에 흘려보내며 일어나므로 각 Writer 호출 안에서 걸린 시간으로 나눈다.
+     */
+    public List<String> convert(Path input, Path output, ConversionStats stats) throws IOException {
+        CssFileInput.Encoding encoding = CssFileInput.detectEncoding(input);
+        try (Writer writer = CssFileInput.newWriter(output, encoding)) {
+            StageWriter written = new StageWriter(writer);
+            Writer post = postProcessor(written);
+            StageWriter converted = post == written ? written : new StageWriter(post);
+            List<String> errors = CssFileInput.convert(input, converted, stats);
+            ConversionStats.Sample tail = ConversionStats.start();
+            finish(post);
+            written.flush();
+            if (post != written) {
+                long nanos = converted.nanos + (System.nanoTime() - tail.nanos) - written.nanos;
+                long allocated = converted.allocatedBytes + (ConversionStats.allocatedBytes() - tail.allocatedBytes)
+                        - written.allocatedBytes;
+                stats.record(ConversionStats.Stage.POST_PROCESS, nanos, allocated, converted.chars);
+            }
+            stats.record(ConversionStats.Stage.WRITE, written.nanos, written.allocatedBytes, written.chars);
+            return errors;
+        }
+    }
+
+    // 파일 변환하며 Source Map 을 sourceMap 파일로 씀 (아래 참고)
+    public List<String> convert(Path input, Path output, Path sourceMap) throws IOException {
+        return convert(input, output, sourceMap, new ConversionStats());
+    }
+
+    /**
+     * 파일 변환하며 Source Map 을 sourceMap 파일(UTF-8)로 쓰고, 결과 끝에 맵을 가리키는 sourceMappingURL 주석을 붙인다.
+     * 맵 안의 경로와 주석의 경로는 상대 경로 (원본은 맵 파일 기준, 맵은 결과 파일 기준).
+     * 단계별 통계는 {@link #convert(Path, Path, ConversionStats)} 와 같고, 맵 파일 쓰기는 소스 맵 단계로 기록한다.
+     */
+    public List<String> convert(Path input, Path output, Path sourceMap, ConversionStats stats) throws IOException {
+        SourceMap map = new SourceMap(relativePath(sourceMap, output), relativePath(sourceMap, input));
+        CssFileInput.Encoding encoding = CssFileInput.detectEncoding(input);
+        List<String> errors;
+        try (Writer writer = CssFileInput.newWriter(output, encoding)) {
+            StageWriter written = new StageWriter(writer);
+            OriginQueue origins = new OriginQueue();
+            SourceMapWriter mapped = new SourceMapWriter(written, new OriginQueue(), map);
+            Writer post = postProcessor(mapped, origins);
+            StageWriter converted = new StageWriter(post);
+            errors = CssFileInput.convert(input, converted, stats, origins);
+            ConversionStats.Sample tail = ConversionStats.start();
+            finish(post);
+            if (!mapped.atLineStart()) mapped.write('\n');
+            mapped.write(SourceMap.comment(relativePath(output, sourceMap)));
+            mapped.write('\n');
+            written.flush();
+            long nanos = converted.nanos + (System.nanoTime() - tail.nanos) - written.nanos;
+            long allocated = converted.allocatedBytes + (ConversionStats.allocatedBytes() - tail.allocatedBytes)
+                    - written.allocatedBytes;
+            stats.record(ConversionStats.Stage.POST_PROCESS, nanos, allocated, converted.chars);
+            stats.record(ConversionStats.Stage.WRITE, written.nanos, written.allocatedBytes, written.chars);
+        }
+        ConversionStats.Sample sample = ConversionStats.start();
+        map.write(sourceMap);
+        stats.record(ConversionStats.Stage.SOURCE_MAP, sample, map.getMappingCount());
+        return errors;
+    }
+
+    // from 파일이 있는 디렉터리에서 to 까지의 상대 경로 ('/' 구분). 루트가 달라 상대 경로가 없으면 file: URI
+    private static String relativePath(Path from, Path to) {
+        Path dir = from.toAbsolutePath().normalize().getParent();
+        Path target = to.toAbsolutePath().normalize();
+        try {
+            return (dir == null ? target : dir.relativize(target)).toString().replace(File.separatorChar, '/');
+        } catch (IllegalArgumentException e) {
+            return target.toUri().toString();
+        }
+    }
+
+    // 소스 맵: 후처리(또는 압축) 단계를 늘 거치며 원본 위치를 출력 위치로 옮겨 mapped 에 넘김
+    private Writer postProcessor(SourceMapWriter mapped, OriginQueue origins) {
+        if (options.minify) {
+            MinifyingWriter minifier = new MinifyingWriter(mapped);
+            minifier.trackOrigins(origins, mapped.origins());
+            return minifier;
+        }
+        PostProcessingWriter post = new PostProcessingWriter(mapped, options.removeComments, options.collapseBlankLines);
+        post.trackOrigins(origins, mapped.origins());
+        return post;
+    }
+
+    // 후처리가 없으면 out 그대로. 압축하면 주석은 항상 지우고 개행 축소 옵션은 쓰지 않음 (개행이 남지 않음)
+    private Writer postProcessor(Writer out) {
+        if (options.minify) return new MinifyingWriter(out);
+        if (!options.removeComments && !options.collapseBlankLines) return out;
+        return new PostProcessingWriter(out, options.removeComments, options.collapseBlankLines);
+    }
+
+    private static void finish(Writer post) throws IOException {
+        if (post instanceof MinifyingWriter) {
+            ((MinifyingWriter) post).finish();
+        } else if (post instanceof PostProcessingWriter) {
+            ((PostProcessingWriter) post).finish();
+        } else {
+            post.flush();
+        }
+    }
+
+    /**
+     * 후처리 옵션. 바꿀 수 없는 값이며, with 메서드는 새 옵션을 만든다.
+     */
+    public static final class Options {
+
+        // GUI 기본값과 같음: 주석 유지, 3줄 이상 연속된 개행은 2줄로
+        public static final Options DEFAULT = new Options(false, true, false);
+
+        private final boolean removeComments;
+        private final boolean collapseBlankLines;
+        private final boolean minify;
+
+        private Options(boolean removeComments, boolean collapseBlankLines, boolean minify) {
+            this.removeComments = removeComments;
+            this.collapseBlankLines = collapseBlankLines;
+            this.minify = minify;
+        }
+
+        public boolean isRemoveComments() {
+            return removeComments;
+        }
+
+        public boolean isCollapseBlankLines() {
+            return collapseBlankLines;
+        }
+
+        // 압축 출력 ({@link CssMinifier}). 켜면 다른 두 옵션과 관계없이 주석을 지우고 결과는 개행 없는 한 덩어리
+        public boolean isMinify() {
+            return minify;
+        }
+
+        public Options withRemoveComments(boolean remove) {
+            return new Options(remove, collapseBlankLines, minify);
+        }
+
+        public Options withCollapseBlankLines(boolean collapse) {
+            return new Options(removeComments, collapse, minify);
+        }
+
+        public Options withMinify(boolean minify) {
+            return new Options(removeComments, collapseBlankLines, minify);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Options)) return false;
+            Options other = (Options) o;
+            return removeComments == other.removeComments && collapseBlankLines == other.collapseBlankLines
+                    && minify == other.minify;
+        }
+
+        @Override
+        public int hashCode() {
+            return (minify ? 4 : 0) + (removeComments ? 2 : 0) + (collapseBlankLines ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            return "Options[removeComments=" + removeComments + ", collapseBlankLines=" + collapseBlankLines
+                    + ", minify=" + minify + "]";
+        }
+    }
+}
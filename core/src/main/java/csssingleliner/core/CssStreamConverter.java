@@ -0,0 +1,73 @@
+package csssingleliner.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.List;
+
+/**
+ * 입력 전체를 메모리에 올리지 않고 조각 단위로 읽어 변환하는 스트리밍 API.
+ *
+ * 읽은 조각은 바로 {@link CssTokenizer} 로 넘기고, 최상위 블록이 닫힐 때마다 결과가 출력으로
+ * 나간다. 따라서 사용 메모리는 파일 크기가 아니라 가장 큰 최상위 블록 크기에 비례한다.
+ * 반환값은 변환 중 발견된 구문 오류 목록이다 ({@link CssTokenizer#getErrors()}).
+ * 스트림은 닫지 않으며, 호출한 쪽에서 관리한다.
+ */
+public final class CssStreamConverter {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private CssStreamConverter() {
+    }
+
+    // 한 줄 변환만 (후처리 없음)
+    public static List<String> convert(Reader in, Appendable out) throws IOException {
+        return convert(in, out, null);
+    }
+
+    // origins 가 null 이 아니면 출력 줄마다 원본 위치를 넣음 (소스 맵)
+    static List<String> convert(Reader in, Appendable out, OriginQueue origins) throws IOException {
+        CssTokenizer tokenizer = new CssTokenizer(out);
+        if (origins != null) tokenizer.trackOrigins(origins);
+        char[] chunk = CharBufferPool.take(CHUNK_SIZE);
+        try {
+            int n;
+            while ((n = in.read(chunk, 0, CHUNK_SIZE)) != -1) {
+                tokenizer.feed(chunk, 0, n);
+            }
+        } finally {
+            CharBufferPool.give(chunk);
+        }
+        tokenizer.finish();
+        return tokenizer.getErrors();
+    }
+
+    // 한 줄 변환 + 후처리 (주석 제거 선택, 연속 개행 축소)
+    public static List<String> convert(Reader in, Writer out, boolean removeComments) throws IOException {
+        PostProcessingWriter post = new PostProcessingWriter(out, removeComments);
+        List<String> errors = convert(in, post);
+        post.finish();
+        return errors;
+    }
+
+    public static List<String> convert(InputStream in, OutputStream out, Charset charset, boolean removeComments)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, charset), CHUNK_SIZE);
+        List<String> errors = convert(new InputStreamReader(in, charset), writer, removeComments);
+        writer.flush();
+        return errors;
+    }
+
+    public static List<String> convert(ReadableByteChannel in, OutputStream out, Charset charset,
+            boolean removeComments) throws IOException {
+        return convert(Channels.newInputStream(in), out, charset, removeComments);
+    }
+}
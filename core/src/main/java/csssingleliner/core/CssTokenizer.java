@@ -0,0 +1,621 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CSS 를 한 글자씩 한 번만 훑으면서 규칙 블록을 한 줄로 변환하는 토크나이저.
+ *
+ * 중괄호 깊이, 문자열, 주석 상태를 글자 단위로 갱신하므로 줄마다 블록 전체를 다시
+ * 복사하거나 세지 않는다 (입력 길이에 선형). 입력은 {@link #feed} 로 여러 번 나눠
+ * 넣을 수 있고, 최상위 블록이 닫힐 때마다 결과가 출력 대상으로 내보내진다.
+ *
+ * 출력 형식은 기존 CSSSingleLiner.processCssContent 와 같다.
+ * - 블록 밖의 비어 있지 않은 줄은 그대로 한 줄씩 출력
+ * - 일반 규칙은 "선택자 { 내용 }" 한 줄 (내용 공백 정리)
+ * - 안에 규칙이 들어가는 @규칙(@media, @supports, @layer, @container, @scope, @document,
+ *   @starting-style, @keyframes, @feature)은 선언부와 닫는 괄호를 각각 한 줄로, 내부 규칙은 다시 한 줄씩
+ * - 중첩 블록이 있는 규칙(CSS 중첩 {@code &}, 규칙 안의 @media 등)도 같은 방식으로: 선택자 줄,
+ *   중첩 블록 사이의 선언들은 (규칙 내용처럼 공백 정리해) 한 줄씩, 중첩 블록마다 한 줄, 닫는 괄호 줄
+ * - 닫히지 않은 블록은 원문 그대로 출력
+ * 중첩은 열린 컨테이너 수만 세므로 깊이와 상관없이 글자마다 한 번만 처리한다 (블록을 다시 나누거나 조립하지 않음).
+ *
+ * 출력은 {@link CharBufferPool} 에서 빌린 char[] 하나에 바로 쓴다. 규칙의 선택자와 정리된 내용도
+ * 이 배열에 곧바로 쓰고 위치만 기억하므로 규칙마다 문자열이나 임시 버퍼를 만들지 않는다.
+ * 배열은 {@link #finish()} 에서 풀로 돌려주므로, 그 뒤에는 토크나이저를 쓰지 않는다.
+ * 달라지는 점: 주석/문자열/따옴표 없는 url() 안의 중괄호는 구조로 보지 않고 (url(/img/*.png) 의 "/*" 도 주석이 아님),
+ * 문자열 내부 공백은 보존하며,
+ * 닫는 괄호 뒤 같은 줄에 남은 내용은 버리지 않고 다음 줄로 출력한다.
+ *
+ * 닫히지 않은 블록/주석, 짝 없는 '}' 같은 구문 오류는 변환을 멈추지 않고 {@link #getErrors()} 에 모인다.
+ * 처리 통계용으로 연 규칙/@규칙 블록 수와 변환하며 넣은 구분 토큰(" { ", " }", 줄바꿈) 수도 센다.
+ * 소스 맵을 만들 때는 ({@link #trackOrigins}) 출력 줄마다 첫 내용 글자의 원본 줄과 열을 함께 내보낸다.
+ */
+public final class CssTokenizer {
+
+    // 어휘 상태
+    private static final int NORMAL = 0;
+    private static final int COMMENT = 1;
+    private static final int STRING = 2;
+    private static final int URL_START = 3; // url( 바로 뒤: 따옴표가 오면 문자열, 아니면 따옴표 없는 url
+    private static final int URL = 4;       // 따옴표 없는 url: ')' 나 줄바꿈까지 (주석, 중괄호로 보지 않음)
+
+    // 공백 건너뛰기 모드
+    private static final int SKIP_NONE = 0;
+    private static final int SKIP_ALL = 1;  // 컨테이너 블록 시작 직후: 줄바꿈을 넘어 첫 내용까지 (trim 효과)
+    private static final int SKIP_LINE = 2; // 블록이 닫힌 직후: 같은 줄의 선행 공백만
+
+    // 유니코드 줄/문단 구분 문자 (\R 에 포함됨)
+    private static final char LINE_SEPARATOR = (char) 0x2028;
+    private static final char PARAGRAPH_SEPARATOR = (char) 0x2029;
+
+    // 안에 규칙(또는 @keyframes 의 키프레임)이 들어가는 @규칙 이름. 그 밖의 @규칙(@font-face, @page 등)은 일반 규칙처럼 한 줄
+    private static final String[] CONTAINER_RULES = {
+        "media", "supports", "layer", "container", "scope", "document", "starting-style", "keyframes", "feature"
+    };
+
+    // 최상위에 있을 때 출력 버퍼를 비우는 기준 크기 (최상위 블록이 끝나는 대로 비움)
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    private final Appendable out;
+
+    private char[] pending = CharBufferPool.take(FLUSH_THRESHOLD * 2); // 아직 내보내지 않은 출력
+    private int pendingLength;
+    private final StringBuilder lineBuf = new StringBuilder(); // 블록 밖 현재 줄
+    private final StringBuilder raw = new StringBuilder();     // 현재 최상위 블록 원문 (닫히지 않을 때 대비)
+
+    private int lex = NORMAL;
+    private char quote;
+    private boolean escape;
+    private boolean slash; // 직전 글자가 주석 밖의 '/'
+    private boolean star;  // 직전 글자가 주석 안의 '*'
+    private boolean crPending;
+    private char recent1, recent2, recent3, recent4; // 주석 밖의 최근 네 글자 (url( 판단, recent1 이 가장 최근)
+
+    private int containerDepth; // 열린 컨테이너(@media 계열 블록, 중첩 블록이 있는 규칙) 수
+    private boolean inRule;     // 일반 규칙 내부
+    private boolean continued;  // 컨테이너가 된 규칙의 나머지 선언을 모으는 중 (선택자 줄은 이미 출력)
+    private final BitSet ruleContainers = new BitSet(); // 깊이별: 규칙 문맥의 컨테이너 (중첩 블록이 생긴 규칙과 그 안의 @규칙)
+    private int ruleMark;       // 현재 규칙의 선택자 시작 위치 (pending 안)
+    private int contentStart;   // 현재 규칙의 정리된 내용 시작 위치 (pending 안, "선택자 { " 다음)
+    private int declEnd;        // 내용 중 마지막 ';' 다음 위치 (중첩 블록 앞의 선언 부분 끝)
+    private int skipWs = SKIP_NONE;
+    private int blockMark;      // 최상위 블록이 시작될 때의 pending 길이
+
+    private int line;           // 현재 줄 번호 (오류 메시지용)
+    private int blockLine;      // 현재 최상위 블록이 시작된 줄
+    private int commentLine;    // 현재 주석이 시작된 줄
+    private final List<String> errors = new ArrayList<>();
+
+    // 원본 위치 (소스 맵, origins 가 null 이면 기록하지 않음). 열은 0부터, 줄바꿈 정규화 뒤 글자 단위
+    private OriginQueue origins;
+    private long flushed;       // 지금까지 내보낸 출력 글자 수
+    private int column;         // 현재 글자의 열
+    private int nextColumn;
+    private boolean textPositioned; // lineBuf 의 첫 내용 글자 위치를 기록했음
+    private int textLine;
+    private int textColumn;
+    private int contentLine;    // 규칙 내용의 첫 글자
+    private int contentColumn;
+    private int declLine;       // 마지막 ';' 뒤 첫 글자 (중첩 블록의 선택자가 될 수 있음)
+    private int declColumn;
+    private int rawLine;        // 최상위 블록 원문의 첫 내용 글자
+    private int rawColumn;
+
+    // 처리 통계 ({@link ConversionStats#count})
+    private int ruleCount;
+    private int atRuleCount;
+    private int insertedTokenCount;
+
+    // 내용 공백 정리 상태
+    private int wsCount;
+    private char wsFirst;
+    private boolean wsNewline;
+
+    public CssTokenizer(Appendable out) {
+        this(out, 1);
+    }
+
+    // 입력의 일부(최상위 줄 시작부터)를 변환할 때: 오류 메시지의 줄 번호를 firstLine 부터 셈
+    CssTokenizer(Appendable out, int firstLine) {
+        this.out = out;
+        this.line = firstLine;
+    }
+
+    // 출력 줄마다 원본 위치를 origins 에 넣음 (출력 위치 기준). 변환 전에 호출
+    void trackOrigins(OriginQueue origins) {
+        this.origins = origins;
+    }
+
+    // 문자열 전체를 한 번에 변환하는 편의 메서드
+    public static String convert(CharSequence css) {
+        StringBuilder result = new StringBuilder(css.length());
+        CssTokenizer tokenizer = new CssTokenizer(result);
+        try {
+            tokenizer.feed(css);
+            tokenizer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder 는 IOException 을 던지지 않음
+        }
+        return result.toString();
+    }
+
+    public void feed(CharSequence css) throws IOException {
+        feed(css, 0, css.length());
+    }
+
+    public void feed(CharSequence css, int start, int end) throws IOException {
+        for (int i = start; i < end; i++) {
+            accept(css.charAt(i));
+            if (pendingLength >= FLUSH_THRESHOLD) maybeFlush();
+        }
+    }
+
+    public void feed(char[] buf, int off, int len) throws IOException {
+        for (int i = off, end = off + len; i < end; i++) {
+            accept(buf[i]);
+            if (pendingLength >= FLUSH_THRESHOLD) maybeFlush();
+        }
+    }
+
+    // 입력 끝: 남은 줄과 닫히지 않은 블록을 정리하고 모두 내보냄
+    public void finish() throws IOException {
+        if (lex == COMMENT) errors.add(commentLine + "행: 닫히지 않은 주석");
+        if (inBlock()) {
+            errors.add(blockLine + "행: 닫히지 않은 블록");
+            // 닫히지 않은 블록: 이미 만든 출력은 버리고 원문을 그대로 (기존 동작과 동일)
+            pendingLength = blockMark;
+            if (origins != null) {
+                origins.truncate(flushed + blockMark);
+                origin(trimStart(raw), rawLine, rawColumn);
+            }
+            int end = raw.length();
+            while (end > 0 && raw.charAt(end - 1) == '\n') end--;
+            emit(raw, 0, end);
+            emit('\n');
+        } else if (!isBlank(lineBuf)) {
+            if (origins != null) origin(trimStart(lineBuf), textLine, textColumn);
+            emit(lineBuf, 0, lineBuf.length());
+            emit('\n');
+        }
+        lineBuf.setLength(0);
+        raw.setLength(0);
+        containerDepth = 0;
+        inRule = false;
+        continued = false;
+        ruleContainers.clear();
+        flush();
+        CharBufferPool.give(pending);
+        pending = null;
+    }
+
+    private void accept(char c) {
+        // 줄바꿈 정규화: \r\n, \r 및 기타 줄 구분 문자는 모두 '\n' 하나로 (split("\\R") 과 동일)
+        if (crPending) {
+            crPending = false;
+            if (c == '\n') return;
+        }
+        if (c == '\r') {
+            crPending = true;
+            c = '\n';
+        } else if (c == '\u000B' || c == '\f' || c == '\u0085' || c == LINE_SEPARATOR || c == PARAGRAPH_SEPARATOR) {
+            c = '\n';
+        }
+        if (c == '\n') line++;
+        column = nextColumn;
+        nextColumn = c == '\n' ? 0 : column + 1;
+
+        boolean inString = lex == STRING;
+        boolean structural = false;
+        if (lex == URL_START && c != '"' && c != '\'' && c != ' ' && c != '\t') lex = URL; // 따옴표 없는 url
+        switch (lex) {
+            case NORMAL:
+                if (c == '"' || c == '\'') {
+                    lex = STRING;
+                    quote = c;
+                } else if (c == '*' && slash) {
+                    lex = COMMENT;
+                    star = false;
+                    commentLine = line;
+                } else if (c == '{' || c == '}') {
+                    structural = true;
+                } else if (c == '(' && CssPostProcessor.isUrlFunction(recent4, recent3, recent2, recent1)) {
+                    lex = URL_START;
+                }
+                slash = c == '/';
+                recent4 = recent3;
+                recent3 = recent2;
+                recent2 = recent1;
+                recent1 = c;
+                break;
+            case COMMENT:
+                if (c == '/' && star) lex = NORMAL;
+                star = c == '*';
+                break;
+            case URL_START:
+                if (c == '"' || c == '\'') { // 공백이면 그대로 기다림
+                    lex = STRING;
+                    quote = c;
+                }
+                break;
+            case URL:
+                if (c == '\n' || (c == ')' && !escape)) endUrl(c);
+                else escape = !escape && c == '\\';
+                break;
+            default: // STRING
+                if (escape) escape = false;
+                else if (c == '\\') escape = true;
+                else if (c == quote || c == '\n') lex = NORMAL; // 줄바꿈은 잘못된 문자열을 끝냄
+                break;
+        }
+
+        if (inBlock()) raw.append(c);
+        if (inRule) {
+            ruleChar(c, structural, inString && c != '\n');
+        } else {
+            textChar(c, structural);
+        }
+    }
+
+    // url() 이 끝남 (줄바꿈은 잘못된 url 을 끝냄). 다음 url( 판단은 ')' 부터
+    private void endUrl(char c) {
+        lex = NORMAL;
+        escape = false;
+        slash = false;
+        recent4 = recent3 = recent2 = 0;
+        recent1 = c;
+    }
+
+    // --- 블록 밖 (최상위 또는 컨테이너 내부) ---
+    private void textChar(char c, boolean structural) {
+        if (skipWs != SKIP_NONE) {
+            if (c == '\n' && skipWs == SKIP_LINE) {
+                skipWs = SKIP_NONE;
+            } else if (c <= ' ') {
+                return;
+            } else {
+                skipWs = SKIP_NONE;
+            }
+        }
+        if (c == '\n') {
+            if (!isBlank(lineBuf)) {
+                if (origins != null) origin(trimStart(lineBuf), textLine, textColumn);
+                emit(lineBuf, 0, lineBuf.length());
+                emit('\n');
+            }
+            lineBuf.setLength(0);
+            textPositioned = false;
+        } else if (structural && c == '{') {
+            openBlock();
+        } else if (structural && c == '}' && containerDepth > 0) {
+            closeContainer();
+        } else {
+            if (structural) errors.add(line + "행: 짝이 없는 '}'");
+            if (origins != null && !textPositioned && c > ' ') {
+                textPositioned = true;
+                textLine = line - 1;
+                textColumn = column;
+            }
+            lineBuf.append(c); // 최상위의 짝 없는 '}' 도 일반 텍스트로 취급
+        }
+    }
+
+    private void openBlock() {
+        int end = trimEnd(lineBuf);
+        int start = Math.min(trimStart(lineBuf), end); // 공백뿐인 줄이면 빈 선택자
+        if (!inBlock()) {
+            blockLine = line;
+            blockMark = pendingLength;
+            raw.setLength(0);
+            raw.append(lineBuf).append('{');
+            if (origins != null) {
+                rawLine = start < end ? textLine : line - 1;
+                rawColumn = start < end ? textColumn : column;
+            }
+        }
+        if (origins != null && start < end) origin(0, textLine, textColumn);
+        if (start < end && lineBuf.charAt(start) == '@') atRuleCount++;
+        else ruleCount++;
+        insertedTokenCount++;
+        if (isContainer(lineBuf, start, end)) {
+            emit(lineBuf, start, end);
+            emit(" {\n");
+            containerDepth++;
+            skipWs = SKIP_ALL;
+        } else {
+            // "선택자 { " 를 먼저 써 두고 내용은 그 뒤에 바로 씀 (finishRule 에서 마무리)
+            ruleMark = pendingLength;
+            emit(lineBuf, start, end);
+            emit(" { ");
+            contentStart = pendingLength;
+            declEnd = contentStart;
+            wsCount = 0;
+            wsNewline = false;
+            inRule = true;
+        }
+        lineBuf.setLength(0);
+        textPositioned = false;
+    }
+
+    private void closeContainer() {
+        // 닫는 괄호 앞의 마지막 줄은 뒤쪽 공백만 제거 (기존 contentPart.trim() 과 동일)
+        int end = trimEnd(lineBuf);
+        if (trimStart(lineBuf) < end) {
+            if (origins != null) origin(trimStart(lineBuf), textLine, textColumn);
+            emit(lineBuf, 0, end);
+            emit('\n');
+        }
+        lineBuf.setLength(0);
+        textPositioned = false;
+        emit("}\n");
+        insertedTokenCount++;
+        containerDepth--;
+        skipWs = SKIP_LINE;
+        resumeRule();
+    }
+
+    // --- 일반 규칙 내부 ---
+    private void ruleChar(char c, boolean structural, boolean inString) {
+        if (structural && c == '}') {
+            inRule = false;
+            if (continued) {
+                closeRuleContainer();
+            } else {
+                finishRule();
+            }
+            resumeRule();
+            return;
+        }
+        if (structural && c == '{') {
+            openNested();
+            return;
+        }
+        if (inString) {
+            if (origins != null) positionContent();
+            flushWhitespace(c);
+            emit(c); // 문자열 내부는 그대로 보존
+        } else if (c == ' ' || c == '\t' || c == '\n') {
+            if (wsCount++ == 0) wsFirst = c;
+            if (c == '\n') wsNewline = true;
+        } else {
+            if (origins != null) positionContent();
+            flushWhitespace(c);
+            emit(c);
+            if (c == ';' && lex == NORMAL) declEnd = pendingLength;
+        }
+    }
+
+    // 규칙 안에서 블록이 열림: 규칙을 컨테이너로 바꿔 선택자 줄과 그때까지의 선언 줄을 내보내고,
+    // 마지막 ';' 뒤의 내용을 선택자(또는 @규칙)로 하는 블록을 컨테이너 안에서처럼 새로 시작
+    private void openNested() {
+        lineBuf.setLength(0);
+        lineBuf.append(pending, declEnd, pendingLength - declEnd);
+        if (!continued) {
+            pending[contentStart - 1] = '\n'; // "선택자 { " -> "선택자 {\n"
+            containerDepth++;
+            ruleContainers.set(containerDepth);
+        }
+        pendingLength = declEnd;
+        if (origins != null) {
+            // 선언 줄과, 마지막 ';' 뒤의 내용을 선택자로 하는 블록
+            if (declEnd > contentStart) origin(contentStart - pendingLength, contentLine, contentColumn);
+            textPositioned = true;
+            textLine = declLine;
+            textColumn = declColumn;
+        }
+        if (declEnd > contentStart) {
+            emit('\n');
+            insertedTokenCount++;
+        }
+        inRule = false;
+        continued = false;
+        wsCount = 0; // '{' 앞 공백은 버림
+        wsNewline = false;
+        openBlock();
+        if (!inRule) {
+            // 규칙 안의 @media 등: 안에 선언이 오므로 바깥 규칙처럼 선언을 모음
+            ruleContainers.set(containerDepth);
+            resumeRule();
+        }
+    }
+
+    // 컨테이너가 된 규칙의 닫는 괄호: 남은 선언 한 줄과 닫는 괄호 줄
+    private void closeRuleContainer() {
+        wsCount = 0;
+        wsNewline = false;
+        if (pendingLength > contentStart) {
+            if (origins != null) origin(contentStart - pendingLength, contentLine, contentColumn);
+            emit('\n');
+            insertedTokenCount++;
+        }
+        emit("}\n");
+        insertedTokenCount++;
+        ruleContainers.clear(containerDepth);
+        containerDepth--;
+        continued = false;
+        skipWs = SKIP_LINE;
+    }
+
+    // 닫힌 블록이 규칙 문맥의 컨테이너 안에 있었으면 그 컨테이너의 나머지 선언을 이어서 모음
+    private void resumeRule() {
+        if (containerDepth == 0 || !ruleContainers.get(containerDepth)) return;
+        inRule = true;
+        continued = true;
+        contentStart = pendingLength;
+        declEnd = contentStart;
+        wsCount = 0;
+        wsNewline = false;
+    }
+
+    // 연속 공백 처리: 줄바꿈이 섞였거나 2개 이상이면 공백 하나, 앞뒤가 { } ; : 이거나 내용 맨 앞이면 제거
+    private void flushWhitespace(char next) {
+        if (wsCount == 0) return;
+        if (pendingLength > contentStart && !isPunctuation(pending[pendingLength - 1]) && !isPunctuation(next)) {
+            emit(wsNewline || wsCount > 1 ? ' ' : wsFirst);
+        }
+        wsCount = 0;
+        wsNewline = false;
+    }
+
+    private void finishRule() {
+        // 끝에 남은 공백은 버림 (trim 효과)
+        wsCount = 0;
+        wsNewline = false;
+        if (pendingLength > contentStart) {
+            emit(" }\n");
+            insertedTokenCount++;
+        } else if (contentStart - 3 > ruleMark) {
+            pendingLength = contentStart - 1; // 내용이 없어도 선택자는 유지: "선택자 { }"
+            emit(" }\n");
+            insertedTokenCount++;
+        } else {
+            pendingLength = ruleMark; // 선택자도 내용도 없음
+            if (origins != null) origins.truncate(flushed + ruleMark);
+            insertedTokenCount--;     // 여는 " { " 도 지워짐
+        }
+        skipWs = SKIP_LINE;
+    }
+
+    // 지금까지 발견된 구문 오류 ("N행: 내용" 형식)
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    // 지금까지 연 일반 규칙 블록 수 (중첩 규칙 포함)
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    // 지금까지 연 @규칙 블록 수 (@media 같은 컨테이너와 @font-face 같은 일반 @규칙 모두)
+    public int getAtRuleCount() {
+        return atRuleCount;
+    }
+
+    // 변환하며 넣은 구분 토큰 수: 여는 " { ", 닫는 " }", 중첩 블록 사이의 선언을 나누는 줄바꿈
+    public int getInsertedTokenCount() {
+        return insertedTokenCount;
+    }
+
+    private boolean inBlock() {
+        return containerDepth > 0 || inRule;
+    }
+
+    // 최상위 블록 밖일 때만 (블록 안의 출력은 닫히지 않으면 원문으로 바뀌므로 아직 내보낼 수 없음)
+    private void maybeFlush() throws IOException {
+        if (!inBlock()) flush();
+    }
+
+    private void flush() throws IOException {
+        if (pendingLength == 0) return;
+        // 배열을 그대로 넘김 (Writer.append(CharSequence) 처럼 문자열 복사본을 만들지 않음)
+        if (out instanceof Writer) {
+            ((Writer) out).write(pending, 0, pendingLength);
+        } else if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(pending, 0, pendingLength);
+        } else {
+            out.append(CharBuffer.wrap(pending, 0, pendingLength));
+        }
+        flushed += pendingLength;
+        pendingLength = 0;
+    }
+
+    // 지금 출력 위치에서 delta 만큼 떨어진 글자가 원본 (line, column) 에서 옴
+    private void origin(int delta, int line, int column) {
+        origins.add(flushed + pendingLength + delta, line, column);
+    }
+
+    // 규칙 내용의 첫 글자, 마지막 ';' 뒤의 첫 글자 위치 (c 를 내보내기 직전)
+    private void positionContent() {
+        if (pendingLength == declEnd) {
+            declLine = line - 1;
+            declColumn = column;
+            if (declEnd == contentStart) {
+                contentLine = declLine;
+                contentColumn = declColumn;
+            }
+        }
+    }
+
+    // --- 출력 배열에 쓰기 ---
+    private void emit(char c) {
+        if (pendingLength == pending.length) grow(1);
+        pending[pendingLength++] = c;
+    }
+
+    private void emit(String s) {
+        int n = s.length();
+        if (pendingLength + n > pending.length) grow(n);
+        s.getChars(0, n, pending, pendingLength);
+        pendingLength += n;
+    }
+
+    private void emit(StringBuilder s, int start, int end) {
+        int n = end - start;
+        if (pendingLength + n > pending.length) grow(n);
+        s.getChars(start, end, pending, pendingLength);
+        pendingLength += n;
+    }
+
+    private void grow(int extra) {
+        pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + extra));
+    }
+
+    // 이름이 CONTAINER_RULES 중 하나인 @규칙 (대소문자 무시, -webkit- 같은 벤더 접두사 무시)
+    private static boolean isContainer(CharSequence s, int start, int end) {
+        if (start >= end || s.charAt(start) != '@') return false;
+        int nameStart = start + 1;
+        if (nameStart < end && s.charAt(nameStart) == '-') {
+            int dash = nameStart + 1;
+            while (dash < end && s.charAt(dash) != '-' && isNameChar(s.charAt(dash))) dash++;
+            if (dash < end && s.charAt(dash) == '-') nameStart = dash + 1;
+        }
+        int nameEnd = nameStart;
+        while (nameEnd < end && isNameChar(s.charAt(nameEnd))) nameEnd++;
+        for (String name : CONTAINER_RULES) {
+            if (equalsIgnoreCase(s, nameStart, nameEnd, name)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isNameChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_' || c >= 0x80;
+    }
+
+    private static boolean equalsIgnoreCase(CharSequence s, int start, int end, String lowerName) {
+        if (end - start != lowerName.length()) return false;
+        for (int i = 0; i < lowerName.length(); i++) {
+            char c = s.charAt(start + i);
+            if (c >= 'A' && c <= 'Z') c += 'a' - 'A';
+            if (c != lowerName.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isPunctuation(char c) {
+        return c == '{' || c == '}' || c == ';' || c == ':';
+    }
+
+    private static boolean isBlank(CharSequence s) {
+        return trimStart(s) == s.length();
+    }
+
+    // String.trim() 과 같은 기준 (' ' 이하의 문자)
+    private static int trimStart(CharSequence s) {
+        int i = 0;
+        while (i < s.length() && s.charAt(i) <= ' ') i++;
+        return i;
+    }
+
+    private static int trimEnd(CharSequence s) {
+        int i = s.length();
+        while (i > 0 && s.charAt(i - 1) <= ' ') i--;
+        return i;
+    }
+}
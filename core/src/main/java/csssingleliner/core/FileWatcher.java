@@ -0,0 +1,121 @@
+package csssingleliner.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * {@link WatchService} 로 디렉터리를 감시하다가 파일이 만들어지거나 바뀌면 알려준다.
+ *
+ * 편집기는 저장 한 번에 이벤트를 여러 개 만들기도 하므로, 이벤트가 {@link #QUIET_MS} 동안 더 오지
+ * 않을 때까지 모았다가 바뀐 파일 경로(절대 경로) 묶음으로 한 번에 전달한다. 전달은 감시 스레드에서 한다.
+ * 감시 중에 새로 생긴 하위 디렉터리를 등록하지 못하면 그 디렉터리와 예외를 errors 로 전달한다 (출력은 호출한 쪽이 함).
+ */
+public final class FileWatcher implements Closeable {
+
+    static final long QUIET_MS = 100;
+
+    private final WatchService service;
+    private final Consumer<Set<Path>> listener;
+    private final BiConsumer<Path, IOException> errors;
+    private final Map<WatchKey, Path> directories = new ConcurrentHashMap<>();
+    private final Set<Path> recursive = ConcurrentHashMap.newKeySet();
+
+    public FileWatcher(Consumer<Set<Path>> listener, BiConsumer<Path, IOException> errors) throws IOException {
+        this.service = FileSystems.getDefault().newWatchService();
+        this.listener = listener;
+        this.errors = errors;
+    }
+
+    // 디렉터리 감시 등록. recursive 면 하위 디렉터리(나중에 생기는 것 포함)도 감시
+    public void register(Path dir, boolean recursive) throws IOException {
+        Path absolute = dir.toAbsolutePath().normalize();
+        if (recursive) {
+            List<Path> subdirectories;
+            try (Stream<Path> stream = Files.walk(absolute)) {
+                subdirectories = stream.filter(Files::isDirectory).collect(Collectors.toList());
+            }
+            for (Path sub : subdirectories) {
+                registerOne(sub);
+                this.recursive.add(sub);
+            }
+        } else {
+            registerOne(absolute);
+        }
+    }
+
+    private void registerOne(Path dir) throws IOException {
+        WatchKey key = dir.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        directories.put(key, dir);
+    }
+
+    // 감시 스레드(데몬) 시작
+    public Thread start(String name) {
+        Thread thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // close() 되거나 스레드가 인터럽트될 때까지 감시 (호출한 스레드에서 실행)
+    public void run() {
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                WatchKey key = service.take();
+                do {
+                    collect(key, changed);
+                    key = service.poll(QUIET_MS, TimeUnit.MILLISECONDS);
+                } while (key != null);
+                if (!changed.isEmpty()) listener.accept(changed);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // close() 로 종료
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> changed) {
+        Path dir = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null || event.kind() == StandardWatchEventKinds.OVERFLOW) continue;
+            Path path = dir.resolve((Path) event.context());
+            if (Files.isDirectory(path)) {
+                // 감시 중인 트리에 새로 생긴 디렉터리도 감시
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && recursive.contains(dir)) {
+                    try {
+                        register(path, true);
+                    } catch (IOException e) {
+                        errors.accept(path, e);
+                    }
+                }
+            } else {
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) directories.remove(key); // 디렉터리가 삭제됨
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+    }
+}
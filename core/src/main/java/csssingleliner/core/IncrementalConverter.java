@@ -0,0 +1,118 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 같은 파일을 여러 번 변환할 때 바뀐 블록만 다시 변환하는 변환기 (파일 감시 모드용).
+ *
+ * 입력을 최상위 블록 단위 구간으로 나누고({@link CssBlockSplitter}), 구간 내용의 해시로 이전 변환
+ * 결과를 찾아 재사용한다. 결과는 {@link CssTokenizer#convert} 와 항상 같다. 캐시에는 직전 변환에
+ * 나온 구간만 남기므로 메모리는 파일 하나 분량을 넘지 않는다. 파일마다 하나씩 쓰며, 스레드 안전하지 않다.
+ */
+public final class IncrementalConverter {
+
+    private final ConversionStats stats; // 없으면 null
+
+    private Map<Long, Block> blocks = new HashMap<>();
+    private List<String> errors = Collections.emptyList();
+    private int segmentCount;
+    private int convertedCount;
+
+    public IncrementalConverter() {
+        this(null);
+    }
+
+    // 변환할 때마다 변환 단계와 새로 변환한 구간의 토크나이저 카운터를 stats 에 기록
+    public IncrementalConverter(ConversionStats stats) {
+        this.stats = stats;
+    }
+
+    public String convert(CharSequence css) {
+        ConversionStats.Sample sample = stats != null ? ConversionStats.start() : null;
+        CssBlockSplitter segments = CssBlockSplitter.split(css);
+        Map<Long, Block> next = new HashMap<>(segments.count() * 2);
+        List<String> newErrors = new ArrayList<>();
+        StringBuilder result = new StringBuilder(css.length());
+        convertedCount = 0;
+        for (int i = 0; i < segments.count(); i++) {
+            int start = segments.start(i);
+            int end = i + 1 < segments.count() ? segments.start(i + 1) : css.length();
+            long hash = hash(css, start, end);
+            Block block = blocks.get(hash);
+            if (block == null || block.length != end - start) {
+                block = convertSegment(css, start, end, segments.line(i), newErrors, stats);
+                convertedCount++;
+            }
+            // 오류가 있는 구간은 오류 메시지의 줄 번호가 위치에 따라 달라지므로 캐시하지 않음 (매번 다시 변환)
+            if (block.cacheable) next.put(hash, block);
+            result.append(block.output);
+        }
+        blocks = next;
+        errors = Collections.unmodifiableList(newErrors);
+        segmentCount = segments.count();
+        if (stats != null) stats.record(ConversionStats.Stage.CONVERT, sample, css.length());
+        return result.toString();
+    }
+
+    // 구간 하나 변환 (오류는 errors 에 추가)
+    private static Block convertSegment(CharSequence css, int start, int end, int line, List<String> errors,
+                                        ConversionStats stats) {
+        StringBuilder output = new StringBuilder((end - start) + 16);
+        CssTokenizer tokenizer = new CssTokenizer(output, line);
+        try {
+            tokenizer.feed(css, start, end);
+            tokenizer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder 는 IOException 을 던지지 않음
+        }
+        errors.addAll(tokenizer.getErrors());
+        if (stats != null) stats.count(tokenizer);
+        return new Block(end - start, output.toString(), tokenizer.getErrors().isEmpty());
+    }
+
+    // 직전 변환에서 발견된 구문 오류
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    // 직전 변환의 전체 구간 수
+    public int getBlockCount() {
+        return segmentCount;
+    }
+
+    // 직전 변환에서 캐시를 쓰지 못하고 새로 변환한 구간 수
+    public int getConvertedBlockCount() {
+        return convertedCount;
+    }
+
+    // 64비트 FNV-1a (길이도 함께 비교하므로 충돌 가능성은 무시할 수 있음)
+    private static long hash(CharSequence css, int start, int end) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            char c = css.charAt(i);
+            h ^= c & 0xFF;
+            h *= 0x100000001b3L;
+            h ^= c >>> 8;
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+
+    private static final class Block {
+        final int length;
+        final String output;
+        final boolean cacheable;
+
+        Block(int length, String output, boolean cacheable) {
+            this.length = length;
+            this.output = output;
+            this.cacheable = cacheable;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 변환의 마지막 단계: 최종 출력을 그대로 하위 Writer 로 넘기면서 {@link CssIndex.Builder} 에도 흘려 색인을 만든다.
+ * 색인의 위치는 이 Writer 에 쓴 글자 수 기준 (최종 출력의 offset). 하위 Writer 는 닫지 않는다.
+ */
+final class IndexingWriter extends Writer {
+
+    private final Writer out;
+    private final CssIndex.Builder index;
+
+    IndexingWriter(Writer out, CssIndex.Builder index) {
+        this.out = out;
+        this.index = index;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        index.accept(cbuf, off, len);
+        out.write(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        index.append(str.subSequence(off, off + len));
+        out.write(str, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,806 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * 한 줄 변환 결과를 받아 압축(minify)해 내보내는 Writer. {@link CssMinifier} 의 흘려보내는 형태.
+ *
+ * 한 줄 변환 결과는 규칙 하나가 한 줄("선택자 { 내용 }"), 컨테이너는 여는 줄("@media ... {")과 닫는 줄("}"),
+ * 중첩 규칙 사이의 선언은 따로 한 줄이므로, 토크나이저가 찾아 둔 규칙 경계를 줄 단위로 그대로 쓴다.
+ * 원본에서 여러 줄이던 선택자 목록과 @규칙 머리는 ',' 뒤의 줄바꿈이 남아 있으므로 이어 붙여 한 줄로 본다.
+ * 주석은 앞단의 {@link PostProcessingWriter} 가 (문자열, url() 을 피해) 지우고, 줄마다:
+ * - 없어도 되는 공백을 모두 지움 (값 안의 공백은 하나로, 문자열과 url() 안은 그대로)
+ * - 블록의 마지막 ';' 을 지움
+ * - #aabbcc 를 #abc 로, 0px 같은 길이 0 을 0 으로, 0.5 를 .5 로 줄임 (괄호 안의 0 단위는 calc() 때문에 그대로)
+ * - 바로 이웃한 일반 규칙의 선택자가 같으면 내용을, 내용이 같으면 선택자를 합침 (목록에 이미 있는 선택자는 빼고)
+ *   (모르는 선택자가 하나라도 있으면 브라우저가 목록 전체를 버리므로, 타입/클래스/id/속성 선택자와
+ *   CSS2 의사 클래스·요소만으로 된 선택자끼리만 합침. :has(), :not() 이나 벤더 접두사가 있으면 그대로 둠)
+ * - 규칙 안에서 똑같은 선언이 다시 나오면 앞의 것을 지움 (뒤의 것이 어차피 이김. 합친 내용도 마찬가지)
+ * - 내용이 없는 일반 규칙은 지움
+ * 합칠 수 있도록 마지막 규칙 하나만 붙잡아 두므로 메모리는 규칙 하나 크기다.
+ * 입력이 끝나면 {@link #finish()} 를 호출해야 남은 내용이 내보내진다 (하위 Writer 는 닫지 않음).
+ * 소스 맵을 만들 때는 ({@link #trackOrigins}) 줄의 원본 위치를 그 줄을 줄인 결과의 시작 위치로 옮긴다.
+ * 합쳐진 규칙은 앞 규칙의 위치만 남는다.
+ */
+final class MinifyingWriter extends Writer {
+
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    // 0 을 단위 없이 써도 되는 길이 단위 (%, 시간, 각도 등은 단위가 필요하거나 뜻이 달라짐)
+    private static final String[] LENGTH_UNITS = {
+        "px", "em", "rem", "ex", "ch", "vw", "vh", "vmin", "vmax", "cm", "mm", "q", "in", "pt", "pc"
+    };
+
+    // 모든 브라우저가 아는 의사 클래스·요소 (CSS2). ':' 을 하나 쓰든 둘 쓰든 같게 봄
+    private static final String[] SAFE_PSEUDOS = {
+        "link", "visited", "hover", "active", "focus", "first-child", "lang",
+        "before", "after", "first-line", "first-letter"
+    };
+
+    private final Writer out;
+    private final Writer input; // 주석을 지우는 PostProcessingWriter, 이미 지운 입력이면 LineSink
+    private char[] line = new char[256];
+    private int lineLength;
+    private final StringBuilder output = new StringBuilder(FLUSH_THRESHOLD * 2);
+
+    // 합칠 수 있도록 붙잡아 둔 규칙
+    private boolean held;
+    private boolean heldMergeable;
+    private final StringBuilder heldSelector = new StringBuilder();
+    private final StringBuilder heldBody = new StringBuilder();
+
+    private boolean pendingSemicolon; // 선언 줄 끝의 ';' (다음이 '}' 면 버림)
+    private boolean pendingNewline;   // 건드리지 않은 원문 줄의 앞뒤 (다음 내용과 붙지 않게)
+
+    // 줄 하나를 줄이는 작업 버퍼
+    private final StringBuilder selector = new StringBuilder();
+    private final StringBuilder body = new StringBuilder();
+    private char[] declarations = new char[256];  // 중복 선언 찾기 작업 버퍼
+    private char[] selectorList = new char[256];  // 합칠 선택자 목록 비교 작업 버퍼
+    private int[] declarationEnds = new int[16];
+
+    // 원본 위치 (소스 맵, originsOut 이 null 이면 하지 않음)
+    private OriginQueue lineOrigins; // LineSink 입력 위치 기준
+    private OriginQueue originsOut;  // 출력 위치 기준
+    private long lineInput;          // LineSink 에 들어온 글자 수
+    private long written;            // out 으로 내보낸 글자 수
+    private boolean lineHasOrigin;   // 현재 줄의 원본 위치 (줄의 첫 위치)
+    private int lineOriginLine;
+    private int lineOriginColumn;
+    private boolean heldHasOrigin;
+    private int heldOriginLine;
+    private int heldOriginColumn;
+
+    MinifyingWriter(Writer out) {
+        this(out, false);
+    }
+
+    // commentsRemoved: 입력에서 주석을 이미 지웠음 (CssPostProcessor 의 한 패스가 글자별 Writer 보다 빠름)
+    MinifyingWriter(Writer out, boolean commentsRemoved) {
+        this.out = out;
+        this.input = commentsRemoved ? new LineSink() : new PostProcessingWriter(new LineSink(), true, false);
+    }
+
+    // 입력 위치 기준의 원본 위치를 받아 출력 위치 기준으로 넘김. 쓰기 전에 호출
+    void trackOrigins(OriginQueue in, OriginQueue out) {
+        originsOut = out;
+        if (input instanceof PostProcessingWriter) {
+            lineOrigins = new OriginQueue(); // 주석을 지운 뒤의 위치
+            ((PostProcessingWriter) input).trackOrigins(in, lineOrigins);
+        } else {
+            lineOrigins = in;
+        }
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        input.write(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        input.write(str, off, len);
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        input.append(csq);
+        return this;
+    }
+
+    // 입력 끝: 남은 줄과 붙잡아 둔 규칙을 내보냄
+    void finish() throws IOException {
+        if (input instanceof PostProcessingWriter) ((PostProcessingWriter) input).finish();
+        if (lineLength > 0) minifyLine();
+        releaseHeld();
+        pendingSemicolon = false; // 입력 끝은 열린 문장과 블록을 닫으므로 ';' 가 필요 없음
+        flushOutput();
+        out.flush();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushOutput();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        finish();
+        out.close();
+    }
+
+    // 주석을 지운 글자를 줄로 모음
+    private final class LineSink extends Writer {
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            for (int i = off, end = off + len; i < end; i++) {
+                accept(cbuf[i]);
+            }
+        }
+
+        // 긴 문자열을 통째로 char[] 로 복사하지 않음
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            for (int i = off, end = off + len; i < end; i++) {
+                accept(str.charAt(i));
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private void accept(char c) throws IOException {
+        if (lineOrigins != null) {
+            while (lineOrigins.nextOffset() <= lineInput) {
+                if (!lineHasOrigin) {
+                    lineHasOrigin = true;
+                    lineOriginLine = lineOrigins.line();
+                    lineOriginColumn = lineOrigins.column();
+                }
+                lineOrigins.remove();
+            }
+            lineInput++;
+        }
+        if (c == '\n' && !continuesList()) {
+            minifyLine();
+        } else if (c == '\n') {
+            // 여러 줄에 걸친 선택자 목록, @규칙 머리 ("a,\nb:hover,\nc { ... }"): 다음 줄과 이어 한 줄로 줄임
+            if (lineLength == line.length) line = Arrays.copyOf(line, lineLength * 2);
+            line[lineLength++] = ' ';
+        } else {
+            if (lineLength == line.length) line = Arrays.copyOf(line, lineLength * 2);
+            line[lineLength++] = c;
+        }
+    }
+
+    // 지금까지 모은 줄이 ',' 로 끝남 (한 줄 변환 결과에서 목록이 줄을 넘는 곳은 블록 밖의 선택자와 @규칙 머리뿐)
+    private boolean continuesList() {
+        int end = trimEnd(line, 0, lineLength);
+        return end > 0 && line[end - 1] == ',';
+    }
+
+    private void minifyLine() throws IOException {
+        int end = trimEnd(line, 0, lineLength);
+        int start = skipSpace(line, 0, end);
+        if (start < end) {
+            int open = indexOfOpenBrace(line, start, end);
+            if (end - start == 1 && line[start] == '}') {
+                releaseHeld();
+                pendingSemicolon = false;
+                write('}');
+            } else if (open >= 0 && open == end - 1) {
+                // 컨테이너 여는 줄: "@media ... {" 또는 중첩 규칙이 있는 "선택자 {"
+                releaseHeld();
+                selector.setLength(0);
+                if (line[start] == '@') minifyPrelude(line, start, open, selector);
+                else minifySelector(line, start, open, selector);
+                write(selector);
+                write('{');
+            } else if (open >= 0 && line[end - 1] == '}') {
+                rule(start, open, end - 1);
+            } else if (open < 0 && line[start] == '@') {
+                // 블록 없는 @규칙 (@import, @charset, @layer a, b; ...)
+                releaseHeld();
+                selector.setLength(0);
+                minifyPrelude(line, start, end, selector);
+                // 끝의 ';' 는 떼어 두고 다음 내용 앞에 붙임 (블록의 마지막이면 버림, '}' 로 끝난 문장은 ';' 로 끝냄)
+                int last = selector.length() - 1;
+                write(selector, 0, selector.charAt(last) == ';' ? last : last + 1);
+                pendingSemicolon = true;
+            } else if (open < 0 && indexOfTopLevel(line, start, end, ':') >= 0) {
+                // 중첩 규칙 사이의 선언 줄
+                releaseHeld();
+                body.setLength(0);
+                minifyDeclarations(line, start, end, body);
+                if (body.length() > 0) {
+                    write(body);
+                    pendingSemicolon = true;
+                }
+            } else {
+                // 그 밖의 줄 (구문 오류로 남은 원문 등): 건드리지 않고 줄을 나눠 둠
+                releaseHeld();
+                pendingNewline = true;
+                separate(line[start]);
+                lineOrigin();
+                output.append(line, start, end - start);
+                pendingNewline = true;
+            }
+        }
+        lineLength = 0;
+        lineHasOrigin = false;
+        if (output.length() >= FLUSH_THRESHOLD) flushOutput();
+    }
+
+    // "선택자 { 내용 }" 한 줄
+    private void rule(int start, int open, int close) {
+        selector.setLength(0);
+        body.setLength(0);
+        boolean atRule = line[start] == '@';
+        if (atRule) minifyPrelude(line, start, open, selector);
+        else minifySelector(line, start, open, selector);
+        minifyDeclarations(line, open + 1, close, body);
+        if (body.length() == 0 && !atRule) return; // 빈 규칙은 버림
+        boolean mergeable = !atRule && selector.length() > 0 && isSafeSelector(selector);
+        if (held && heldMergeable && mergeable && body.length() > 0) {
+            if (contentEquals(selector, heldSelector)) {
+                heldBody.append(';').append(body); // 같은 선택자: 내용을 이어 붙임 (순서 유지)
+                return;
+            }
+            if (contentEquals(body, heldBody)) {
+                appendSelectors(heldSelector, selector); // 같은 내용: 선택자 목록으로
+                return;
+            }
+        }
+        releaseHeld();
+        held = true;
+        heldMergeable = mergeable;
+        heldSelector.setLength(0);
+        heldSelector.append(selector);
+        heldBody.setLength(0);
+        heldBody.append(body);
+        heldHasOrigin = lineHasOrigin;
+        heldOriginLine = lineOriginLine;
+        heldOriginColumn = lineOriginColumn;
+        lineHasOrigin = false;
+    }
+
+    private void releaseHeld() {
+        if (!held) return;
+        held = false;
+        separate('{');
+        if (heldHasOrigin && originsOut != null) {
+            originsOut.add(written + output.length(), heldOriginLine, heldOriginColumn);
+        }
+        removeDuplicateDeclarations(heldBody);
+        output.append(heldSelector).append('{').append(heldBody).append('}');
+    }
+
+    // 선택자 목록 list 뒤에 add 의 선택자들을 붙임. 목록에 이미 있는 선택자는 건너뜀
+    // (a:hover,a:focus 다음의 a:focus 는 다시 붙이지 않음)
+    private void appendSelectors(StringBuilder list, StringBuilder add) {
+        int listLength = list.length();
+        int length = listLength + 1 + add.length();
+        if (length > selectorList.length) selectorList = new char[Math.max(length, selectorList.length * 2)];
+        char[] s = selectorList;
+        list.getChars(0, listLength, s, 0);
+        s[listLength] = ',';
+        add.getChars(0, add.length(), s, listLength + 1);
+        for (int from = listLength + 1; from < length; ) {
+            int comma = indexOfTopLevel(s, from, length, ',');
+            int end = comma < 0 ? length : comma;
+            if (!containsSelector(s, from - 1, from, end)) list.append(',').append(s, from, end - from);
+            from = end + 1;
+        }
+    }
+
+    // ',' 로 나뉜 목록 s[0, listEnd) 에 s[start, end) 와 같은 선택자가 있는지
+    private static boolean containsSelector(char[] s, int listEnd, int start, int end) {
+        for (int from = 0; from < listEnd; ) {
+            int comma = indexOfTopLevel(s, from, listEnd, ',');
+            int partEnd = comma < 0 ? listEnd : comma;
+            if (rangeEquals(s, from, partEnd, start, end)) return true;
+            from = partEnd + 1;
+        }
+        return false;
+    }
+
+    // 줄인 선언 목록에서 뒤에 똑같이 다시 나오는 선언을 지움 (순서는 그대로)
+    private void removeDuplicateDeclarations(StringBuilder body) {
+        int length = body.length();
+        if (length > declarations.length) declarations = new char[Math.max(length, declarations.length * 2)];
+        char[] s = declarations;
+        body.getChars(0, length, s, 0);
+        int count = 0;
+        for (int from = 0; from <= length; ) {
+            int semicolon = indexOfTopLevel(s, from, length, ';');
+            int to = semicolon < 0 ? length : semicolon;
+            if (count == declarationEnds.length) declarationEnds = Arrays.copyOf(declarationEnds, count * 2);
+            declarationEnds[count++] = to;
+            from = to + 1;
+        }
+        if (count < 2) return;
+        body.setLength(0);
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int end = declarationEnds[i];
+            boolean repeated = false;
+            for (int j = i + 1, laterStart = end + 1; j < count && !repeated; laterStart = declarationEnds[j++] + 1) {
+                repeated = rangeEquals(s, start, end, laterStart, declarationEnds[j]);
+            }
+            if (!repeated) {
+                if (body.length() > 0) body.append(';');
+                body.append(s, start, end - start);
+            }
+            start = end + 1;
+        }
+    }
+
+    private void write(char c) {
+        separate(c);
+        output.append(c);
+    }
+
+    private void write(CharSequence s) {
+        write(s, 0, s.length());
+    }
+
+    private void write(CharSequence s, int start, int end) {
+        if (start == end) return;
+        separate(s.charAt(start));
+        lineOrigin();
+        output.append(s, start, end);
+    }
+
+    // 현재 줄의 원본 위치를 지금 출력 위치에 (줄마다 한 번)
+    private void lineOrigin() {
+        if (lineHasOrigin && originsOut != null) {
+            originsOut.add(written + output.length(), lineOriginLine, lineOriginColumn);
+            lineHasOrigin = false;
+        }
+    }
+
+    // 앞 내용과의 구분: 남겨 둔 ';' 이나 줄바꿈
+    private void separate(char next) {
+        if (pendingSemicolon) {
+            if (next != '}') output.append(';');
+            pendingSemicolon = false;
+        }
+        if (pendingNewline) {
+            output.append('\n');
+            pendingNewline = false;
+        }
+    }
+
+    private void flushOutput() throws IOException {
+        if (output.length() == 0) return;
+        written += output.length();
+        out.append(output);
+        output.setLength(0);
+    }
+
+    // --- 줄 안의 조각 줄이기 ---
+
+    // 선언 목록: 최상위 ';' 마다 나눠 "속성:값" 을 ';' 로 이음 (마지막 ';' 없음)
+    private static void minifyDeclarations(char[] s, int start, int end, StringBuilder dst) {
+        int from = start;
+        while (from < end) {
+            int semicolon = indexOfTopLevel(s, from, end, ';');
+            int to = semicolon < 0 ? end : semicolon;
+            int declStart = skipSpace(s, from, to);
+            int declEnd = trimEnd(s, declStart, to);
+            if (declStart < declEnd) {
+                if (dst.length() > 0) dst.append(';');
+                int colon = indexOfTopLevel(s, declStart, declEnd, ':');
+                if (colon < 0) {
+                    minifyValue(s, declStart, declEnd, false, dst);
+                } else {
+                    int nameEnd = trimEnd(s, declStart, colon);
+                    int valueStart = skipSpace(s, colon + 1, declEnd);
+                    dst.append(s, declStart, nameEnd - declStart).append(':');
+                    if (nameEnd - declStart >= 2 && s[declStart] == '-' && s[declStart + 1] == '-') {
+                        dst.append(s, valueStart, declEnd - valueStart); // 사용자 정의 속성 값은 그대로
+                    } else {
+                        minifyValue(s, valueStart, declEnd, !isFlexProperty(s, declStart, nameEnd), dst);
+                    }
+                }
+            }
+            from = to + 1;
+        }
+    }
+
+    /*
+     * 값: 공백은 하나로, ',' '/' '(' ')' '!' 옆의 공백은 지움. 문자열과 url() 은 그대로.
+     * 토큰마다 색(#aabbcc -> #abc)과 숫자(0.50 -> .5, 괄호 밖 0px -> 0)를 줄임.
+     */
+    private static void minifyValue(char[] s, int start, int end, boolean zeroUnits, StringBuilder dst) {
+        int depth = 0;
+        boolean space = false;
+        int i = start;
+        while (i < end) {
+            char c = s[i];
+            if (c <= ' ') {
+                space = true;
+                i++;
+                continue;
+            }
+            if (space) {
+                space = false;
+                char last = dst.length() > 0 ? dst.charAt(dst.length() - 1) : ':';
+                if (!isValueDelimiter(last) && last != '(' && c != ')' && !isValueDelimiter(c)) dst.append(' ');
+            }
+            if (c == '"' || c == '\'') {
+                int stringEnd = skipString(s, i, end);
+                dst.append(s, i, stringEnd - i);
+                i = stringEnd;
+            } else if (c == '(') {
+                depth++;
+                dst.append(c);
+                i++;
+                if (isUrl(s, start, i - 1)) {
+                    int close = skipUrl(s, i, end);
+                    dst.append(s, i, close - i);
+                    i = close;
+                }
+            } else if (c == ')') {
+                if (depth > 0) depth--;
+                dst.append(c);
+                i++;
+            } else if (isValueDelimiter(c) || c == '!') {
+                dst.append(c);
+                i++;
+            } else {
+                int tokenEnd = i;
+                while (tokenEnd < end && !isTokenEnd(s[tokenEnd])) tokenEnd++;
+                minifyToken(s, i, tokenEnd, zeroUnits && depth == 0, dst);
+                i = tokenEnd;
+            }
+        }
+    }
+
+    private static void minifyToken(char[] s, int start, int end, boolean zeroUnits, StringBuilder dst) {
+        char first = s[start];
+        if (first == '#') {
+            minifyColor(s, start, end, dst);
+        } else if ((first >= '0' && first <= '9') || first == '.' || first == '-' || first == '+') {
+            minifyNumber(s, start, end, zeroUnits, dst);
+        } else {
+            dst.append(s, start, end - start);
+        }
+    }
+
+    // #AABBCC -> #abc, #aabbccdd -> #abcd (16진수 색만, 소문자로)
+    private static void minifyColor(char[] s, int start, int end, StringBuilder dst) {
+        int digits = end - start - 1;
+        if (digits != 3 && digits != 4 && digits != 6 && digits != 8) {
+            dst.append(s, start, end - start);
+            return;
+        }
+        for (int i = start + 1; i < end; i++) {
+            if (Character.digit(s[i], 16) < 0) {
+                dst.append(s, start, end - start);
+                return;
+            }
+        }
+        dst.append('#');
+        boolean shorten = digits >= 6;
+        for (int i = start + 1; shorten && i < end; i += 2) {
+            shorten = lower(s[i]) == lower(s[i + 1]);
+        }
+        for (int i = start + 1; i < end; i += shorten ? 2 : 1) dst.append(lower(s[i]));
+    }
+
+    // 부호, 숫자, 소수점, 단위(글자 또는 %)로만 된 토큰: 앞뒤 0 을 지우고, 길이 0 은 단위 없이
+    private static void minifyNumber(char[] s, int start, int end, boolean zeroUnits, StringBuilder dst) {
+        int i = start;
+        if (s[i] == '-' || s[i] == '+') i++;
+        int intStart = i;
+        while (i < end && isDigit(s[i])) i++;
+        int intEnd = i;
+        int fracStart = i;
+        int fracEnd = i;
+        if (i < end && s[i] == '.') {
+            fracStart = ++i;
+            while (i < end && isDigit(s[i])) i++;
+            fracEnd = i;
+        }
+        int unitStart = i;
+        while (i < end && isLetter(s[i])) i++;
+        if (i < end && s[i] == '%' && i == unitStart) i++;
+        if (i != end || (intStart == intEnd && fracStart == fracEnd) || (fracStart > intEnd && fracStart == fracEnd)) {
+            dst.append(s, start, end - start); // 숫자가 아님 (식별자, 1e3, "1." 등)
+            return;
+        }
+        while (intStart < intEnd - 1 && s[intStart] == '0') intStart++; // 007 -> 7
+        while (fracEnd > fracStart && s[fracEnd - 1] == '0') fracEnd--;  // 1.50 -> 1.5
+        boolean zero = isZeros(s, intStart, intEnd) && fracStart == fracEnd;
+        if (zero) {
+            if (unitStart == end || (zeroUnits && isLengthUnit(s, unitStart, end))) {
+                dst.append('0');
+            } else {
+                dst.append('0').append(s, unitStart, end - unitStart); // 0% , 0s 는 단위 유지
+            }
+            return;
+        }
+        if (s[start] == '-') dst.append('-');
+        if (!isZeros(s, intStart, intEnd)) dst.append(s, intStart, intEnd - intStart);
+        if (fracStart < fracEnd) dst.append('.').append(s, fracStart, fracEnd - fracStart);
+        else if (isZeros(s, intStart, intEnd)) dst.append('0');
+        dst.append(s, unitStart, end - unitStart);
+    }
+
+    // 선택자: 결합자(> + ~)와 ',' 옆, 괄호 안쪽의 공백을 지움. 문자열은 그대로
+    private static void minifySelector(char[] s, int start, int end, StringBuilder dst) {
+        boolean space = false;
+        for (int i = start; i < end; i++) {
+            char c = s[i];
+            if (c <= ' ') {
+                space = true;
+                continue;
+            }
+            if (space) {
+                space = false;
+                char last = dst.length() > 0 ? dst.charAt(dst.length() - 1) : ',';
+                if (!isCombinator(last) && last != '(' && !isCombinator(c) && c != ')') dst.append(' ');
+            }
+            if (c == '"' || c == '\'') {
+                int stringEnd = skipString(s, i, end);
+                dst.append(s, i, stringEnd - i);
+                i = stringEnd - 1;
+            } else {
+                dst.append(c);
+            }
+        }
+    }
+
+    // @규칙 머리 (@media screen and (max-width: 600px)): ',' ':' 뒤와 ',' ';' 앞, 괄호 안쪽의 공백을 지움.
+    // "and (" 의 공백은 필요하므로 남김. 문자열과 url() 은 그대로
+    private static void minifyPrelude(char[] s, int start, int end, StringBuilder dst) {
+        boolean space = false;
+        int depth = 0;
+        for (int i = start; i < end; i++) {
+            char c = s[i];
+            if (c <= ' ') {
+                space = true;
+                continue;
+            }
+            if (space) {
+                space = false;
+                char last = dst.length() > 0 ? dst.charAt(dst.length() - 1) : ',';
+                boolean drop = last == ',' || last == '(' || c == ',' || c == ';' || c == ')'
+                        || (depth > 0 && (last == ':' || c == ':'));
+                if (!drop) dst.append(' ');
+            }
+            if (c == '"' || c == '\'') {
+                int stringEnd = skipString(s, i, end);
+                dst.append(s, i, stringEnd - i);
+                i = stringEnd - 1;
+            } else if (c == '(') {
+                depth++;
+                dst.append(c);
+                if (isUrl(s, start, i)) {
+                    int close = skipUrl(s, i + 1, end);
+                    dst.append(s, i + 1, close - (i + 1));
+                    i = close - 1;
+                }
+            } else {
+                if (c == ')' && depth > 0) depth--;
+                dst.append(c);
+            }
+        }
+    }
+
+    // --- 글자 판단 ---
+
+    // 문자열 밖, 괄호 밖의 첫 '{' (없으면 -1)
+    private static int indexOfOpenBrace(char[] s, int start, int end) {
+        return indexOfTopLevel(s, start, end, '{');
+    }
+
+    // 문자열 밖, 괄호 밖의 첫 target
+    private static int indexOfTopLevel(char[] s, int start, int end, char target) {
+        int depth = 0;
+        for (int i = start; i < end; i++) {
+            char c = s[i];
+            if (c == '"' || c == '\'') {
+                i = skipString(s, i, end) - 1;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (depth > 0) depth--;
+            } else if (c == target && depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // quote 위치의 문자열 끝 다음 위치 (닫히지 않으면 end)
+    private static int skipString(char[] s, int quote, int end) {
+        char q = s[quote];
+        for (int i = quote + 1; i < end; i++) {
+            char c = s[i];
+            if (c == '\\') i++;
+            else if (c == q) return i + 1;
+        }
+        return end;
+    }
+
+    // url( 다음 위치부터: 따옴표 없는 url 이면 ')' 위치까지, 따옴표로 시작하면 그대로(from)
+    private static int skipUrl(char[] s, int from, int end) {
+        int i = from;
+        while (i < end && s[i] <= ' ') i++;
+        if (i < end && (s[i] == '"' || s[i] == '\'')) return from;
+        for (; i < end; i++) {
+            char c = s[i];
+            if (c == '\\') i++;
+            else if (c == ')') return i;
+        }
+        return end;
+    }
+
+    // paren 위치의 '(' 앞이 url 함수 이름인가
+    private static boolean isUrl(char[] s, int start, int paren) {
+        if (paren - start < 3) return false;
+        return CssPostProcessor.isUrlFunction(paren - start >= 4 ? s[paren - 4] : 0,
+                s[paren - 3], s[paren - 2], s[paren - 1]);
+    }
+
+    // 줄인 선택자가 타입, 클래스, id, 속성 선택자와 CSS2 의사 클래스·요소로만 되어 있음 (선택자 목록에 합쳐도 안전)
+    private static boolean isSafeSelector(CharSequence selector) {
+        int length = selector.length();
+        for (int i = 0; i < length; i++) {
+            char c = selector.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                i = skipAttribute(selector, i + 1, length);
+                if (i < 0) return false;
+            } else if (c == ':') {
+                int start = i + 1 < length && selector.charAt(i + 1) == ':' ? i + 2 : i + 1;
+                int end = start;
+                while (end < length && isNameChar(selector.charAt(end))) end++;
+                if (!isSafePseudo(selector, start, end)) return false;
+                if (end < length && selector.charAt(end) == '(') {
+                    // :lang(언어) 만 괄호를 씀
+                    if (!regionEqualsIgnoreCase(selector, start, end, "lang")) return false;
+                    int close = end + 1;
+                    while (close < length && isNameChar(selector.charAt(close))) close++;
+                    if (close == length || selector.charAt(close) != ')') return false;
+                    end = close + 1;
+                } else if (regionEqualsIgnoreCase(selector, start, end, "lang")) {
+                    return false;
+                }
+                i = end - 1;
+            }
+        }
+        return true;
+    }
+
+    // '[' 다음부터 속성 선택자 "[이름]", "[이름=값]" (=, ~=, |=, ^=, $=, *=) 의 ']' 위치. 대소문자 플래그(i, s) 등 그 밖의 모양이면 -1
+    private static int skipAttribute(CharSequence s, int from, int end) {
+        int i = from;
+        while (i < end && isNameChar(s.charAt(i))) i++;
+        if (i == from || i == end) return -1;
+        char c = s.charAt(i);
+        if (c == ']') return i;
+        if ("~|^$*".indexOf(c) >= 0) c = ++i < end ? s.charAt(i) : 0;
+        if (c != '=' || ++i == end) return -1;
+        char q = s.charAt(i);
+        if (q == '"' || q == '\'') {
+            for (i++; i < end && s.charAt(i) != q; i++) {
+                if (s.charAt(i) == '\\') i++;
+            }
+            i++;
+        } else {
+            int start = i;
+            while (i < end && isNameChar(s.charAt(i))) i++;
+            if (i == start) return -1;
+        }
+        return i < end && s.charAt(i) == ']' ? i : -1;
+    }
+
+    private static boolean isNameChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_' || c >= 0x80;
+    }
+
+    private static boolean isSafePseudo(CharSequence s, int start, int end) {
+        for (String name : SAFE_PSEUDOS) {
+            if (regionEqualsIgnoreCase(s, start, end, name)) return true;
+        }
+        return false;
+    }
+
+    private static boolean regionEqualsIgnoreCase(CharSequence s, int start, int end, String lower) {
+        if (end - start != lower.length()) return false;
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower(s.charAt(start + i)) != lower.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean rangeEquals(char[] s, int aStart, int aEnd, int bStart, int bEnd) {
+        if (aEnd - aStart != bEnd - bStart) return false;
+        for (int i = 0; i < aEnd - aStart; i++) {
+            if (s[aStart + i] != s[bStart + i]) return false;
+        }
+        return true;
+    }
+
+    // flex 축약형의 단위 없는 0 은 flex-basis 가 아니라 flex-grow 로 읽힐 수 있음
+    private static boolean isFlexProperty(char[] s, int start, int end) {
+        return equalsIgnoreCase(s, start, end, "flex") || equalsIgnoreCase(s, start, end, "flex-basis");
+    }
+
+    private static boolean isLengthUnit(char[] s, int start, int end) {
+        for (String unit : LENGTH_UNITS) {
+            if (equalsIgnoreCase(s, start, end, unit)) return true;
+        }
+        return false;
+    }
+
+    private static boolean equalsIgnoreCase(char[] s, int start, int end, String lower) {
+        if (end - start != lower.length()) return false;
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower(s[start + i]) != lower.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean contentEquals(CharSequence a, CharSequence b) {
+        if (a.length() != b.length()) return false;
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static boolean isZeros(char[] s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s[i] != '0') return false;
+        }
+        return true;
+    }
+
+    private static boolean isValueDelimiter(char c) {
+        return c == ',' || c == '/' || c == '!';
+    }
+
+    private static boolean isTokenEnd(char c) {
+        return c <= ' ' || c == ',' || c == '/' || c == '!' || c == '(' || c == ')' || c == '"' || c == '\'';
+    }
+
+    private static boolean isCombinator(char c) {
+        return c == '>' || c == '+' || c == '~' || c == ',';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static int skipSpace(char[] s, int start, int end) {
+        while (start < end && s[start] <= ' ') start++;
+        return start;
+    }
+
+    private static int trimEnd(char[] s, int start, int end) {
+        while (end > start && s[end - 1] <= ' ') end--;
+        return end;
+    }
+}
@@ -0,0 +1,72 @@
+package csssingleliner.core;
+
+import java.util.Arrays;
+
+/**
+ * 소스 맵용 원본 위치 대기열: "이 출력 위치의 글자는 원본의 (줄, 열) 에서 왔음" 을 출력 순서대로 담는다.
+ *
+ * 변환 단계(토크나이저 -> 후처리/압축 -> 최종 출력)마다 하나씩 두고, 앞 단계가 자기 출력 위치로 넣은 항목을
+ * 뒤 단계가 자기 입력 글자 수를 세며 꺼내 다시 자기 출력 위치로 넣는다. 마지막 {@link SourceMapWriter} 가
+ * 출력의 줄과 열로 바꿔 {@link SourceMap} 에 기록한다. 아직 다음 단계가 읽지 않은 출력만큼만 쌓이므로
+ * 메모리는 버퍼 크기(최상위 블록 하나)에 비례한다. 원본 줄과 열은 0부터.
+ */
+final class OriginQueue {
+
+    static final long NONE = Long.MAX_VALUE;
+
+    private long[] offsets = new long[64];
+    private int[] lines = new int[64];
+    private int[] columns = new int[64];
+    private int head;
+    private int size;
+
+    // offset 은 앞에 넣은 항목보다 작지 않아야 함
+    void add(long offset, int line, int column) {
+        if (size == offsets.length) grow();
+        int i = (head + size) & (offsets.length - 1);
+        offsets[i] = offset;
+        lines[i] = line;
+        columns[i] = column;
+        size++;
+    }
+
+    // 맨 앞 항목의 출력 위치 (비었으면 NONE)
+    long nextOffset() {
+        return size == 0 ? NONE : offsets[head];
+    }
+
+    int line() {
+        return lines[head];
+    }
+
+    int column() {
+        return columns[head];
+    }
+
+    void remove() {
+        head = (head + 1) & (offsets.length - 1);
+        size--;
+    }
+
+    // 출력 위치가 offset 이상인 항목을 버림 (앞 단계가 아직 내보내지 않은 출력을 지웠을 때)
+    void truncate(long offset) {
+        while (size > 0 && offsets[(head + size - 1) & (offsets.length - 1)] >= offset) size--;
+    }
+
+    private void grow() {
+        int capacity = offsets.length * 2;
+        long[] newOffsets = new long[capacity];
+        int[] newLines = new int[capacity];
+        int[] newColumns = new int[capacity];
+        for (int k = 0; k < size; k++) {
+            int i = (head + k) & (offsets.length - 1);
+            newOffsets[k] = offsets[i];
+            newLines[k] = lines[i];
+            newColumns[k] = columns[i];
+        }
+        offsets = newOffsets;
+        lines = newLines;
+        columns = newColumns;
+        head = 0;
+    }
+}
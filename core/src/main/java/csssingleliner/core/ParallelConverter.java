@@ -0,0 +1,110 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 큰 스타일시트 하나를 여러 코어에서 나눠 변환한다.
+ *
+ * 먼저 한 번 빠르게 훑어 최상위 블록 경계(주석, 문자열 안은 제외)를 찾고({@link CssBlockSplitter}),
+ * 경계에서 자른 조각들을 ForkJoin 으로 나눠 변환한 뒤 원래 순서대로 이어 붙인다.
+ * 경계에서 토크나이저 상태는 처음과 같으므로 결과와 오류 목록은 {@link CssTokenizer#convert} 와 같다.
+ * 경계 탐색은 한 스레드에서 하지만 변환보다 몇 배 빠르다.
+ */
+public final class ParallelConverter {
+
+    // 조각 하나의 최소 크기. 작으면 작업 분배 비용이, 크면 코어 간 불균형이 커짐
+    static final int CHUNK_SIZE = 256 * 1024;
+
+    private ParallelConverter() {
+    }
+
+    // 공용 ForkJoin 풀에서 변환
+    public static String convert(CharSequence css) {
+        StringBuilder result = new StringBuilder(css.length());
+        convert(css, result, ForkJoinPool.commonPool());
+        return result.toString();
+    }
+
+    /**
+     * css 를 pool 에서 나눠 변환해 out 에 원래 순서대로 붙이고, 구문 오류 목록을 반환한다.
+     */
+    public static List<String> convert(CharSequence css, StringBuilder out, ForkJoinPool pool) {
+        return convert(css, out, pool, CHUNK_SIZE, null);
+    }
+
+    // 변환 단계와 모든 조각의 토크나이저 카운터를 stats 에 기록 (할당량은 호출한 스레드 몫만)
+    public static List<String> convert(CharSequence css, StringBuilder out, ForkJoinPool pool, ConversionStats stats) {
+        ConversionStats.Sample sample = ConversionStats.start();
+        List<String> errors = convert(css, out, pool, CHUNK_SIZE, stats);
+        stats.record(ConversionStats.Stage.CONVERT, sample, css.length());
+        return errors;
+    }
+
+    static List<String> convert(CharSequence css, StringBuilder out, ForkJoinPool pool, int chunkSize,
+                                ConversionStats stats) {
+        CssBlockSplitter chunks = CssBlockSplitter.split(css, chunkSize);
+        int count = chunks.count();
+        StringBuilder[] outputs = new StringBuilder[count];
+        List<List<String>> errors = new ArrayList<>(Collections.nCopies(count, Collections.<String>emptyList()));
+        pool.invoke(new ChunkTask(css, chunks, 0, count, outputs, errors, stats));
+
+        List<String> allErrors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            out.append(outputs[i]);
+            allErrors.addAll(errors.get(i));
+        }
+        return Collections.unmodifiableList(allErrors);
+    }
+
+    // 조각 [from, to) 변환. 하나가 남을 때까지 반으로 나눠 fork
+    private static final class ChunkTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final CharSequence css;
+        private final CssBlockSplitter chunks;
+        private final int from;
+        private final int to;
+        private final StringBuilder[] outputs;
+        private final List<List<String>> errors;
+        private final ConversionStats stats; // 없으면 null
+
+        ChunkTask(CharSequence css, CssBlockSplitter chunks, int from, int to, StringBuilder[] outputs,
+                  List<List<String>> errors, ConversionStats stats) {
+            this.css = css;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.outputs = outputs;
+            this.errors = errors;
+            this.stats = stats;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChunkTask(css, chunks, from, mid, outputs, errors, stats),
+                        new ChunkTask(css, chunks, mid, to, outputs, errors, stats));
+                return;
+            }
+            int start = chunks.start(from);
+            int end = from + 1 < chunks.count() ? chunks.start(from + 1) : css.length();
+            StringBuilder output = new StringBuilder(end - start);
+            CssTokenizer tokenizer = new CssTokenizer(output, chunks.line(from));
+            try {
+                tokenizer.feed(css, start, end);
+                tokenizer.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // StringBuilder 는 IOException 을 던지지 않음
+            }
+            outputs[from] = output;
+            errors.set(from, tokenizer.getErrors());
+            if (stats != null) stats.count(tokenizer);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * {@link CssPostProcessor#apply} 와 같은 후처리를 흘려보내면서 적용하는 Writer.
+ * 주석 하나, 공백 구간 하나 이상은 버퍼에 쌓지 않으므로 메모리는 입력 크기와 무관하다.
+ * 입력이 끝나면 {@link #finish()} 를 호출해야 남은 내용이 내보내진다 (하위 Writer 는 닫지 않음).
+ * 출력 버퍼는 {@link CharBufferPool} 에서 빌리고 finish() 에서 돌려준다.
+ * 소스 맵을 만들 때는 ({@link #trackOrigins}) 원본 위치가 붙은 입력 글자가 나가는 출력 위치로 옮겨 준다.
+ * 그 글자가 지워지면 (주석, 공백) 그 뒤에 처음 나가는 공백 아닌 글자로.
+ */
+final class PostProcessingWriter extends Writer {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Writer out;
+    private final boolean removeComments;
+    private final boolean collapseBlankLines;
+
+    // 1단계: 문맥 추적과 주석 제거 (문자열, url() 안은 그대로. 닫히지 않은 주석은 그대로 둠)
+    private int context = CssPostProcessor.NORMAL;
+    private char quote;
+    private boolean escape;
+    private final char[] recent = new char[4]; // 최근 입력 4글자 (url( 판단), recentCount 번째 글자가 recent[recentCount % 4]
+    private long recentCount;
+    private boolean slash;        // 보류 중인 '/'
+    private boolean star;
+    private final StringBuilder comment = new StringBuilder(); // 지울지 아직 모르는 주석 (닫히면 버림)
+
+    // 2단계: 공백 구간 축소 ((\R\s*){3,} -> \n\n, 문자열과 url() 밖에서만)
+    private final StringBuilder wsPrefix = new StringBuilder(); // 첫 줄바꿈 이전 공백
+    private final StringBuilder wsRest = new StringBuilder();   // 첫 줄바꿈부터의 공백
+    private int breaks;
+    private boolean lastCr;
+
+    private char[] buffer = CharBufferPool.take(BUFFER_SIZE);
+    private int buffered;
+
+    // 원본 위치 (소스 맵, originsIn 이 null 이면 하지 않음)
+    private OriginQueue originsIn;  // 입력 위치 기준
+    private OriginQueue originsOut; // 출력 위치 기준
+    private long inputCount;
+    private long flushed;          // out 으로 내보낸 글자 수 (출력 위치 = flushed + buffered)
+    private boolean originPending; // 다음에 나가는 공백 아닌 글자에 붙일 위치
+    private int originLine;
+    private int originColumn;
+
+    PostProcessingWriter(Writer out, boolean removeComments) {
+        this(out, removeComments, true);
+    }
+
+    PostProcessingWriter(Writer out, boolean removeComments, boolean collapseBlankLines) {
+        this.out = out;
+        this.removeComments = removeComments;
+        this.collapseBlankLines = collapseBlankLines;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        if (originsIn != null) {
+            // 원본 위치가 붙은 글자에서만 대기열을 봄 (글자마다는 위치 비교 하나)
+            long base = inputCount - off;
+            long next = originsIn.nextOffset();
+            for (int i = off, end = off + len; i < end; i++) {
+                char c = cbuf[i];
+                if (base + i >= next) next = takeOrigins(base + i);
+                scan(c);
+                if (originPending && c == '\n') lineEnded();
+            }
+            inputCount += len;
+            return;
+        }
+        for (int i = off, end = off + len; i < end; i++) {
+            scan(cbuf[i]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        if (originsIn != null) {
+            char[] chars = new char[len];
+            str.getChars(off, off + len, chars, 0);
+            write(chars, 0, len);
+            return;
+        }
+        for (int i = off, end = off + len; i < end; i++) {
+            scan(str.charAt(i));
+        }
+    }
+
+    @Override
+    public Writer append(CharSequence csq) throws IOException {
+        if (originsIn != null) {
+            String str = csq.toString();
+            write(str, 0, str.length());
+            return this;
+        }
+        for (int i = 0, end = csq.length(); i < end; i++) {
+            scan(csq.charAt(i));
+        }
+        return this;
+    }
+
+    // 입력 위치 기준의 원본 위치를 받아 출력 위치 기준으로 넘김. 쓰기 전에 호출
+    void trackOrigins(OriginQueue in, OriginQueue out) {
+        this.originsIn = in;
+        this.originsOut = out;
+    }
+
+    // 입력 위치 offset 까지의 원본 위치를 꺼내 (마지막 것을) 다음 출력 글자에 붙여 둠. 반환값은 다음 항목 위치
+    private long takeOrigins(long offset) {
+        long next;
+        while ((next = originsIn.nextOffset()) <= offset) {
+            originPending = true;
+            originLine = originsIn.line();
+            originColumn = originsIn.column();
+            originsIn.remove();
+        }
+        return next;
+    }
+
+    // 줄이 통째로 지워졌으면 (주석만 있던 줄) 그 위치는 다음 줄로 넘기지 않음
+    private void lineEnded() {
+        if (context != CssPostProcessor.COMMENT) originPending = false;
+    }
+
+    private void scan(char c) throws IOException {
+        stripComments(c);
+        recent[(int) (recentCount++ & 3)] = c;
+    }
+
+    // CssPostProcessor.normalize 와 같은 규칙을 한 글자씩 (c 는 아직 recent 에 없음)
+    private void stripComments(char c) throws IOException {
+        if (context == CssPostProcessor.URL_START && c != '"' && c != '\'' && c != ' ' && c != '\t') {
+            context = CssPostProcessor.URL; // 따옴표 없는 url
+        }
+        switch (context) {
+            case CssPostProcessor.STRING:
+                if (!CssPostProcessor.isLineBreak(c) || escape) {
+                    literal(c);
+                    if (escape) escape = false;
+                    else if (c == '\\') escape = true;
+                    else if (c == quote) context = CssPostProcessor.NORMAL;
+                    return;
+                }
+                context = CssPostProcessor.NORMAL; // 줄바꿈은 잘못된 문자열을 끝냄
+                break;
+            case CssPostProcessor.URL_START:
+                if (c == '"' || c == '\'') {
+                    context = CssPostProcessor.STRING;
+                    quote = c;
+                    literal(c);
+                    return;
+                }
+                literal(c); // url( 뒤의 공백
+                return;
+            case CssPostProcessor.URL:
+                if (escape) {
+                    escape = false;
+                    if (!CssPostProcessor.isLineBreak(c)) {
+                        literal(c);
+                        return;
+                    }
+                }
+                if (!CssPostProcessor.isLineBreak(c)) {
+                    literal(c);
+                    if (c == '\\') escape = true;
+                    else if (c == ')') context = CssPostProcessor.NORMAL;
+                    return;
+                }
+                context = CssPostProcessor.NORMAL;
+                break;
+            default:
+                break;
+        }
+
+        if (context == CssPostProcessor.COMMENT) {
+            if (removeComments) comment.append(c);
+            else collapse(c);
+            if (c == '/' && star) {
+                context = CssPostProcessor.NORMAL;
+                comment.setLength(0); // 닫힌 주석은 버림
+            }
+            star = c == '*';
+        } else if (slash) {
+            slash = false;
+            if (c == '*') {
+                context = CssPostProcessor.COMMENT;
+                star = false;
+                if (removeComments) {
+                    comment.append("/*");
+                } else {
+                    collapse('/');
+                    collapse('*');
+                }
+            } else {
+                collapse('/');
+                stripComments(c);
+            }
+        } else if (c == '/') {
+            slash = true;
+        } else if (c == '"' || c == '\'') {
+            context = CssPostProcessor.STRING;
+            quote = c;
+            collapse(c);
+        } else {
+            if (c == '(' && recentCount >= 3 && CssPostProcessor.isUrlFunction(recentCount >= 4 ? recent(4) : 0,
+                    recent(3), recent(2), recent(1))) {
+                context = CssPostProcessor.URL_START;
+            }
+            collapse(c);
+        }
+    }
+
+    // back 글자 전의 입력 글자
+    private char recent(int back) {
+        return recent[(int) ((recentCount - back) & 3)];
+    }
+
+    // 문자열, url() 안의 글자: 공백 구간을 끝내고 그대로 내보냄
+    private void literal(char c) throws IOException {
+        flushWhitespace();
+        emit(c);
+    }
+
+    private void collapse(char c) throws IOException {
+        if (!collapseBlankLines) {
+            emit(c);
+        } else if (isLineBreak(c)) {
+            if (!(c == '\n' && lastCr)) breaks++; // \r\n 은 줄바꿈 하나
+            lastCr = c == '\r';
+            wsRest.append(c);
+        } else if (isWhitespace(c)) {
+            lastCr = false;
+            if (breaks == 0) wsPrefix.append(c);
+            else wsRest.append(c);
+        } else {
+            flushWhitespace();
+            emit(c);
+        }
+    }
+
+    private void flushWhitespace() throws IOException {
+        if (wsPrefix.length() == 0 && wsRest.length() == 0) return;
+        emit(wsPrefix);
+        if (breaks >= 3) emit("\n\n");
+        else emit(wsRest);
+        wsPrefix.setLength(0);
+        wsRest.setLength(0);
+        breaks = 0;
+        lastCr = false;
+    }
+
+    // 입력 끝: 보류 중인 내용을 정리해 내보냄
+    void finish() throws IOException {
+        if (slash) {
+            slash = false;
+            collapse('/');
+        }
+        if (comment.length() > 0) { // 닫히지 않은 주석은 남김
+            context = CssPostProcessor.NORMAL;
+            for (int i = 0; i < comment.length(); i++) collapse(comment.charAt(i));
+            comment.setLength(0);
+        }
+        flushWhitespace();
+        flushBuffer();
+        out.flush();
+        CharBufferPool.give(buffer);
+        buffer = null;
+    }
+
+    private void emit(CharSequence s) throws IOException {
+        for (int i = 0; i < s.length(); i++) emit(s.charAt(i));
+    }
+
+    private void emit(char c) throws IOException {
+        if (buffer == null) throw new IOException("finish() 뒤에는 쓸 수 없습니다");
+        if (originPending && c > ' ') {
+            originsOut.add(flushed + buffered, originLine, originColumn);
+            originPending = false;
+        }
+        if (buffered == buffer.length) flushBuffer();
+        buffer[buffered++] = c;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffered == 0) return;
+        out.write(buffer, 0, buffered);
+        flushed += buffered;
+        buffered = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer != null) finish();
+        out.close();
+    }
+
+    private static boolean isWhitespace(char c) {
+        return CssPostProcessor.isWhitespace(c);
+    }
+
+    private static boolean isLineBreak(char c) {
+        return CssPostProcessor.isLineBreak(c);
+    }
+}
@@ -0,0 +1,357 @@
+package csssingleliner.core;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 디스크에 남는 변환 결과 캐시. 같은 입력을 여러 번 변환하는 CI 빌드처럼 실행이 바뀌어도 결과를 다시 쓴다.
+ *
+ * 키는 입력 파일 바이트의 해시(xxHash64)와 길이, 옵션, {@link CssSingleLiner#OUTPUT_VERSION}.
+ * 결과는 세대 파일(cache-N.bin)에 덧붙이기만 하고, 적중하면 그 구간을 메모리 매핑해 한 번에 읽는다.
+ * 세대 파일이 {@code maxBytes / GENERATIONS} 를 넘으면 새 세대를 열고, 전체가 maxBytes 를 넘으면 가장 오래된
+ * 세대부터 지운다. 오래된 세대에서 적중한 결과는 최신 세대로 다시 덧붙여 살려 둔다 (LRU 에 가깝게).
+ *
+ * 레코드: 머리(MAGIC, 키, 결과 길이, 결과 해시) + 결과 바이트. 열 때 세대 파일들을 훑어 색인을 만들고,
+ * 중간에 끊긴 레코드(쓰다가 죽은 경우) 뒤는 잘라 낸다. 결과 해시가 맞지 않는 레코드는 적중으로 보지 않는다.
+ *
+ * 한 프로세스 안에서는 스레드 안전하고 (병렬 배치 작업자들이 같이 씀), 같은 디렉터리를 여러 프로세스가
+ * 쓸 때는 덧붙이기와 세대 교체를 lock 파일의 FileLock 으로 막는다. 다른 프로세스가 나중에 쓴 결과는 다시 열 때 보인다.
+ */
+public final class ResultCache implements Closeable {
+
+    public static final long DEFAULT_MAX_BYTES = 256L * 1024 * 1024;
+
+    private static final int MAGIC = 0x43535343; // "CSSC"
+    private static final int HEADER_SIZE = 40;
+    private static final int GENERATIONS = 4;
+    private static final String PREFIX = "cache-";
+    private static final String SUFFIX = ".bin";
+
+    // 키의 변형 비트
+    private static final int REMOVE_COMMENTS = 1;
+    private static final int COLLAPSE_BLANK_LINES = 2;
+    private static final int SINGLE_LINE_TEXT = 4; // 후처리 없는 한 줄 변환 결과를 UTF-8 로 (GUI)
+    private static final int MINIFY = 8;
+
+    private final Path dir;
+    private final long maxBytes;
+    private final long generationBytes;
+    private final FileChannel lockChannel;
+
+    private final Map<Key, Location> index = new HashMap<>();
+    private final List<Generation> generations = new ArrayList<>(); // 오래된 것부터
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private ResultCache(Path dir, long maxBytes) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.generationBytes = Math.max(maxBytes / GENERATIONS, 1);
+        this.lockChannel = FileChannel.open(dir.resolve("lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * dir 의 캐시를 연다 (없으면 만든다). 전체 크기는 대략 maxBytes 를 넘지 않는다.
+     */
+    public static ResultCache open(Path dir, long maxBytes) throws IOException {
+        Files.createDirectories(dir);
+        ResultCache cache = new ResultCache(dir, maxBytes);
+        try {
+            cache.load();
+        } catch (IOException e) {
+            cache.close();
+            throw e;
+        }
+        return cache;
+    }
+
+    /** 캐시 키. 입력 파일을 (큰 파일은 메모리 매핑해) 해시한다 (2GB 이상이면 null: 캐시하지 않음). */
+    public static Key key(Path input, CssSingleLiner.Options options) throws IOException {
+        int variant = (options.isRemoveComments() ? REMOVE_COMMENTS : 0)
+                | (options.isCollapseBlankLines() ? COLLAPSE_BLANK_LINES : 0)
+                | (options.isMinify() ? MINIFY : 0);
+        return key(input, variant);
+    }
+
+    /** 후처리 없는 한 줄 변환 결과(UTF-8 텍스트)용 키. */
+    public static Key singleLineKey(Path input) throws IOException {
+        return key(input, SINGLE_LINE_TEXT);
+    }
+
+    private static Key key(Path input, int variant) throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) return null;
+            long hash = CssFileInput.shouldMap(size)
+                    ? ContentHash.xxh64(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), 0)
+                    : ContentHash.xxh64(channel, 0); // 작은 파일, Windows (매핑이 파일을 잠금)
+            return new Key(hash, size, variant, CssSingleLiner.OUTPUT_VERSION);
+        }
+    }
+
+    /**
+     * 저장된 결과를 매핑한 읽기 전용 버퍼, 없으면 null. 적중/누락 수를 센다.
+     */
+    public ByteBuffer get(Key key) throws IOException {
+        if (key == null) return null;
+        Location location;
+        synchronized (this) {
+            location = index.get(key);
+        }
+        ByteBuffer result = location != null ? read(key, location) : null;
+        if (result == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        synchronized (this) {
+            if (index.get(key) == location && location.generation != current()) {
+                append(key, result.duplicate()); // 지워질 세대에 있으면 최신 세대로 옮김
+            }
+        }
+        return result;
+    }
+
+    /** 결과를 덧붙인다 (result 의 position 부터 limit 까지, 위치는 바꾸지 않음). */
+    public synchronized void put(Key key, ByteBuffer result) throws IOException {
+        if (key == null || HEADER_SIZE + (long) result.remaining() > generationBytes) return;
+        append(key, result.duplicate());
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    // 현재 색인된 결과 수
+    public synchronized int size() {
+        return index.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Generation generation : generations) {
+            generation.channel.close();
+        }
+        generations.clear();
+        index.clear();
+        lockChannel.close();
+    }
+
+    // --- 읽기 ---
+
+    private ByteBuffer read(Key key, Location location) throws IOException {
+        ByteBuffer data;
+        try {
+            data = location.length == 0 ? ByteBuffer.allocate(0)
+                    : location.generation.channel.map(FileChannel.MapMode.READ_ONLY, location.offset, location.length);
+        } catch (IOException e) {
+            return null; // 다른 스레드가 세대를 지움
+        }
+        if (ContentHash.xxh64(data, 0) != location.checksum) {
+            synchronized (this) {
+                index.remove(key, location);
+            }
+            return null;
+        }
+        return data;
+    }
+
+    // --- 쓰기 (synchronized 안에서) ---
+
+    private void append(Key key, ByteBuffer result) throws IOException {
+        long checksum = ContentHash.xxh64(result, 0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putLong(key.hash).putLong(key.length).putInt(key.variant).putInt(key.version)
+                .putInt(result.remaining()).putLong(checksum);
+        header.flip();
+        int length = result.remaining();
+
+        FileLock lock = lockChannel.lock();
+        try {
+            Generation generation = current();
+            if (generation == null || generation.channel.size() + HEADER_SIZE + length > generationBytes) {
+                generation = startGeneration();
+            }
+            long offset = generation.channel.size();
+            long position = offset;
+            while (header.hasRemaining()) position += generation.channel.write(header, position);
+            while (result.hasRemaining()) position += generation.channel.write(result, position);
+            index.put(key, new Location(generation, offset + HEADER_SIZE, length, checksum));
+        } finally {
+            lock.release();
+        }
+    }
+
+    private Generation startGeneration() throws IOException {
+        long number = generations.isEmpty() ? 0 : current().number + 1;
+        for (Path file : listGenerations()) {
+            number = Math.max(number, generationNumber(file) + 1); // 다른 프로세스가 연 세대 다음
+        }
+        Generation generation = new Generation(number, FileChannel.open(generationPath(number),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        generations.add(generation);
+        evict();
+        return generation;
+    }
+
+    // 전체가 maxBytes 를 넘으면 오래된 세대부터 지움 (최신 세대는 남김)
+    private void evict() throws IOException {
+        long total = 0;
+        for (Generation generation : generations) total += generation.channel.size();
+        while (total > maxBytes && generations.size() > 1) {
+            Generation oldest = generations.remove(0);
+            total -= oldest.channel.size();
+            index.values().removeIf(location -> location.generation == oldest);
+            oldest.channel.close();
+            try {
+                Files.deleteIfExists(generationPath(oldest.number));
+            } catch (IOException e) {
+                // 다른 프로세스가 매핑 중이면 (Windows) 다음에 다시 지움
+            }
+        }
+    }
+
+    // --- 열기 ---
+
+    private void load() throws IOException {
+        FileLock lock = lockChannel.lock();
+        try {
+            for (Path file : listGenerations()) {
+                FileChannel channel;
+                try {
+                    channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                } catch (NoSuchFileException e) {
+                    continue;
+                }
+                Generation generation = new Generation(generationNumber(file), channel);
+                generations.add(generation);
+                scan(generation);
+            }
+            evict();
+        } finally {
+            lock.release();
+        }
+    }
+
+    // 세대 파일의 레코드 머리만 읽어 색인에 넣음. 끊긴 레코드부터 뒤는 잘라 냄
+    private void scan(Generation generation) throws IOException {
+        FileChannel channel = generation.channel;
+        long size = channel.size();
+        long offset = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (offset + HEADER_SIZE <= size) {
+            header.clear();
+            while (header.hasRemaining() && channel.read(header, offset + header.position()) > 0) {
+                // 머리 전체
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) break;
+            Key key = new Key(header.getLong(), header.getLong(), header.getInt(), header.getInt());
+            int length = header.getInt();
+            long checksum = header.getLong();
+            if (length < 0 || offset + HEADER_SIZE + length > size) break;
+            index.put(key, new Location(generation, offset + HEADER_SIZE, length, checksum));
+            offset += HEADER_SIZE + length;
+        }
+        if (offset < size) channel.truncate(offset);
+    }
+
+    private List<Path> listGenerations() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                if (generationNumber(file) >= 0) files.add(file);
+            }
+        }
+        Collections.sort(files, (a, b) -> Long.compare(generationNumber(a), generationNumber(b)));
+        return files;
+    }
+
+    private static long generationNumber(Path file) {
+        String name = file.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    private Path generationPath(long number) {
+        return dir.resolve(PREFIX + number + SUFFIX);
+    }
+
+    private Generation current() {
+        return generations.isEmpty() ? null : generations.get(generations.size() - 1);
+    }
+
+    /** 입력 해시, 길이, 변형(옵션), 출력 형식 버전. */
+    public static final class Key {
+        final long hash;
+        final long length;
+        final int variant;
+        final int version;
+
+        Key(long hash, long length, int variant, int version) {
+            this.hash = hash;
+            this.length = length;
+            this.variant = variant;
+            this.version = version;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return hash == other.hash && length == other.length && variant == other.variant && version == other.version;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash) * 31 + variant * 7 + version;
+        }
+    }
+
+    private static final class Generation {
+        final long number;
+        final FileChannel channel;
+
+        Generation(long number, FileChannel channel) {
+            this.number = number;
+            this.channel = channel;
+        }
+    }
+
+    private static final class Location {
+        final Generation generation;
+        final long offset;
+        final int length;
+        final long checksum;
+
+        Location(Generation generation, long offset, int length, long checksum) {
+            this.generation = generation;
+            this.offset = offset;
+            this.length = length;
+            this.checksum = checksum;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 한 줄 변환 결과에서 원본 CSS 의 위치를 찾아가는 Source Map (v3).
+ * 변환 중에 규칙(선택자), @규칙, 블록 밖 줄, 중첩 규칙 사이의 선언 줄마다 하나씩, 출력의 시작 위치와 원본의 시작 위치를
+ * 기록한다. 매핑은 출력 순서대로 들어오므로 들어오는 즉시 VLQ 로 인코딩해 붙이며, 나중에 출력과 원본을 비교하지 않는다.
+ *
+ * {@link CssSingleLiner#convert(java.io.Reader, java.io.Writer, SourceMap)} 가 채우고, {@link #toJson()} 으로 꺼낸다.
+ * 스레드 안전하지 않다 (변환 하나에 하나).
+ */
+public final class SourceMap {
+
+    private static final char[] BASE64 =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private final String file;
+    private final String source;
+    private final StringBuilder mappings = new StringBuilder();
+    private int mappingCount;
+
+    // 직전 매핑 (VLQ 값은 직전 매핑과의 차이)
+    private int generatedLine;
+    private int generatedColumn;
+    private int sourceLine;
+    private int sourceColumn;
+    private boolean lineHasMapping;
+
+    // file: 출력 파일 이름, source: 맵 파일 기준 원본 경로 (맵의 "file", "sources")
+    public SourceMap(String file, String source) {
+        if (file == null) throw new NullPointerException("file");
+        if (source == null) throw new NullPointerException("source");
+        this.file = file;
+        this.source = source;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getMappingCount() {
+        return mappingCount;
+    }
+
+    // 출력 (줄, 열) -> 원본 (줄, 열). 모두 0부터이고, 출력 위치는 앞의 매핑보다 뒤여야 함
+    void add(int toLine, int toColumn, int fromLine, int fromColumn) {
+        if (toLine < generatedLine || (toLine == generatedLine && toColumn < generatedColumn && lineHasMapping)) {
+            throw new IllegalStateException("매핑은 출력 순서대로 넣어야 합니다: " + toLine + ":" + toColumn);
+        }
+        while (generatedLine < toLine) {
+            mappings.append(';');
+            generatedLine++;
+            generatedColumn = 0;
+            lineHasMapping = false;
+        }
+        if (lineHasMapping) mappings.append(',');
+        vlq(toColumn - generatedColumn);
+        vlq(0); // 원본 파일 번호 (하나뿐)
+        vlq(fromLine - sourceLine);
+        vlq(fromColumn - sourceColumn);
+        generatedColumn = toColumn;
+        sourceLine = fromLine;
+        sourceColumn = fromColumn;
+        lineHasMapping = true;
+        mappingCount++;
+    }
+
+    // 부호를 맨 아래 비트로 옮긴 뒤 5비트씩, 이어지는 조각이 있으면 32 를 더해 Base64 로
+    private void vlq(int value) {
+        int v = value < 0 ? ((-value) << 1) | 1 : value << 1;
+        do {
+            int digit = v & 31;
+            v >>>= 5;
+            if (v != 0) digit |= 32;
+            mappings.append(BASE64[digit]);
+        } while (v != 0);
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder(mappings.length() + file.length() + source.length() + 64);
+        json.append("{\"version\":3,\"file\":");
+        appendString(json, file);
+        json.append(",\"sources\":[");
+        appendString(json, source);
+        json.append("],\"names\":[],\"mappings\":\"").append(mappings).append("\"}");
+        return json.toString();
+    }
+
+    public void write(Path path) throws IOException {
+        Files.write(path, toJson().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 출력 끝에 붙여 브라우저가 맵을 찾게 하는 주석
+    public static String comment(String url) {
+        return "/*# sourceMappingURL=" + url + " */";
+    }
+
+    private static void appendString(StringBuilder json, String s) {
+        json.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,79 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 변환의 마지막 단계: 최종 출력의 줄과 열을 세며, 앞 단계가 넣은 원본 위치를 {@link SourceMap} 매핑으로 기록한다.
+ * 출력은 그대로 하위 Writer 로 넘긴다 (닫지 않음).
+ */
+final class SourceMapWriter extends Writer {
+
+    private final Writer out;
+    private final OriginQueue origins;
+    private final SourceMap map;
+
+    private long written;
+    private int line;
+    private int column;
+
+    SourceMapWriter(Writer out, OriginQueue origins, SourceMap map) {
+        this.out = out;
+        this.origins = origins;
+        this.map = map;
+    }
+
+    // 앞 단계가 원본 위치를 넣을 대기열 (이 Writer 에 쓰는 위치 기준)
+    OriginQueue origins() {
+        return origins;
+    }
+
+    // 지금까지 쓴 출력이 비었거나 줄바꿈으로 끝남
+    boolean atLineStart() {
+        return column == 0;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        long next = origins.nextOffset();
+        long base = written - off;
+        for (int i = off, end = off + len; i < end; i++) {
+            if (next <= base + i) {
+                int fromLine;
+                int fromColumn;
+                do { // 같은 글자에 온 위치가 여럿이면 (앞 단계에서 글자가 지워짐) 마지막 것
+                    fromLine = origins.line();
+                    fromColumn = origins.column();
+                    origins.remove();
+                    next = origins.nextOffset();
+                } while (next <= base + i);
+                map.add(line, column, fromLine, fromColumn);
+            }
+            if (cbuf[i] == '\n') {
+                line++;
+                column = 0;
+            } else {
+                column++;
+            }
+        }
+        written += len;
+        out.write(cbuf, off, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        char[] chars = new char[len];
+        str.getChars(off, off + len, chars, 0);
+        write(chars, 0, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+}
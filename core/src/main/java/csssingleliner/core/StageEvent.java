@@ -0,0 +1,55 @@
+package csssingleliner.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * 처리 단계 하나의 JFR 이벤트. JFR 이 없는 JVM 에서는 로드하지 않는다 ({@link ConversionStats} 가 확인).
+ */
+@Name("csssingleliner.Stage")
+@Label("CSS Stage")
+@Category("CSSSingleLiner")
+final class StageEvent extends jdk.jfr.Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Units")
+    long units;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    // 하위 단계를 뺀 시간 (이벤트 구간은 하위 단계를 포함)
+    @Label("Exclusive Time")
+    @Timespan
+    long nanos;
+
+    // 단계 시작. JFR 이 이 이벤트를 기록 중이 아니면 null
+    static StageEvent start() {
+        StageEvent event = new StageEvent();
+        if (!event.isEnabled()) return null;
+        event.begin();
+        return event;
+    }
+
+    // started 가 null 이면 (구간 없이 합계만 아는 단계) 지금 시각의 이벤트로 남김
+    static void finish(StageEvent started, String stage, long nanos, long allocatedBytes, long units) {
+        StageEvent event = started;
+        if (event == null) {
+            event = new StageEvent();
+            if (!event.isEnabled()) return;
+        } else {
+            event.end();
+        }
+        event.stage = stage;
+        event.nanos = nanos;
+        event.allocatedBytes = allocatedBytes;
+        event.units = units;
+        event.commit();
+    }
+}
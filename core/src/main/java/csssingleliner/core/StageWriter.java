@@ -0,0 +1,64 @@
+package csssingleliner.core;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 쓰기 호출 안에서 걸린 시간과 할당량, 쓴 글자 수를 재는 Writer (하위 Writer 에서 걸린 시간 포함).
+ * 토크나이저는 수천 글자씩 모아 쓰므로 호출마다 재도 부담이 없다. 스레드 안전하지 않다.
+ */
+final class StageWriter extends Writer {
+
+    private final Writer out;
+    long nanos;
+    long allocatedBytes;
+    long chars;
+
+    StageWriter(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        long allocated = ConversionStats.allocatedBytes();
+        out.write(cbuf, off, len);
+        add(start, allocated, len);
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        long start = System.nanoTime();
+        long allocated = ConversionStats.allocatedBytes();
+        out.write(str, off, len);
+        add(start, allocated, len);
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        long start = System.nanoTime();
+        long allocated = ConversionStats.allocatedBytes();
+        out.write(c);
+        add(start, allocated, 1);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        long start = System.nanoTime();
+        long allocated = ConversionStats.allocatedBytes();
+        out.flush();
+        add(start, allocated, 0);
+    }
+
+    // 하위 Writer 는 닫지 않음
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private void add(long start, long allocated, int len) {
+        nanos += System.nanoTime() - start;
+        allocatedBytes += ConversionStats.allocatedBytes() - allocated;
+        chars += len;
+    }
+}
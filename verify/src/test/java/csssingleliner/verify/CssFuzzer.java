@@ -0,0 +1,180 @@
+package csssingleliner.verify;
+
+import java.util.Random;
+
+/**
+ * 차등 검사({@link DifferentialTest})용 무작위 CSS 생성기. 같은 시드는 항상 같은 내용을 만든다.
+ *
+ * benchmarks 의 CssCorpus 가 처리량을 재기 위한 고른 입력이라면, 이쪽은 변환기들의 경계 처리가 어긋나기 쉬운 입력을 만든다.
+ * - 4단계까지 중첩된 @media/@supports/@layer 블록, CSS 중첩(&), @keyframes, @font-face, 블록 없는 @규칙
+ * - 선택자 사이, 선언 사이, 값 안의 주석 (중괄호, 세미콜론, 한글이 든 것 포함)과 여러 줄 주석
+ * - 중괄호, 세미콜론, 주석 모양이 든 문자열과 따옴표 없는 url(//host/*.png)
+ * - 빈 규칙, 마지막 ';' 가 없는 선언, 겹친 ';;', 탭, CRLF, 여러 줄 빈 줄
+ * - 가끔 닫히지 않은 블록/주석/문자열로 끝나거나 짝 없는 '}' 가 섞인 입력 (구문 오류 경로)
+ */
+final class CssFuzzer {
+
+    private static final String[] SELECTORS = {
+        ".btn", "div > p", ".nav a:hover", "h1, h2", "#main .card::before", "ul li a[href^='http']",
+        "a[data-x=\"{\"]", ":root", "*", ".a:not(.b, .c)", "input[type=text]:focus", "li:nth-child(2n + 1)",
+        ".한글", "html body .x ~ .y + .z"
+    };
+    private static final String[] PROPERTIES = {
+        "color", "margin", "padding", "background", "font-family", "content", "width", "--custom", "grid-template-areas",
+        "transition", "-webkit-box-shadow"
+    };
+    private static final String[] VALUES = {
+        "#FFAABB", "0px 0.50em", "url(\"img/bg.png\") no-repeat", "url(//cdn.example.com/*.png)", "url(a.png)",
+        "\"Helvetica Neue\", Arial", "\"a;b}c\"", "'/* not a comment */'", "\"\\\"{\"", "calc(100% - 24px)",
+        "red !important", "rgba(0, 0, 0, .5)", "\"\\201C\"", "\"header\"\n        \"main\"", "opacity 0.3s ease-in-out",
+        "0", "1.0", "000", "-0.5px", "10PX"
+    };
+    private static final String[] COMMENTS = {
+        "/* c */", "/* { 중괄호 } */", "/* a; b: c; */", "/**/", "/* 한글 주석 */", "/* multi\n   line { } */",
+        "/*! keep */", "/* *** */"
+    };
+    private static final String[] AT_STATEMENTS = {
+        "@import url(\"a.css\");", "@import 'b.css' screen;", "@charset \"utf-8\";", "@namespace svg url(http://www.w3.org/2000/svg);",
+        "@layer base, components;"
+    };
+    private static final String[] AT_BLOCKS = {
+        "@media (max-width: 600px)", "@media screen and (min-width:320px)", "@supports (display: grid)", "@layer base",
+        "@container card (min-width: 400px)"
+    };
+
+    private final Random random;
+    private final StringBuilder css = new StringBuilder();
+
+    private CssFuzzer(long seed) {
+        this.random = new Random(seed);
+    }
+
+    // 대략 targetLength 글자 길이의 무작위 스타일시트
+    static String generate(long seed, int targetLength) {
+        return generate(seed, targetLength, true);
+    }
+
+    // errors 가 false 면 일부러 깨뜨리지 않음 (여러 입력을 이어 붙여도 최상위 블록 경계가 살아 있게)
+    static String generate(long seed, int targetLength, boolean errors) {
+        CssFuzzer fuzzer = new CssFuzzer(seed);
+        while (fuzzer.css.length() < targetLength) fuzzer.item(0);
+        if (errors) fuzzer.damage();
+        return fuzzer.lineEndings();
+    }
+
+    // 한 곳을 무작위로 고친 입력 (감시 모드처럼 같은 파일을 다시 변환하는 경로용)
+    static String edit(String css, long seed) {
+        Random random = new Random(seed);
+        int at = random.nextInt(css.length() + 1);
+        switch (random.nextInt(4)) {
+            case 0: // 지움
+                return css.substring(0, at) + css.substring(Math.min(css.length(), at + 1 + random.nextInt(40)));
+            case 1: // 선언 하나
+                return css.substring(0, at) + " color: " + pick(random, VALUES) + "; " + css.substring(at);
+            case 2: // 규칙 하나
+                return css.substring(0, at) + "\n" + pick(random, SELECTORS) + " { margin: 0 }\n" + css.substring(at);
+            default: // 구조를 깨는 글자 하나
+                return css.substring(0, at) + "{}\"/*;".charAt(random.nextInt(6)) + css.substring(at);
+        }
+    }
+
+    private void item(int depth) {
+        int kind = random.nextInt(depth < 4 ? 12 : 8);
+        if (kind < 4) {
+            rule(depth);
+        } else if (kind == 4) {
+            css.append(indent(depth)).append(pick(random, COMMENTS)).append('\n');
+        } else if (kind == 5) {
+            css.append(indent(depth)).append(pick(random, AT_STATEMENTS)).append('\n');
+        } else if (kind == 6) {
+            blankLines();
+        } else if (kind == 7) {
+            keyframesOrFontFace(depth);
+        } else {
+            css.append(indent(depth)).append(pick(random, AT_BLOCKS)).append(random.nextBoolean() ? " {\n" : "{");
+            int count = 1 + random.nextInt(4);
+            for (int i = 0; i < count; i++) item(depth + 1);
+            css.append(indent(depth)).append("}\n");
+        }
+    }
+
+    private void rule(int depth) {
+        String indent = indent(depth);
+        css.append(indent).append(pick(random, SELECTORS));
+        if (random.nextInt(4) == 0) css.append(",\n").append(indent).append(pick(random, SELECTORS));
+        if (random.nextInt(8) == 0) css.append(' ').append(pick(random, COMMENTS));
+        css.append(random.nextInt(5) == 0 ? "{" : " {\n");
+        int declarations = random.nextInt(6);
+        for (int i = 0; i < declarations; i++) {
+            css.append(indent).append(random.nextInt(6) == 0 ? "\t" : "    ");
+            css.append(pick(random, PROPERTIES)).append(random.nextBoolean() ? ": " : ":");
+            css.append(pick(random, VALUES));
+            if (random.nextInt(6) == 0) css.append(' ').append(pick(random, COMMENTS));
+            boolean last = i == declarations - 1;
+            if (!last || random.nextInt(3) > 0) css.append(random.nextInt(10) == 0 ? ";;" : ";");
+            css.append(random.nextInt(4) == 0 ? " " : "\n");
+        }
+        // CSS 중첩
+        if (depth < 4 && random.nextInt(5) == 0) {
+            css.append(indent).append("    &").append(random.nextBoolean() ? ":hover" : " .child").append(" { color: red; }\n");
+        }
+        css.append(indent).append("}\n");
+    }
+
+    private void keyframesOrFontFace(int depth) {
+        String indent = indent(depth);
+        if (random.nextBoolean()) {
+            css.append(indent).append("@keyframes spin {\n")
+               .append(indent).append("    from { transform: rotate(0deg); }\n")
+               .append(indent).append("    50% { opacity: .5 }\n")
+               .append(indent).append("    to { transform: rotate(360deg); }\n")
+               .append(indent).append("}\n");
+        } else {
+            css.append(indent).append("@font-face {\n")
+               .append(indent).append("    font-family: \"My Font\";\n")
+               .append(indent).append("    src: url(font.woff2) format(\"woff2\"), url('font.woff') format('woff');\n")
+               .append(indent).append("}\n");
+        }
+    }
+
+    private void blankLines() {
+        int count = 1 + random.nextInt(4);
+        for (int i = 0; i < count; i++) css.append(random.nextBoolean() ? "\n" : "   \n");
+    }
+
+    // 열에 넷꼴로 구문 오류가 있는 입력
+    private void damage() {
+        switch (random.nextInt(10)) {
+            case 0:
+                css.setLength(random.nextInt(css.length() + 1)); // 아무 데서나 끊김
+                break;
+            case 1:
+                css.insert(random.nextInt(css.length() + 1), '}');
+                break;
+            case 2:
+                css.append("/* 닫히지 않은 주석");
+                break;
+            case 3:
+                css.append(".x { content: \"닫히지 않은 문자열");
+                break;
+            default:
+                break;
+        }
+    }
+
+    // 넷에 하나꼴로 CRLF
+    private String lineEndings() {
+        String result = css.toString();
+        return random.nextInt(4) == 0 ? result.replace("\n", "\r\n") : result;
+    }
+
+    private static String indent(int depth) {
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i < depth; i++) indent.append("    ");
+        return indent.toString();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
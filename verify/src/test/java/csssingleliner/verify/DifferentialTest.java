@@ -0,0 +1,249 @@
+package csssingleliner.verify;
+
+import csssingleliner.CssHighlighter;
+import csssingleliner.core.CssIndex;
+import csssingleliner.core.CssMinifier;
+import csssingleliner.core.CssPostProcessor;
+import csssingleliner.core.CssSingleLiner;
+import csssingleliner.core.CssStreamConverter;
+import csssingleliner.core.CssTokenizer;
+import csssingleliner.core.IncrementalConverter;
+import csssingleliner.core.ParallelConverter;
+import csssingleliner.core.SourceMap;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import javax.swing.text.AttributeSet;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.DefaultStyledDocument;
+import javax.swing.text.Element;
+import javax.swing.text.StyleConstants;
+import javax.swing.text.StyledDocument;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * 차등 검사: {@link CssFuzzer} 입력마다 모든 경로(토크나이저, 무작위 크기로 읽는 스트리밍, 수정 전후의 증분 변환,
+ * 옵션 조합마다 문자열/스트림/소스 맵/색인, 바뀐 줄만 구문 강조, 병렬 변환)의 결과와 구문 오류 목록이
+ * 기준(문자열 한 번 변환 + 문자열 후처리)과 같은지 확인한다.
+ *
+ * 시드는 고정이라 실행마다 같은 입력을 검사한다. 다른 입력을 더 돌려 보려면 -Dverify.seed=S -Dverify.fuzz=N.
+ * 실패한 입력은 줄 단위로 줄여 target/verify-failures/fuzz-시드.css 에 남기고, -Dverify.seed=시드 -Dverify.fuzz=1 로 다시 돌린다.
+ */
+public class DifferentialTest {
+
+    private static final long SEED = Long.getLong("verify.seed", 20240601L);
+    private static final int COUNT = Integer.getInteger("verify.fuzz", 300);
+    private static final int FUZZ_LENGTH = 4096;
+    private static final Path FAILURES = Paths.get("target", "verify-failures");
+
+    private static final CssSingleLiner.Options RAW = CssSingleLiner.Options.DEFAULT.withCollapseBlankLines(false);
+    private static final CssSingleLiner.Options[] OPTIONS = {
+        CssSingleLiner.Options.DEFAULT,
+        CssSingleLiner.Options.DEFAULT.withRemoveComments(true),
+        RAW,
+        RAW.withRemoveComments(true),
+        CssSingleLiner.Options.DEFAULT.withMinify(true)
+    };
+
+    // 예전에 경로끼리 어긋났던 입력 (무작위 입력이 다시 만들어 주리라는 보장이 없으므로 따로 둠)
+    private static final String[] REGRESSIONS = {
+        "a { background: url(/img/*.png); }\nb { color: red }",
+        ".a { background: url(//cdn.example.com/img/*.png) } /* 진짜 주석 */ .b { color: red }",
+        "a { background: url( /x/*.png ); }\n@media print { b { color: red } }",
+        "a { background: url(\"/*\"); }\nb { color: red }"
+    };
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    private final CssHighlighter highlighter = new CssHighlighter(new DefaultStyledDocument());
+
+    @AfterClass
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void fuzzedInputsAgreeOnAllPaths() throws IOException {
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            long caseSeed = SEED + i;
+            String css = CssFuzzer.generate(caseSeed, 256 + new Random(caseSeed).nextInt(FUZZ_LENGTH));
+            String mismatch = differential(css, caseSeed);
+            if (mismatch == null) continue;
+            String shrunk = Outputs.shrink(css, candidate -> differential(candidate, caseSeed) != null);
+            Files.createDirectories(FAILURES);
+            Path file = FAILURES.resolve("fuzz-" + caseSeed + ".css");
+            Files.write(file, shrunk.getBytes(StandardCharsets.UTF_8));
+            failures.add("시드 " + caseSeed + ": " + mismatch + " (줄인 입력: " + file + ")");
+        }
+        assertEquals(String.join("\n", failures), Collections.<String>emptyList(), failures);
+    }
+
+    // 병렬 변환은 256 KB 보다 큰 입력만 나누므로 오류 없는 입력들을 이어 붙여 한 번 검사
+    @Test
+    public void largeInputAgreesWhenSplitInParallel() {
+        StringBuilder large = new StringBuilder();
+        for (long s = SEED; large.length() < 3 * 256 * 1024; s++) large.append(CssFuzzer.generate(s, FUZZ_LENGTH, false));
+        String css = large.toString();
+        List<String> errors = new ArrayList<>();
+        String raw = new CssSingleLiner(RAW).convert(css, errors);
+        StringBuilder out = new StringBuilder();
+        List<String> parallelErrors = ParallelConverter.convert(css, out, POOL);
+        assertNull(Outputs.compare("병렬 변환", raw, out.toString()));
+        assertNull(Outputs.compareErrors("병렬 변환", errors, parallelErrors));
+    }
+
+    @Test
+    public void regressionsAgreeOnAllPaths() {
+        for (int i = 0; i < REGRESSIONS.length; i++) {
+            assertNull(differential(REGRESSIONS[i], i));
+        }
+    }
+
+    // 따옴표 없는 url() 안의 "/*" 는 주석이 아님 (뒤 규칙이 주석으로 먹히면 안 됨)
+    @Test
+    public void unquotedUrlWithCommentStartIsNotAComment() {
+        List<String> errors = new ArrayList<>();
+        String out = new CssSingleLiner().convert(REGRESSIONS[0], errors);
+        assertEquals(Collections.<String>emptyList(), errors);
+        assertEquals("a { background:url(/img/*.png); }\nb { color:red }\n", out);
+        assertEquals("a{background:url(/img/*.png)}b{color:red}",
+                new CssSingleLiner(OPTIONS[4]).convert(REGRESSIONS[0]));
+    }
+
+    /**
+     * css 를 모든 경로로 변환해 기준과 비교한다. 처음 다른 곳을 설명하고, 모두 같으면 null.
+     * 기준은 문자열 한 번 변환(후처리 없음)과 그 결과의 문자열 후처리 (CssPostProcessor, CssMinifier).
+     */
+    private String differential(String css, long seed) {
+        try {
+            Random random = new Random(seed);
+            List<String> errors = new ArrayList<>();
+            String raw = new CssSingleLiner(RAW).convert(css, errors);
+            String mismatch = Outputs.compare("CssTokenizer.convert", raw, CssTokenizer.convert(css));
+
+            StringBuilder streamed = new StringBuilder();
+            List<String> streamErrors = CssStreamConverter.convert(new Outputs.ChunkedReader(css, random), streamed);
+            if (mismatch == null) mismatch = Outputs.compare("스트리밍", raw, streamed.toString());
+            if (mismatch == null) mismatch = Outputs.compareErrors("스트리밍", errors, streamErrors);
+
+            IncrementalConverter incremental = new IncrementalConverter();
+            if (mismatch == null) mismatch = Outputs.compare("증분 변환", raw, incremental.convert(css));
+            if (mismatch == null) mismatch = Outputs.compareErrors("증분 변환", errors, incremental.getErrors());
+            String edited = CssFuzzer.edit(css, seed);
+            List<String> editedErrors = new ArrayList<>();
+            String editedRaw = new CssSingleLiner(RAW).convert(edited, editedErrors);
+            if (mismatch == null) mismatch = Outputs.compare("증분 변환 (수정 후)", editedRaw, incremental.convert(edited));
+            if (mismatch == null) mismatch = Outputs.compareErrors("증분 변환 (수정 후)", editedErrors, incremental.getErrors());
+
+            for (CssSingleLiner.Options options : OPTIONS) {
+                if (mismatch != null) break;
+                mismatch = options(css, raw, errors, options, random);
+            }
+            if (mismatch == null) {
+                mismatch = highlight(CssPostProcessor.apply(raw, false), CssPostProcessor.apply(editedRaw, false));
+            }
+            return mismatch;
+        } catch (IOException | RuntimeException e) {
+            return "예외 " + e;
+        }
+    }
+
+    // 옵션 하나에 대해 문자열, 스트림, 소스 맵, 색인 경로를 기준 후처리와 비교
+    private static String options(String css, String raw, List<String> errors, CssSingleLiner.Options options,
+                                  Random random) throws IOException {
+        String expected = postProcess(raw, options);
+        CssSingleLiner liner = new CssSingleLiner(options);
+        String mismatch = Outputs.compare(options + " 문자열", expected, liner.convert(css));
+
+        StringWriter out = new StringWriter();
+        List<String> streamErrors = liner.convert(new Outputs.ChunkedReader(css, random), out);
+        if (mismatch == null) mismatch = Outputs.compare(options + " 스트림", expected, out.toString());
+        if (mismatch == null) mismatch = Outputs.compareErrors(options + " 스트림", errors, streamErrors);
+
+        out = new StringWriter();
+        SourceMap map = new SourceMap("out.css", "in.css");
+        liner.convert(new Outputs.ChunkedReader(css, random), out, map);
+        if (mismatch == null) mismatch = Outputs.compare(options + " 소스 맵", expected, out.toString());
+
+        out = new StringWriter();
+        CssIndex.Builder index = new CssIndex.Builder();
+        liner.convert(new Outputs.ChunkedReader(css, random), out, index);
+        if (mismatch == null) mismatch = Outputs.compare(options + " 색인", expected, out.toString());
+        if (mismatch == null) {
+            mismatch = Outputs.compare(options + " 색인 항목", entries(CssIndex.of(expected), expected),
+                    entries(index.build(), expected));
+        }
+        return mismatch;
+    }
+
+    private static String postProcess(String raw, CssSingleLiner.Options options) {
+        if (options.isMinify()) return CssMinifier.minify(raw);
+        if (options.isRemoveComments() && options.isCollapseBlankLines()) return CssPostProcessor.apply(raw, true);
+        if (options.isRemoveComments()) return CssPostProcessor.removeComments(raw);
+        if (options.isCollapseBlankLines()) return CssPostProcessor.collapseBlankLines(raw);
+        return raw;
+    }
+
+    // 색인 내용 요약: 크기, 이름 수, 겹친 선택자, 출력에 나오는 글자 하나하나로 찾은 항목 (빈 검색어로는 찾을 수 없으므로)
+    private static String entries(CssIndex index, String css) {
+        StringBuilder all = new StringBuilder();
+        all.append(index.size()).append(' ').append(index.getNameCount()).append('\n');
+        for (CssIndex.Duplicate duplicate : index.duplicateSelectors()) {
+            all.append(duplicate.getSelector()).append(' ').append(duplicate.getContext()).append(' ')
+               .append(Arrays.toString(duplicate.getOffsets())).append('\n');
+        }
+        boolean[] seen = new boolean[Character.MAX_VALUE + 1];
+        for (int i = 0; i < css.length(); i++) {
+            char c = css.charAt(i);
+            if (seen[c] || Character.isWhitespace(c) || Character.isSurrogate(c)) continue;
+            seen[c] = true;
+            for (CssIndex.Entry entry : index.search(String.valueOf(c), Integer.MAX_VALUE)) {
+                all.append(c).append(' ').append(entry.getKind()).append(' ').append(entry.getOffset()).append(' ')
+                   .append(entry).append('\n');
+            }
+        }
+        return all.toString();
+    }
+
+    // 창의 바뀐 줄만 다시 강조 (CssHighlighter.diff) 가 새 문서를 통째로 강조한 것과 같은지
+    private String highlight(String before, String after) {
+        StyledDocument edited = highlighter.buildDocument(before);
+        try {
+            highlighter.diff(before, after).apply(edited);
+            StyledDocument full = highlighter.buildDocument(after);
+            String mismatch = Outputs.compare("구문 강조 (바뀐 줄만)", after, edited.getText(0, edited.getLength()));
+            for (int i = 0; mismatch == null && i < after.length(); ) {
+                Element a = full.getCharacterElement(i);
+                Element b = edited.getCharacterElement(i);
+                if (!sameStyle(a.getAttributes(), b.getAttributes())) {
+                    mismatch = "구문 강조 (바뀐 줄만): " + i + " 번째 글자의 스타일이 다름" + Outputs.context(after, i);
+                }
+                i = Math.min(a.getEndOffset(), b.getEndOffset());
+            }
+            return mismatch;
+        } catch (BadLocationException e) {
+            return "구문 강조 (바뀐 줄만): " + e;
+        }
+    }
+
+    private static boolean sameStyle(AttributeSet a, AttributeSet b) {
+        return StyleConstants.getForeground(a).equals(StyleConstants.getForeground(b))
+                && StyleConstants.isBold(a) == StyleConstants.isBold(b)
+                && StyleConstants.isItalic(a) == StyleConstants.isItalic(b);
+    }
+}
@@ -0,0 +1,92 @@
+package csssingleliner.verify;
+
+import csssingleliner.core.CssSingleLiner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 골든 코퍼스: src/test/golden/input 의 스타일시트를 문자열과 파일 경로로, 기본 옵션과 압축 옵션으로 변환해
+ * src/test/golden/expected 와 바이트 단위로 비교한다.
+ * 의도한 출력 변경이면 mvn test -pl verify -Dverify.updateGolden=true 로 다시 쓰고 차이를 검토한다
+ * (그때는 CssSingleLiner.OUTPUT_VERSION 도 올림).
+ */
+@RunWith(Parameterized.class)
+public class GoldenCorpusTest {
+
+    static final Path GOLDEN = Paths.get("src", "test", "golden");
+    private static final CssSingleLiner.Options MINIFY = CssSingleLiner.Options.DEFAULT.withMinify(true);
+    private static final boolean UPDATE = Boolean.getBoolean("verify.updateGolden");
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> inputs() throws IOException {
+        List<Object[]> inputs = new ArrayList<>();
+        for (Path file : inputFiles()) inputs.add(new Object[] {file.getFileName().toString()});
+        return inputs;
+    }
+
+    static List<Path> inputFiles() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(GOLDEN.resolve("input"), "*.css")) {
+            for (Path file : dir) files.add(file);
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private final String name;
+
+    public GoldenCorpusTest(String name) {
+        this.name = name;
+    }
+
+    @Test
+    public void defaultOptions() throws IOException {
+        check(name, CssSingleLiner.Options.DEFAULT);
+    }
+
+    @Test
+    public void minified() throws IOException {
+        check(name.replace(".css", ".min.css"), MINIFY);
+    }
+
+    private void check(String expectedName, CssSingleLiner.Options options) throws IOException {
+        Path input = GOLDEN.resolve("input").resolve(name);
+        Path expected = GOLDEN.resolve("expected").resolve(expectedName);
+        String css = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+        String converted = new CssSingleLiner(options).convert(css);
+        if (UPDATE) {
+            Files.createDirectories(expected.getParent());
+            Files.write(expected, converted.getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        assertTrue("기대 결과 파일 없음: " + expected, Files.exists(expected));
+        String want = new String(Files.readAllBytes(expected), StandardCharsets.UTF_8);
+        assertNull(Outputs.compare("문자열", want, converted));
+        assertNull(Outputs.compare("파일", want, convertFile(input, options)));
+    }
+
+    // 파일 API (문자셋 판단, 매핑 또는 채널 읽기) 로 변환한 결과
+    private static String convertFile(Path input, CssSingleLiner.Options options) throws IOException {
+        Path output = Files.createTempFile("verify", ".css");
+        try {
+            new CssSingleLiner(options).convert(input, output);
+            return new String(Files.readAllBytes(output), StandardCharsets.UTF_8);
+        } finally {
+            Files.delete(output);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package csssingleliner.verify;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * 검사들이 함께 쓰는 출력 비교와 입력 도구.
+ */
+final class Outputs {
+
+    private Outputs() {
+    }
+
+    // 다르면 처음 다른 위치와 그 앞뒤, 같으면 null
+    static String compare(String what, String expected, String actual) {
+        if (expected.equals(actual)) return null;
+        int i = 0;
+        int min = Math.min(expected.length(), actual.length());
+        while (i < min && expected.charAt(i) == actual.charAt(i)) i++;
+        return what + ": " + i + " 번째 글자부터 다름 (기대 " + expected.length() + "자, 실제 " + actual.length() + "자)"
+                + "\n  기대: " + context(expected, i) + "\n  실제: " + context(actual, i);
+    }
+
+    static String compareErrors(String what, List<String> expected, List<String> actual) {
+        return Objects.equals(expected, actual) ? null : what + ": 구문 오류 목록이 다름\n  기대: " + expected + "\n  실제: " + actual;
+    }
+
+    static String context(String text, int at) {
+        int from = Math.max(0, at - 30);
+        int to = Math.min(text.length(), at + 30);
+        return "\"" + text.substring(from, to).replace("\r", "\\r").replace("\n", "\\n") + "\"";
+    }
+
+    // 실패가 유지되는 동안 줄 묶음을 지워 나감 (묶음 크기를 반씩 줄이며)
+    static String shrink(String css, Predicate<String> fails) {
+        List<String> lines = new ArrayList<>(Arrays.asList(css.split("(?<=\n)")));
+        for (int size = Math.max(1, lines.size() / 2); size >= 1; size /= 2) {
+            for (int i = 0; i + size <= lines.size(); ) {
+                List<String> candidate = new ArrayList<>(lines.subList(0, i));
+                candidate.addAll(lines.subList(i + size, lines.size()));
+                if (fails.test(String.join("", candidate))) {
+                    lines = candidate;
+                } else {
+                    i += size;
+                }
+            }
+        }
+        return String.join("", lines);
+    }
+
+    // 매번 무작위 크기(1 글자 ~ 8 KB)로 나눠 주는 Reader (조각 경계 처리 검사)
+    static final class ChunkedReader extends Reader {
+        private final String text;
+        private final Random random;
+        private int position;
+
+        ChunkedReader(String text, Random random) {
+            this.text = text;
+            this.random = random;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (position == text.length()) return -1;
+            int max = random.nextBoolean() ? 16 : 8192;
+            int n = Math.min(Math.min(len, 1 + random.nextInt(max)), text.length() - position);
+            text.getChars(position, position + n, cbuf, off);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package csssingleliner.verify;
+
+import csssingleliner.CssHighlighter;
+import csssingleliner.core.CssIndex;
+import csssingleliner.core.CssPostProcessor;
+import csssingleliner.core.CssSingleLiner;
+import csssingleliner.core.CssStreamConverter;
+import csssingleliner.core.CssTokenizer;
+import csssingleliner.core.ParallelConverter;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.swing.text.DefaultStyledDocument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 처리량 하한: 골든 코퍼스 중 구문 오류 없는 입력을 이어 붙인 고정 입력(약 2 MB)을 경로마다 변환해, MB/s(입력 글자 기준,
+ * 7번 중 최고)가 저장소에 둔 throughput-baseline.properties 의 하한보다 낮으면 실패한다.
+ *
+ * 하한은 기준 기계에서 잰 값의 1/3 쯤이다. CI 기계마다 속도가 다르고 한 번 재는 값도 흔들리므로, 작은 저하가 아니라
+ * 경로 하나가 통째로 느려진 것(알고리즘이 바뀌었거나 버퍼를 잃었거나)을 잡는 용도다. 하한보다 낮으면 한 번 더 잰다.
+ * 경로가 의도적으로 빨라지거나 느려지면 출력되는 MB/s 를 보고 하한 파일을 고친다. 건너뛰려면 -Dverify.throughput=false.
+ */
+public class ThroughputTest {
+
+    private static final int INPUT_CHARS = 2_000_000;
+    private static final CssSingleLiner.Options MINIFY = CssSingleLiner.Options.DEFAULT.withMinify(true);
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+    private static String css;
+
+    @BeforeClass
+    public static void input() throws IOException {
+        StringBuilder corpus = new StringBuilder();
+        for (Path file : GoldenCorpusTest.inputFiles()) {
+            String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            List<String> errors = new ArrayList<>();
+            new CssSingleLiner().convert(text, errors);
+            if (errors.isEmpty()) corpus.append(text).append('\n'); // 닫히지 않은 블록이 뒤 입력을 삼키지 않게
+        }
+        StringBuilder input = new StringBuilder(INPUT_CHARS + corpus.length());
+        while (input.length() < INPUT_CHARS) input.append(corpus);
+        css = input.toString();
+    }
+
+    @AfterClass
+    public static void shutdown() {
+        POOL.shutdown();
+    }
+
+    private interface Engine {
+        long run(String css) throws IOException;
+    }
+
+    @Test
+    public void pathsStayAboveCommittedFloor() throws IOException {
+        Assume.assumeTrue(Boolean.parseBoolean(System.getProperty("verify.throughput", "true")));
+        String singleLined = CssTokenizer.convert(css);
+        CssHighlighter highlighter = new CssHighlighter(new DefaultStyledDocument());
+
+        Map<String, Engine> engines = new LinkedHashMap<>();
+        engines.put("convert", text -> CssTokenizer.convert(text).length());
+        engines.put("convert+post", text -> new CssSingleLiner().convert(text).length());
+        engines.put("stream", text -> {
+            CountingWriter out = new CountingWriter();
+            CssStreamConverter.convert(new StringReader(text), out);
+            return out.written;
+        });
+        engines.put("parallel", text -> {
+            StringBuilder out = new StringBuilder(text.length());
+            ParallelConverter.convert(text, out, POOL);
+            return out.length();
+        });
+        engines.put("minify", text -> new CssSingleLiner(MINIFY).convert(text).length());
+        engines.put("post-process", text -> CssPostProcessor.apply(singleLined, true).length());
+        engines.put("index", text -> CssIndex.of(singleLined).size());
+        engines.put("highlight", text -> highlighter.buildDocument(singleLined).getLength());
+
+        Properties floors = new Properties();
+        try (InputStream in = ThroughputTest.class.getResourceAsStream("/throughput-baseline.properties")) {
+            floors.load(in);
+        }
+        assertEquals("하한 파일의 경로 목록", new TreeSet<>(engines.keySet()), new TreeSet<>(floors.stringPropertyNames()));
+
+        List<String> slow = new ArrayList<>();
+        System.out.printf(Locale.ROOT, "처리량 (입력 %.1f MB)%n", css.length() / 1e6);
+        for (Map.Entry<String, Engine> engine : engines.entrySet()) {
+            double floor = Double.parseDouble(floors.getProperty(engine.getKey()));
+            double mbps = measure(engine.getValue());
+            // 낮아 보이면 한 번 더 재서 나은 쪽 (다른 프로세스, GC 때문에 한 번 느린 것은 흔함)
+            if (mbps < floor) mbps = Math.max(mbps, measure(engine.getValue()));
+            String line = String.format(Locale.ROOT, "%-13s %8.1f MB/s (하한 %.1f)", engine.getKey(), mbps, floor);
+            System.out.println("  " + line);
+            if (mbps < floor) slow.add(line);
+        }
+        assertTrue("하한보다 느린 경로:\n" + String.join("\n", slow), slow.isEmpty());
+    }
+
+    // 다섯 번 예열한 뒤 7번 중 가장 빠른 실행의 MB/s (입력 글자 수 기준)
+    private static double measure(Engine engine) throws IOException {
+        long sink = 0;
+        for (int i = 0; i < 5; i++) sink += engine.run(css);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 7; i++) {
+            long start = System.nanoTime();
+            sink += engine.run(css);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (sink < 0) throw new IllegalStateException(); // 결과를 쓰지 않으면 JIT 가 지울 수 있음
+        return css.length() / 1e6 / (best / 1e9);
+    }
+
+    // 출력 비용을 빼고 변환 비용만 재기 위한 Writer
+    private static final class CountingWriter extends Writer {
+        long written;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            written += len;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}